@@ -1,15 +1,33 @@
 package com.example.cms.controller;
 
+import com.example.cms.service.BlogpostBulkService;
 import com.example.cms.service.BlogpostService;
+import com.example.cms.dto.BulkPost;
+import com.example.cms.dto.ImportResponse;
+import com.example.cms.dto.PageResponse;
+import com.example.cms.dto.PostProjection;
 import com.example.cms.dto.PostRequest;
 import com.example.cms.dto.PostResponse;
 import com.example.cms.dto.StatusRequest;
+import com.example.cms.dto.SuggestionResponse;
+import com.example.cms.model.Status;
 import com.example.cms.service.ServiceResult;
+import com.example.cms.util.EncodedPostCache;
+import com.example.cms.util.EncodedPostCache.EncodedPost;
+import com.example.cms.util.IfMatch;
+import com.example.cms.util.NdjsonReader;
+import com.example.cms.util.NdjsonWriter;
+import com.example.cms.util.PostFields;
 
 import lombok.RequiredArgsConstructor;
 
+import java.io.InputStream;
 import java.util.*;
+import java.util.stream.Stream;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,175 +36,242 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 @RestController
 @RequestMapping("/blogposts")
 @RequiredArgsConstructor
 public class BlogpostController {
-    private static final Logger log = LoggerFactory.getLogger(BlogpostController.class);
     private final BlogpostService service; 
+    private final NdjsonWriter ndjsonWriter;
+    private final BlogpostBulkService bulkService;
+    private final NdjsonReader ndjsonReader;
+    private final EncodedPostCache encodedPostCache;
 
+    // listings take fields=title,status or view=summary to leave out the fields a client does not read (see PostFields)
     @GetMapping
-    public List<PostResponse> getBlogposts(@RequestParam(required = false, name = "categoryId") List<Long> categoryIds) {
-        String logMessage = "Received request: GET /blogposts";
-        if (categoryIds != null && !categoryIds.isEmpty()) {
-            logMessage += String.format(" with filter by categories %s", categoryIds);
+    public ResponseEntity<? extends List<?>> getBlogposts(@RequestParam(required = false, name = "categoryId") List<Long> categoryIds,
+            @RequestParam(required = false, name = "status") Status status,
+            @RequestParam(required = false, name = "fields") String fields, @RequestParam(required = false, name = "view") String view) {
+        final Optional<PostFields> selected = PostFields.parse(fields, view);
+        if (selected.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        } else if (!selected.get().isAll()) {
+            return ResponseEntity.ok(getProjectedBlogposts(categoryIds, status, selected.get()));
+        } else if (status != null) {
+            return ResponseEntity.ok(service.getBlogpostsByStatus(status, categoryIds));
+        } else if (categoryIds == null || categoryIds.isEmpty()) {
+            return ResponseEntity.ok(service.getAllBlogposts());
+        } else {
+            return ResponseEntity.ok(service.getBlogpostsByCategory(categoryIds));
         }
-        log.info(logMessage);
-        if (categoryIds == null || categoryIds.isEmpty()) {
-            return service.getAllBlogposts();
+    }
+
+    private List<PostProjection> getProjectedBlogposts(final List<Long> categoryIds, final Status status, final PostFields fields) {
+        if (status != null) {
+            return service.getBlogpostsByStatus(status, categoryIds, fields);
+        } else if (categoryIds == null || categoryIds.isEmpty()) {
+            return service.getAllBlogposts(fields);
         } else {
-            return service.getBlogpostsByCategory(categoryIds);
+            return service.getBlogpostsByCategory(categoryIds, fields);
         }
     }
 
+    @GetMapping(produces = NdjsonWriter.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBlogposts(@RequestParam(required = false, name = "categoryId") List<Long> categoryIds,
+            @RequestParam(required = false, name = "status") Status status,
+            @RequestParam(required = false, name = "fields") String fields, @RequestParam(required = false, name = "view") String view) {
+        final Optional<PostFields> selected = PostFields.parse(fields, view);
+        if (selected.isEmpty()) { return ResponseEntity.badRequest().build(); }
+        final Stream<?> blogposts = selected.get().isAll()
+            ? service.streamBlogposts(categoryIds, status)
+            : service.streamBlogposts(categoryIds, status, selected.get());
+        return ResponseEntity.ok()
+            .contentType(NdjsonWriter.MEDIA_TYPE)
+            .body(ndjsonWriter.write(blogposts));
+    }
+
+    // every blogpost with its full version history, one per line, in the format POST /blogposts/import reads
+    @GetMapping(value = "/export", produces = NdjsonWriter.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBlogposts() {
+        return ResponseEntity.ok()
+            .contentType(NdjsonWriter.MEDIA_TYPE)
+            .body(ndjsonWriter.write(bulkService.exportBlogposts()));
+    }
+
+    // rejected lines are listed in the response instead of failing the whole import
+    @PostMapping(value = "/import", consumes = NdjsonWriter.MEDIA_TYPE_VALUE)
+    public ResponseEntity<ImportResponse> importBlogposts(InputStream body) {
+        return ResponseEntity.ok(bulkService.importBlogposts(ndjsonReader.read(body, BulkPost.class)));
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<? extends PageResponse<?>> getBlogpostPage(@RequestParam(required = false, name = "categoryId") List<Long> categoryIds,
+            @RequestParam(required = false, name = "status") Status status,
+            @RequestParam(name = "limit") int limit, @RequestParam(required = false, name = "cursor") String cursor,
+            @RequestParam(required = false, name = "fields") String fields, @RequestParam(required = false, name = "view") String view) {
+        final Optional<PostFields> selected = PostFields.parse(fields, view);
+        if (selected.isEmpty()) { return ResponseEntity.badRequest().build(); }
+        final ServiceResult<? extends PageResponse<?>> result = selected.get().isAll()
+            ? service.getBlogpostPage(categoryIds, status, cursor, limit)
+            : service.getBlogpostPage(categoryIds, status, cursor, limit, selected.get());
+        return switch (result.getStatus()) {
+            case OK -> ResponseEntity.ok(result.getData());
+            case INVALID_INPUT -> ResponseEntity.badRequest().build();
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case PRECONDITION_FAILED -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        };
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<PostResponse>> search(@RequestParam(name = "q") String query,
+            @RequestParam(required = false, name = "limit", defaultValue = "20") int limit) {
+        final ServiceResult<List<PostResponse>> result = service.searchBlogposts(query, limit);
+        return switch (result.getStatus()) {
+            case OK -> ResponseEntity.ok(result.getData());
+            case INVALID_INPUT -> ResponseEntity.badRequest().build();
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case PRECONDITION_FAILED -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        };
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggest(@RequestParam(name = "prefix") String prefix,
+            @RequestParam(required = false, name = "field", defaultValue = "title") String field,
+            @RequestParam(required = false, name = "limit", defaultValue = "10") int limit) {
+        final ServiceResult<List<SuggestionResponse>> result = service.suggest(prefix, field, limit);
+        return switch (result.getStatus()) {
+            case OK -> ResponseEntity.ok(result.getData());
+            case INVALID_INPUT -> ResponseEntity.badRequest().build();
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case PRECONDITION_FAILED -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        };
+    }
+
+    // body is the cached, pre-encoded PostResponse; a matching If-None-Match gets 304 Not Modified from Spring's ETag handling
     @GetMapping("/{id}")
-    public ResponseEntity<PostResponse> getOne(@PathVariable Long id) {
-        log.info("Received request: GET /blogposts/{}", id);
-        return service.getBlogpost(id)
-            .map(blogpost -> {
-                log.info("Blogpost with id {} found, returning 200 OK", id);
-                return ResponseEntity.ok(blogpost);
-            }).orElseGet(() -> {
-                log.warn("Blogpost with id {} not found, returning 404 Not Found", id);
-                return ResponseEntity.notFound().build();
-            });
+    public ResponseEntity<byte[]> getOne(@PathVariable Long id) {
+        return service.getEncodedBlogpost(id)
+            .map(blogpost -> ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(blogpost.etag())
+                .body(blogpost.body()))
+            .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @GetMapping("/{id}/versions")
-    public ResponseEntity<List<PostResponse>> getAllVersions(@PathVariable Long id) {
-        log.info("Received request: GET /blogposts/{}/versions");
-        return service.getAllVersionsOfBlogpost(id)
-            .map(blogposts -> {
-                log.info("Blogpost with id {} found, returning 200 OK", id);
-                return ResponseEntity.ok(blogposts);
-            }).orElseGet(() -> {
-                log.warn("Blogpost with id {} not found, returning 404 Not Found", id);
-                return ResponseEntity.notFound().build();
-            });
+    public ResponseEntity<? extends List<?>> getAllVersions(@PathVariable Long id, @RequestParam(required = false, name = "fields") String fields,
+            @RequestParam(required = false, name = "view") String view) {
+        final Optional<PostFields> selected = PostFields.parse(fields, view);
+        if (selected.isEmpty()) { return ResponseEntity.badRequest().build(); }
+        final Optional<? extends List<?>> versions = selected.get().isAll()
+            ? service.getAllVersionsOfBlogpost(id)
+            : service.getAllVersionsOfBlogpost(id, selected.get());
+        return versions
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/{id}/versions", produces = NdjsonWriter.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllVersions(@PathVariable Long id, @RequestParam(required = false, name = "fields") String fields,
+            @RequestParam(required = false, name = "view") String view) {
+        final Optional<PostFields> selected = PostFields.parse(fields, view);
+        if (selected.isEmpty()) { return ResponseEntity.badRequest().build(); }
+        final Optional<? extends Stream<?>> stream = selected.get().isAll()
+            ? service.streamAllVersionsOfBlogpost(id)
+            : service.streamAllVersionsOfBlogpost(id, selected.get());
+        return stream
+            .map(versions -> ResponseEntity.ok()
+                .contentType(NdjsonWriter.MEDIA_TYPE)
+                .body(ndjsonWriter.write(versions)))
+            .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PostMapping
     public ResponseEntity<PostResponse> create(@RequestBody PostRequest request) {
-        log.info("Received request: POST /blogposts");
         final ServiceResult<PostResponse> result = service.createBlogpost(request);
         return switch (result.getStatus()) {
-            case OK -> {
-                log.info("Blogpost creation successful, returning 200 OK");
-                yield ResponseEntity.ok(result.getData());
-            }
-            case INVALID_INPUT -> {
-                log.warn("Invalid input, returning 400 Bad Request");
-                yield ResponseEntity.badRequest().build();
-            }
-            case NOT_FOUND -> {
-                log.warn("Blogpost not found, returning 404 Not Found");
-                yield ResponseEntity.notFound().build();
-            }
+            case OK -> ResponseEntity.ok(result.getData());
+            case INVALID_INPUT -> ResponseEntity.badRequest().build();
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case PRECONDITION_FAILED -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         };
     }
 
+    // with If-Match (the ETag of GET /blogposts/{id} or the current version number), the update only succeeds if nobody
+    // else changed the blogpost since; the response carries the new version's ETag for the next conditional write
     @PutMapping("/{id}")
-    public ResponseEntity<PostResponse> update(@PathVariable Long id, @RequestBody PostRequest request) {
-        log.info("Received request: PUT /blogposts/{}", id);
-        final ServiceResult<PostResponse> result = service.updateBlogpost(id, request);
+    public ResponseEntity<byte[]> update(@PathVariable Long id, @RequestBody PostRequest request,
+            @RequestHeader(required = false, name = HttpHeaders.IF_MATCH) String ifMatch) {
+        final Optional<IfMatch> condition = IfMatch.parse(ifMatch);
+        if (condition.isEmpty()) { return ResponseEntity.badRequest().build(); }
+        final ServiceResult<PostResponse> result = service.updateBlogpost(id, request, condition.get());
         return switch (result.getStatus()) {
-            case OK -> {
-                log.info("Blogpost update successful, returning 200 OK");
-                yield ResponseEntity.ok(result.getData());
-            }
-            case INVALID_INPUT -> {
-                log.warn("Invalid input, returning 400 Bad Request");
-                yield ResponseEntity.badRequest().build();
-            }
-            case NOT_FOUND -> {
-                log.warn("Blogpost not found, returning 404 Not Found");
-                yield ResponseEntity.notFound().build();
-            }
+            case OK -> written(result.getData());
+            case INVALID_INPUT -> ResponseEntity.badRequest().build();
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case PRECONDITION_FAILED -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         };
     }
 
     @PutMapping("/{id}/status")
-    public ResponseEntity<PostResponse> updateStatus(@PathVariable Long id, @RequestBody StatusRequest request) {
-        log.info("Received request: PUT /blogposts/{}/status", id);
-
+    public ResponseEntity<byte[]> updateStatus(@PathVariable Long id, @RequestBody StatusRequest request) {
         final ServiceResult<PostResponse> result = service.updateStatus(id, request);
         return switch (result.getStatus()) {
-            case OK -> {
-                log.info("Status of blogpost {} successfully updated, returning 200 OK", id);
-                yield ResponseEntity.ok(result.getData());
-            }
-            case INVALID_INPUT -> {
-                log.warn("Invalid input, Status can only be DRAFT, PUBLISHED, and ARCHIVED, returning 400 Bad Request");
-                yield ResponseEntity.badRequest().build();
-            }
-            case NOT_FOUND -> {
-                log.warn("Blogpost not found, returning 404 Not Found");
-                yield ResponseEntity.notFound().build();
-            }
+            case OK -> written(result.getData());
+            case INVALID_INPUT -> ResponseEntity.badRequest().build();
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case PRECONDITION_FAILED -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         };
     }
 
     @PutMapping("/{id}/rollback")
-    public ResponseEntity<PostResponse> rollback(@PathVariable Long id, @RequestParam(required = true, name = "version") Integer versionNumber) {
-        log.info("Received request: PUT /blogposts/{}/rollback to version number {}", id, versionNumber);
-
+    public ResponseEntity<byte[]> rollback(@PathVariable Long id, @RequestParam(required = true, name = "version") Integer versionNumber) {
         ServiceResult<PostResponse> result = service.rollbackBlogpost(id, versionNumber);
         return switch (result.getStatus()) {
-            case OK -> {
-                log.info("Rollback successful, returning 200 OK");
-                yield ResponseEntity.ok(result.getData());
-            }
-            case INVALID_INPUT -> {
-                log.warn("Invalid input, version number not found, returning 400 Bad Request");
-                yield ResponseEntity.badRequest().build();
-            }
-            case NOT_FOUND -> {
-                log.warn("Blogpost not found, returning 404 Not Found");
-                yield ResponseEntity.notFound().build();
-            }
+            case OK -> written(result.getData());
+            case INVALID_INPUT -> ResponseEntity.badRequest().build();
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case PRECONDITION_FAILED -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         };
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<PostResponse> patch(@PathVariable Long id, @RequestBody PostRequest request) {
-        log.info("Received request: PATCH /blogposts/{}", id);
-
-        final ServiceResult<PostResponse> result = service.patchBlogpost(id, request);
+    public ResponseEntity<byte[]> patch(@PathVariable Long id, @RequestBody PostRequest request,
+            @RequestHeader(required = false, name = HttpHeaders.IF_MATCH) String ifMatch) {
+        final Optional<IfMatch> condition = IfMatch.parse(ifMatch);
+        if (condition.isEmpty()) { return ResponseEntity.badRequest().build(); }
+        final ServiceResult<PostResponse> result = service.patchBlogpost(id, request, condition.get());
         return switch (result.getStatus()) {
-            case OK -> {
-                log.info("Blogpost update successful, returning 200 OK");
-                yield ResponseEntity.ok(result.getData());
-            }
-            case INVALID_INPUT -> {
-                log.warn("Invalid input, returning 400 Bad Request");
-                yield ResponseEntity.badRequest().build();
-            }
-            case NOT_FOUND -> {
-                log.warn("Blogpost not found, returning 404 Not Found");
-                yield ResponseEntity.notFound().build();
-            }
+            case OK -> written(result.getData());
+            case INVALID_INPUT -> ResponseEntity.badRequest().build();
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case PRECONDITION_FAILED -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         };
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
-        log.info("Received request: DELETE /blogposts/{}", id);
         final boolean deleted = service.deleteBlogpost(id);
         if (deleted) {
-            log.info("Blogpost with id {} found, returning 204 OK", id);
             return ResponseEntity.noContent().build();
         } else {
-            log.info("Blogpost with id {} not found, returning 404", id);
             return ResponseEntity.notFound().build();
         }
         
     }
+
+    // Helper: the current version a write left behind, encoded like GET /blogposts/{id} and with the same ETag
+    private ResponseEntity<byte[]> written(final PostResponse response) {
+        final EncodedPost encoded = encodedPostCache.encode(response);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .eTag(encoded.etag())
+            .body(encoded.body());
+    }
 }
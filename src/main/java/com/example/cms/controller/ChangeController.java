@@ -0,0 +1,59 @@
+package com.example.cms.controller;
+
+import java.util.Optional;
+
+import com.example.cms.service.ChangeService;
+import com.example.cms.service.ServiceResult;
+
+import lombok.RequiredArgsConstructor;
+
+import com.example.cms.dto.ChangePage;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+
+@RestController
+@RequestMapping("/changes")
+@RequiredArgsConstructor
+public class ChangeController {
+    private final ChangeService service;
+
+    // catch-up: changes after since, continue with since=next until changes is empty
+    @GetMapping
+    public ResponseEntity<ChangePage> getChanges(@RequestParam(required = false, name = "since") Long since,
+            @RequestParam(required = false, name = "limit", defaultValue = "1000") int limit) {
+        final ServiceResult<ChangePage> result = service.getChanges(since, limit);
+        return switch (result.getStatus()) {
+            case OK -> ResponseEntity.ok(result.getData());
+            case INVALID_INPUT -> ResponseEntity.badRequest().build();
+            // since is older than the retention window (or from another run): reload everything, then start from next
+            case NOT_FOUND -> ResponseEntity.status(HttpStatus.GONE).build();
+            case PRECONDITION_FAILED -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        };
+    }
+
+    // live tail as Server-Sent Events; a reconnecting EventSource resumes from its Last-Event-ID
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(@RequestParam(required = false, name = "since") Long since,
+            @RequestHeader(required = false, name = "Last-Event-ID") Long lastEventId) {
+        final Optional<ServiceResult<SseEmitter>> subscribed = service.trySubscribe(lastEventId != null ? lastEventId : since);
+        if (subscribed.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        final ServiceResult<SseEmitter> result = subscribed.get();
+        return switch (result.getStatus()) {
+            case OK -> ResponseEntity.ok(result.getData());
+            case INVALID_INPUT -> ResponseEntity.badRequest().build();
+            case NOT_FOUND -> ResponseEntity.status(HttpStatus.GONE).build();
+            case PRECONDITION_FAILED -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        };
+    }
+}
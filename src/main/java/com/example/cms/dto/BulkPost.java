@@ -0,0 +1,7 @@
+package com.example.cms.dto;
+
+import java.util.List;
+
+// One line of GET /blogposts/export and POST /blogposts/import: a blogpost with its full version history.
+// On import blogpostId is ignored (ids are assigned by the CMS) and currentVersion defaults to the highest version.
+public record BulkPost(Long blogpostId, Integer currentVersion, List<BulkVersion> versions) {}
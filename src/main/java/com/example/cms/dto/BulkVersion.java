@@ -0,0 +1,9 @@
+package com.example.cms.dto;
+
+import com.example.cms.model.Status;
+
+import java.util.List;
+import java.time.LocalDateTime;
+
+// status defaults to DRAFT and createdAt to the time of the import
+public record BulkVersion(Integer versionNumber, String title, String author, String content, LocalDateTime createdAt, Status status, List<Long> categoryIds) {}
@@ -0,0 +1,8 @@
+package com.example.cms.dto;
+
+import java.util.List;
+
+import com.example.cms.model.Change;
+
+// next is the since for the following request; changes is empty once the consumer has caught up
+public record ChangePage(List<Change> changes, long next) {}
@@ -0,0 +1,4 @@
+package com.example.cms.dto;
+
+// line is 1-based, batch the 0-based batch the line belonged to
+public record ImportError(long line, int batch, String message) {}
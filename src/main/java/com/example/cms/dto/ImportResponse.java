@@ -0,0 +1,6 @@
+package com.example.cms.dto;
+
+import java.util.List;
+
+// errors lists the first rejected lines only; failed counts all of them
+public record ImportResponse(long imported, long importedVersions, long failed, List<ImportError> errors) {}
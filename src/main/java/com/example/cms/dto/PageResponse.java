@@ -0,0 +1,6 @@
+package com.example.cms.dto;
+
+import java.util.List;
+
+// next is the cursor for the following page, null on the last page
+public record PageResponse<T>(List<T> items, String next) {}
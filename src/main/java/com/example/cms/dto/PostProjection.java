@@ -0,0 +1,63 @@
+package com.example.cms.dto;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.util.PostFields;
+import com.example.cms.util.PostFields.Field;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+// A PostResponse restricted to the requested fields, written straight from the version: fields that are not requested
+// are never read, so no content is rebuilt for a summary. categories is null unless requested (see PostMapper.toProjections)
+public record PostProjection(BlogpostVersion version, PostFields fields, List<String> categories) implements JsonSerializable {
+
+    @Override
+    public void serialize(final JsonGenerator generator, final SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        for (Field field : Field.values()) {
+            if (!fields.has(field)) { continue; }
+            switch (field) {
+                case BLOGPOST_ID -> writeNumber(generator, field, version.getBlogpostId());
+                case VERSION_NUMBER -> writeNumber(generator, field, version.getVersionNumber() == null ? null : version.getVersionNumber().longValue());
+                case TITLE -> generator.writeStringField(field.jsonName(), version.getTitle());
+                case AUTHOR -> generator.writeStringField(field.jsonName(), version.getAuthor());
+                case CONTENT -> generator.writeStringField(field.jsonName(), version.getContent());
+                // same representation as in PostResponse, whatever the ObjectMapper is configured to
+                case CREATED_AT -> provider.defaultSerializeField(field.jsonName(), version.getCreatedAt(), generator);
+                case STATUS -> provider.defaultSerializeField(field.jsonName(), version.getStatus(), generator);
+                case CATEGORIES -> writeStrings(generator, field, categories);
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(final JsonGenerator generator, final SerializerProvider provider, final TypeSerializer typeSerializer)
+            throws IOException {
+        serialize(generator, provider);
+    }
+
+    private static void writeNumber(final JsonGenerator generator, final Field field, final Long value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field.jsonName());
+        } else {
+            generator.writeNumberField(field.jsonName(), value);
+        }
+    }
+
+    private static void writeStrings(final JsonGenerator generator, final Field field, final List<String> values) throws IOException {
+        if (values == null) {
+            generator.writeNullField(field.jsonName());
+            return;
+        }
+        generator.writeArrayFieldStart(field.jsonName());
+        for (String value : values) {
+            generator.writeString(value);
+        }
+        generator.writeEndArray();
+    }
+}
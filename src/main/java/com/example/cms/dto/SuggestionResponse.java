@@ -0,0 +1,6 @@
+package com.example.cms.dto;
+
+import java.time.LocalDateTime;
+
+// a distinct title or author, with the blogpost whose current version used it most recently
+public record SuggestionResponse(String text, Long blogpostId, LocalDateTime updatedAt) {}
@@ -0,0 +1,166 @@
+package com.example.cms.logging;
+
+import java.io.Closeable;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+// Bounded ring of preallocated access-log entries shared by all request threads and drained by one background thread,
+// which formats each entry as a JSON line for the "cms.access" logger. Publishing never blocks and allocates nothing:
+// when the ring is full the entry is dropped and counted (cms.access.log.dropped). An entry that fails to format or write
+// is skipped and counted (cms.access.log.failed), so the drainer keeps going
+@Component
+public class AccessLogBuffer implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(AccessLogBuffer.class);
+    private static final Logger accessLog = LoggerFactory.getLogger("cms.access");
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final class Entry {
+        // sequence number of the record the fields belong to; written last, so it publishes them to the drainer
+        private volatile long published = -1;
+        private long timestamp;
+        private String method;
+        private String path;
+        private String query;
+        private String route;
+        private int status;
+        private long durationMicros;
+        private String error;
+    }
+
+    private final Entry[] ring;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    // entries below this sequence have been written; their slots may be reused
+    private volatile long consumed;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Thread drainer;
+    private volatile boolean running = true;
+    private final StringBuilder line = new StringBuilder(256);
+
+    public AccessLogBuffer(MeterRegistry meterRegistry, @Value("${cms.access-log.buffer-size:8192}") int bufferSize) {
+        final int size = Integer.highestOneBit(Math.max(2, bufferSize - 1) << 1);
+        this.ring = new Entry[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new Entry();
+        }
+        this.mask = size - 1;
+        this.dropped = meterRegistry.counter("cms.access.log.dropped");
+        this.failed = meterRegistry.counter("cms.access.log.failed");
+        meterRegistry.gauge("cms.access.log.pending", this, AccessLogBuffer::pending);
+        this.drainer = new Thread(this::drain, "access-log");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    // false if the ring was full and the record is lost
+    public boolean publish(final String method, final String path, final String query, final String route, final int status,
+            final long durationMicros, final String error) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= ring.length) {
+                dropped.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        final Entry entry = ring[(int) sequence & mask];
+        entry.timestamp = System.currentTimeMillis();
+        entry.method = method;
+        entry.path = path;
+        entry.query = query;
+        entry.route = route;
+        entry.status = status;
+        entry.durationMicros = durationMicros;
+        entry.error = error;
+        entry.published = sequence;
+        return true;
+    }
+
+    public long dropped() {
+        return (long) dropped.count();
+    }
+
+    // records published but not yet written
+    public long pending() {
+        return claimed.get() - consumed;
+    }
+
+    // Helper: runs on the drainer thread until closed, then writes what was published before
+    private void drain() {
+        long next = 0;
+        while (true) {
+            final Entry entry = ring[(int) next & mask];
+            if (entry.published != next) {
+                if (!running) { return; }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                if (accessLog.isInfoEnabled()) {
+                    accessLog.info(format(entry));
+                }
+            } catch (RuntimeException e) {
+                // this is the only drainer: losing it would fill the ring and drop every later entry
+                failed.increment();
+                log.warn("Writing access log entry {} failed", next, e);
+            }
+            // drop the references before handing the slot back
+            entry.path = entry.query = entry.route = entry.error = null;
+            consumed = ++next;
+        }
+    }
+
+    // Helper: {"time":...,"method":...,"path":...,"query":...,"route":...,"status":...,"durationUs":...,"error":...}
+    private String format(final Entry entry) {
+        line.setLength(0);
+        line.append("{\"time\":\"").append(Instant.ofEpochMilli(entry.timestamp)).append('"');
+        appendField("method", entry.method);
+        appendField("path", entry.path);
+        appendField("query", entry.query);
+        appendField("route", entry.route);
+        line.append(",\"status\":").append(entry.status);
+        line.append(",\"durationUs\":").append(entry.durationMicros);
+        appendField("error", entry.error);
+        return line.append('}').toString();
+    }
+
+    // Helper: string field, left out when null
+    private void appendField(final String name, final String value) {
+        if (value == null) { return; }
+        line.append(",\"").append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+
+    @PreDestroy
+    @Override
+    public void close() {
+        running = false;
+        try {
+            drainer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
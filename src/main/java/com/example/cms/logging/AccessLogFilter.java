@@ -0,0 +1,89 @@
+package com.example.cms.logging;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// One access-log record per request, handed to AccessLogBuffer. Successful reads (GET and HEAD below 400) are sampled at
+// cms.access-log.read-sample-rate; writes and error responses are always recorded
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AccessLogFilter extends OncePerRequestFilter {
+    private final AccessLogBuffer buffer;
+    private final boolean enabled;
+    private final double readSampleRate;
+
+    public AccessLogFilter(AccessLogBuffer buffer, @Value("${cms.access-log.enabled:true}") boolean enabled,
+            @Value("${cms.access-log.read-sample-rate:1.0}") double readSampleRate) {
+        this.buffer = buffer;
+        this.enabled = enabled;
+        this.readSampleRate = readSampleRate;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain chain)
+            throws ServletException, IOException {
+        final long started = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            record(request, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, started, e);
+            throw e;
+        }
+        if (request.isAsyncStarted()) {
+            // streamed responses: the status and duration are only known once the async part completes
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(final AsyncEvent event) {
+                    record(request, response.getStatus(), started, event.getThrowable());
+                }
+
+                @Override
+                public void onTimeout(final AsyncEvent event) {}
+
+                @Override
+                public void onError(final AsyncEvent event) {}
+
+                @Override
+                public void onStartAsync(final AsyncEvent event) {}
+            });
+        } else {
+            record(request, response.getStatus(), started, null);
+        }
+    }
+
+    // Helper: sampling is decided before anything is read from the request
+    private void record(final HttpServletRequest request, final int status, final long started, final Throwable error) {
+        if (status < 400 && error == null && isRead(request) && !sampled()) { return; }
+        final Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        buffer.publish(request.getMethod(), request.getRequestURI(), request.getQueryString(), route == null ? null : route.toString(),
+            status, (System.nanoTime() - started) / 1_000, error == null ? null : error.toString());
+    }
+
+    private boolean isRead(final HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+    }
+
+    private boolean sampled() {
+        return readSampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < readSampleRate;
+    }
+}
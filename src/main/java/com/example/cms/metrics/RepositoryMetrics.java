@@ -0,0 +1,35 @@
+package com.example.cms.metrics;
+
+import org.springframework.stereotype.Component;
+
+import com.example.cms.repository.BlogpostRepository;
+import com.example.cms.repository.BlogpostVersionRepository;
+import com.example.cms.repository.CategoryRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// Number of entries per repository (cms.repository.size)
+@Component
+public class RepositoryMetrics implements MeterBinder {
+    private final BlogpostRepository blogpostRepository;
+    private final BlogpostVersionRepository versionRepository;
+    private final CategoryRepository categoryRepository;
+
+    public RepositoryMetrics(BlogpostRepository blogpostRepository, BlogpostVersionRepository versionRepository, CategoryRepository categoryRepository) {
+        this.blogpostRepository = blogpostRepository;
+        this.versionRepository = versionRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        Gauge.builder("cms.repository.size", blogpostRepository, BlogpostRepository::count)
+            .tag("repository", "blogposts").register(meterRegistry);
+        Gauge.builder("cms.repository.size", versionRepository, BlogpostVersionRepository::count)
+            .tag("repository", "versions").register(meterRegistry);
+        Gauge.builder("cms.repository.size", categoryRepository, CategoryRepository::count)
+            .tag("repository", "categories").register(meterRegistry);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.cms.metrics;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Counts repository calls that walk a whole collection (cms.repository.scans) and tallies them for the current request,
+// which RequestScanInterceptor records per endpoint
+@Aspect
+@Component
+public class RepositoryScanAspect {
+    private final MeterRegistry meterRegistry;
+
+    public RepositoryScanAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Before("execution(* com.example.cms.repository.BlogpostRepository.findAll())"
+        + " || execution(* com.example.cms.repository.BlogpostRepository.mapShards(..))"
+        + " || execution(* com.example.cms.repository.BlogpostRepository.stream())"
+        + " || execution(* com.example.cms.repository.CategoryRepository.findAll())"
+        + " || execution(* com.example.cms.repository.BlogpostVersionRepository.findByBlogpostId(..))"
+        + " || execution(* com.example.cms.repository.BlogpostVersionRepository.streamByBlogpostId(..))")
+    public void countScan(final JoinPoint call) {
+        meterRegistry.counter("cms.repository.scans",
+            "repository", call.getSignature().getDeclaringType().getSimpleName(),
+            "method", call.getSignature().getName()).increment();
+        RequestScans.increment();
+    }
+}
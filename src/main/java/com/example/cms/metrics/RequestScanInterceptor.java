@@ -0,0 +1,42 @@
+package com.example.cms.metrics;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Records how many full-collection scans each request made (cms.request.scans), tagged with the endpoint's URI template,
+// so endpoints that degrade as data grows stand out
+public class RequestScanInterceptor implements AsyncHandlerInterceptor {
+    private final MeterRegistry meterRegistry;
+
+    public RequestScanInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestScans.start();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        final int scans = RequestScans.finish();
+        if (scans < 0) { return; }
+        final Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("cms.request.scans")
+            .tags("method", request.getMethod(), "uri", uri == null ? "UNKNOWN" : uri.toString())
+            .register(meterRegistry)
+            .record(scans);
+    }
+
+    // streamed responses continue on another thread; only what ran on the request thread has been tallied
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        afterCompletion(request, response, handler, null);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.cms.metrics;
+
+// Number of full-collection scans made by the request the current thread is handling; threads outside a request are not tallied
+final class RequestScans {
+    private static final ThreadLocal<int[]> CURRENT = new ThreadLocal<>();
+
+    private RequestScans() {}
+
+    static void start() {
+        CURRENT.set(new int[1]);
+    }
+
+    static void increment() {
+        final int[] scans = CURRENT.get();
+        if (scans != null) {
+            scans[0]++;
+        }
+    }
+
+    // scans since start(), or -1 if no request was being tallied
+    static int finish() {
+        final int[] scans = CURRENT.get();
+        CURRENT.remove();
+        return scans == null ? -1 : scans[0];
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.cms.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import com.example.cms.service.ServiceResult;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Latency histogram per public service method (cms.service.calls) and a counter per ServiceResult outcome (cms.service.results).
+// Methods returning a lazy Stream are timed until the stream is handed out, not until it is consumed.
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+    private final MeterRegistry meterRegistry;
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.example.cms.service.*Service.*(..))")
+    public Object measure(final ProceedingJoinPoint call) throws Throwable {
+        final String service = call.getSignature().getDeclaringType().getSimpleName();
+        final String method = call.getSignature().getName();
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            final Object result = call.proceed();
+            if (result instanceof ServiceResult<?> serviceResult) {
+                meterRegistry.counter("cms.service.results", "service", service, "method", method, "outcome", serviceResult.getStatus().name())
+                    .increment();
+            }
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("cms.service.calls")
+                .tags("service", service, "method", method, "exception", exception)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        }
+    }
+}
@@ -1,13 +1,26 @@
 package com.example.cms.model;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collection;
+
+import com.example.cms.util.LongList;
 
 import lombok.Data;
 
 @Data
 public class Blogpost {
     private Long id;
-    private Long currentVersion;
-    private List<Long> versionIds = new ArrayList<>();
+    private volatile Long currentVersion;
+    // id of the version with status PUBLISHED, null if there is none; follows from the version statuses, so it is not journaled
+    private volatile Long publishedVersion;
+    // replaced on every append, so readers always see a complete list without locking; the appended list shares the
+    // previous one's array until it is full (see LongList)
+    private volatile LongList versionIds = LongList.EMPTY;
+
+    public synchronized void addVersionId(final long versionId) {
+        versionIds = versionIds.with(versionId);
+    }
+
+    public synchronized void addVersionIds(final Collection<Long> added) {
+        versionIds = versionIds.withAll(added);
+    }
 }
@@ -3,6 +3,8 @@ package com.example.cms.model;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import com.example.cms.util.LongList;
+
 import lombok.Data;
 
 @Data
@@ -12,8 +14,22 @@ public class BlogpostVersion {
     private Integer versionNumber;
     private String title;
     private String author;
-    private String content;
-    private Status status;
-    private List<Long> categories;
+    // content is kept as VersionText so the repository can store older versions as diffs (see BlogpostVersionRepository)
+    private volatile VersionText body;
+    private volatile Status status;
+    // stored as a LongList whatever list is passed in, null stays null
+    private volatile LongList categories;
     private LocalDateTime createdAt;
+
+    public String getContent() {
+        return body == null ? null : body.text();
+    }
+
+    public void setContent(final String content) {
+        this.body = content == null ? null : new VersionText.Snapshot(content);
+    }
+
+    public void setCategories(final List<Long> categories) {
+        this.categories = categories == null ? null : LongList.copyOf(categories);
+    }
 }
@@ -0,0 +1,22 @@
+package com.example.cms.model;
+
+import java.time.LocalDateTime;
+
+// One write to a blogpost or category as recorded in the change log. versionNumber is the blogpost's current version
+// after the write, null for categories and deleted blogposts
+public record Change(long seq, Entity entity, long id, Type type, Integer versionNumber, LocalDateTime at) {
+
+    public enum Entity {
+        BLOGPOST,
+        CATEGORY
+    }
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        PATCHED,
+        STATUS_CHANGED,
+        ROLLED_BACK,
+        DELETED
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.cms.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// Stored body of a BlogpostVersion: the full text, a diff against the content of a newer version, or the compressed text
+// in a memory-mapped file of the cold tier
+public sealed interface VersionText permits VersionText.Snapshot, VersionText.Delta, VersionText.Cold {
+
+    String text();
+
+    record Snapshot(String text) implements VersionText {}
+
+    // text = base[0, prefixLength) + inserted + base[base.length - suffixLength, base.length)
+    // The base is the newer version itself rather than its body, so the diff keeps working when that body is re-encoded.
+    final class Delta implements VersionText {
+        private final BlogpostVersion base;
+        private final int prefixLength;
+        private final int suffixLength;
+        private final String inserted;
+
+        private Delta(final BlogpostVersion base, final int prefixLength, final int suffixLength, final String inserted) {
+            this.base = base;
+            this.prefixLength = prefixLength;
+            this.suffixLength = suffixLength;
+            this.inserted = inserted;
+        }
+
+        // diff of text against the content of base, keeping the common prefix and suffix
+        public static Delta of(final BlogpostVersion base, final String baseText, final String text) {
+            final int max = Math.min(baseText.length(), text.length());
+            int prefix = 0;
+            while (prefix < max && baseText.charAt(prefix) == text.charAt(prefix)) {
+                prefix++;
+            }
+            int suffix = 0;
+            while (suffix < max - prefix
+                    && baseText.charAt(baseText.length() - 1 - suffix) == text.charAt(text.length() - 1 - suffix)) {
+                suffix++;
+            }
+            return new Delta(base, prefix, suffix, text.substring(prefix, text.length() - suffix));
+        }
+
+        @Override
+        public String text() {
+            final String baseText = base.getContent();
+            return new StringBuilder(prefixLength + inserted.length() + suffixLength)
+                .append(baseText, 0, prefixLength)
+                .append(inserted)
+                .append(baseText, baseText.length() - suffixLength, baseText.length())
+                .toString();
+        }
+
+        public String inserted() {
+            return inserted;
+        }
+
+        @Override
+        public String toString() {
+            return "Delta[baseVersionId=" + base.getId() + ", prefixLength=" + prefixLength + ", suffixLength=" + suffixLength
+                + ", inserted=" + inserted.length() + " chars]";
+        }
+    }
+
+    // zlib-compressed UTF-8 at segment[offset, offset + length), inflated on every read (see ColdTier). A class rather
+    // than a record so equality does not compare the whole segment
+    final class Cold implements VersionText {
+        private final ByteBuffer segment;
+        private final int offset;
+        private final int length;
+        private final int textBytes;
+
+        public Cold(final ByteBuffer segment, final int offset, final int length, final int textBytes) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.textBytes = textBytes;
+        }
+
+        @Override
+        public String text() {
+            final Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(segment.slice(offset, length));
+                final byte[] utf8 = new byte[textBytes];
+                int inflated = 0;
+                while (inflated < textBytes) {
+                    final int read = inflater.inflate(utf8, inflated, textBytes - inflated);
+                    if (read == 0 && (inflater.finished() || inflater.needsInput())) {
+                        throw new IllegalStateException("Cold tier entry at offset " + offset + " is truncated");
+                    }
+                    inflated += read;
+                }
+                return new String(utf8, StandardCharsets.UTF_8);
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Cold tier entry at offset " + offset + " is corrupt", e);
+            } finally {
+                inflater.end();
+            }
+        }
+
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public String toString() {
+            return "Cold[offset=" + offset + ", length=" + length + ", textBytes=" + textBytes + "]";
+        }
+    }
+}
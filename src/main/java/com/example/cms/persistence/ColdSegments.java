@@ -0,0 +1,92 @@
+package com.example.cms.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+import com.example.cms.model.VersionText;
+
+// Append-only files of zlib-compressed version bodies, each mapped into memory in full. Entries are only referenced by
+// the VersionText.Cold handles in the heap, so the files mean nothing to a later process and are removed on open.
+// Space of deleted versions is not reclaimed until then.
+final class ColdSegments {
+    private static final String SEGMENT_PREFIX = "cold-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private byte[] compressed = new byte[8192];
+
+    private MappedByteBuffer segment;
+    private int segmentNumber;
+    private int position;
+    // compressed bytes written in total
+    private volatile long bytes;
+
+    ColdSegments(final Path directory, final int segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    void open() throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(ColdSegments::isSegment).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    // compresses text into the current segment; null if it does not fit into a segment at all
+    synchronized VersionText.Cold write(final String text) {
+        final byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        deflater.reset();
+        deflater.setInput(utf8);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        if (length > segmentBytes) { return null; }
+        if (segment == null || position + length > segmentBytes) {
+            roll();
+        }
+        segment.put(position, compressed, 0, length);
+        final VersionText.Cold cold = new VersionText.Cold(segment, position, length, utf8.length);
+        position += length;
+        bytes += length;
+        return cold;
+    }
+
+    long bytes() {
+        return bytes;
+    }
+
+    // Helper method: map a new segment file; the mapping outlives the channel and is released once no handle refers to it
+    private void roll() {
+        final Path file = directory.resolve(SEGMENT_PREFIX + segmentNumber++ + SEGMENT_SUFFIX);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            position = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create cold tier segment " + file, e);
+        }
+    }
+
+    private static boolean isSegment(final Path file) {
+        final String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+}
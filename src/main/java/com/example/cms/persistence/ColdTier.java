@@ -0,0 +1,104 @@
+package com.example.cms.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.cms.repository.BlogpostRepository;
+import com.example.cms.repository.BlogpostVersionRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Moves the bodies of archived versions older than cms.cold-tier.min-age out of the heap: every
+// cms.cold-tier.sweep-interval-ms they are compressed into memory-mapped segment files, and the versions keep a small
+// handle that inflates the text on each read. Rolling back to such a version brings its body back to the heap.
+@Component
+@ConditionalOnProperty(name = "cms.cold-tier.enabled", havingValue = "true")
+public class ColdTier implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(ColdTier.class);
+
+    private final BlogpostRepository blogpostRepository;
+    private final BlogpostVersionRepository versionRepository;
+    private final Duration minAge;
+    private final long sweepIntervalMillis;
+    private final ColdSegments segments;
+    private final Counter movedVersions;
+    private ScheduledExecutorService sweeper;
+
+    public ColdTier(BlogpostRepository blogpostRepository, BlogpostVersionRepository versionRepository, MeterRegistry meterRegistry,
+            @Value("${cms.cold-tier.directory:cold}") String directory,
+            @Value("${cms.cold-tier.min-age:PT1H}") Duration minAge,
+            @Value("${cms.cold-tier.sweep-interval-ms:60000}") long sweepIntervalMillis,
+            @Value("${cms.cold-tier.segment-bytes:67108864}") int segmentBytes) {
+        this.blogpostRepository = blogpostRepository;
+        this.versionRepository = versionRepository;
+        this.minAge = minAge;
+        this.sweepIntervalMillis = sweepIntervalMillis;
+        this.segments = new ColdSegments(Path.of(directory), segmentBytes);
+        this.movedVersions = Counter.builder("cms.cold.tier.moved")
+            .description("Version bodies moved to the cold tier")
+            .register(meterRegistry);
+        Gauge.builder("cms.cold.tier.bytes", segments, ColdSegments::bytes)
+            .description("Compressed bytes written to cold tier segments")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        segments.open();
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "cold-tier");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(() -> {
+            try {
+                sweep();
+            } catch (RuntimeException e) {
+                log.error("Cold tier sweep failed, retrying with the next one", e);
+            }
+        }, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // moves every version that qualifies now and returns how many were moved
+    public int sweep() {
+        final long started = System.nanoTime();
+        final LocalDateTime createdBefore = LocalDateTime.now().minus(minAge);
+        final int moved = versionRepository.streamColdCandidates(createdBefore)
+            .mapToInt(version -> blogpostRepository.withLock(version.getBlogpostId(),
+                () -> versionRepository.moveToColdTier(version, createdBefore, segments::write)) ? 1 : 0)
+            .sum();
+        movedVersions.increment(moved);
+        if (moved > 0) {
+            log.info("Moved {} archived versions to the cold tier in {} ms ({} MB of segments written so far)",
+                moved, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), segments.bytes() >> 20);
+        }
+        return moved;
+    }
+
+    // Segment files stay mapped: cold versions are still read after this, e.g. by DurableStorage's final snapshot
+    @PreDestroy
+    @Override
+    public void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+}
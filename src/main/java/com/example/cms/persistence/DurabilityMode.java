@@ -0,0 +1,11 @@
+package com.example.cms.persistence;
+
+// When a write to the repositories returns relative to the fsync of its log record
+public enum DurabilityMode {
+    // every write is fsynced before it returns
+    FSYNC_PER_WRITE,
+    // writers wait for an fsync that covers every record appended in the meantime (group commit)
+    BATCHED,
+    // writes return right away, the log is fsynced in the background; a crash loses at most one flush interval
+    ASYNC
+}
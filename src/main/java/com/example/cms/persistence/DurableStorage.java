@@ -0,0 +1,270 @@
+package com.example.cms.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import com.example.cms.model.Blogpost;
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.model.Category;
+import com.example.cms.model.Status;
+import com.example.cms.persistence.JournalRecord.BlogpostDeleted;
+import com.example.cms.persistence.JournalRecord.BlogpostSaved;
+import com.example.cms.persistence.JournalRecord.CategoryDeleted;
+import com.example.cms.persistence.JournalRecord.CategorySaved;
+import com.example.cms.persistence.JournalRecord.VersionDeleted;
+import com.example.cms.persistence.JournalRecord.VersionSaved;
+import com.example.cms.persistence.JournalRecord.VersionsOfBlogpostDeleted;
+import com.example.cms.repository.BlogpostRepository;
+import com.example.cms.repository.BlogpostVersionRepository;
+import com.example.cms.repository.CategoryRepository;
+import com.example.cms.repository.CurrentVersionListener;
+import com.example.cms.repository.RepositoryJournal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Keeps the in-memory repositories across restarts: every write is appended to the write-ahead log, and the full state is
+// snapshotted every cms.persistence.snapshot-interval-records records so startup only replays the log after the snapshot.
+@Component
+@ConditionalOnProperty(name = "cms.persistence.enabled", havingValue = "true")
+public class DurableStorage implements RepositoryJournal, Closeable {
+    private static final Logger log = LoggerFactory.getLogger(DurableStorage.class);
+
+    private final BlogpostRepository blogpostRepository;
+    private final BlogpostVersionRepository versionRepository;
+    private final CategoryRepository categoryRepository;
+    private final List<CurrentVersionListener> currentVersionListeners;
+    private final Path directory;
+    private final long snapshotIntervalRecords;
+    private final long asyncFlushIntervalMillis;
+    private final WriteAheadLog wal;
+    private final SnapshotStore snapshots;
+
+    // one thread per snapshot (only one is scheduled at a time), virtual if spring.threads.virtual.enabled is set
+    private final SimpleAsyncTaskExecutor snapshotter = new SimpleAsyncTaskExecutor("snapshotter-");
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final AtomicLong recordsSinceSnapshot = new AtomicLong();
+    private final AtomicBoolean snapshotScheduled = new AtomicBoolean();
+    // sequence number of the last record appended by the batch running on this thread, null outside a batch
+    private final ThreadLocal<long[]> batchLastSeq = new ThreadLocal<>();
+
+    public DurableStorage(BlogpostRepository blogpostRepository, BlogpostVersionRepository versionRepository, CategoryRepository categoryRepository,
+            List<CurrentVersionListener> currentVersionListeners,
+            @Value("${cms.persistence.directory:data}") String directory,
+            @Value("${cms.persistence.durability:BATCHED}") DurabilityMode durability,
+            @Value("${cms.persistence.segment-bytes:67108864}") long segmentBytes,
+            @Value("${cms.persistence.snapshot-interval-records:100000}") long snapshotIntervalRecords,
+            @Value("${cms.persistence.async-flush-interval-ms:200}") long asyncFlushIntervalMillis,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.blogpostRepository = blogpostRepository;
+        this.versionRepository = versionRepository;
+        this.categoryRepository = categoryRepository;
+        this.currentVersionListeners = currentVersionListeners;
+        this.directory = Path.of(directory);
+        this.snapshotIntervalRecords = snapshotIntervalRecords;
+        this.asyncFlushIntervalMillis = asyncFlushIntervalMillis;
+        this.wal = new WriteAheadLog(this.directory, durability, segmentBytes, versionRepository.shards());
+        this.snapshots = new SnapshotStore(this.directory, versionRepository.shards());
+        snapshotter.setVirtualThreads(virtualThreads);
+        snapshotter.setDaemon(true);
+        snapshotter.setTaskTerminationTimeout(TimeUnit.MINUTES.toMillis(1));
+    }
+
+    // Restores the latest snapshot plus the log after it, then starts journaling the repositories
+    @PostConstruct
+    public void start() throws IOException {
+        final long started = System.nanoTime();
+        Files.createDirectories(directory);
+        final Optional<SnapshotStore.Header> header = snapshots.load(this::apply);
+        header.ifPresent(snapshot -> {
+            blogpostRepository.reserveIdsBelow(snapshot.blogpostIdWatermark());
+            versionRepository.reserveIdsBelow(snapshot.versionIdWatermark());
+            categoryRepository.reserveIdsBelow(snapshot.categoryIdWatermark());
+        });
+        final long snapshotSeq = header.map(SnapshotStore.Header::seq).orElse(0L);
+        final long lastSeq = wal.recover(snapshotSeq, payload -> apply(JournalRecord.decode(payload)), asyncFlushIntervalMillis);
+        recordsSinceSnapshot.set(lastSeq - snapshotSeq);
+
+        // neither the published version pointers nor the indexes over current versions are persisted, so rebuild the
+        // pointers from the version statuses and announce every restored blogpost to the indexes
+        blogpostRepository.stream().forEach(blogpost -> {
+            versionRepository.streamByBlogpostId(blogpost.getId())
+                .filter(version -> version.getStatus() == Status.PUBLISHED)
+                .reduce((first, second) -> second)
+                .ifPresent(published -> blogpost.setPublishedVersion(published.getId()));
+            versionRepository.findById(blogpost.getCurrentVersion())
+                .ifPresent(current -> currentVersionListeners.forEach(listener -> listener.onCurrentVersionChanged(blogpost.getId(), null, current)));
+        });
+
+        blogpostRepository.setJournal(this);
+        versionRepository.setJournal(this);
+        categoryRepository.setJournal(this);
+        log.info("Restored snapshot at record {} and replayed {} log records from {} in {} ms",
+            snapshotSeq, lastSeq - snapshotSeq, directory.toAbsolutePath(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    // Helper method: apply a snapshot or log record to the repositories (journaling is not attached yet)
+    private void apply(final JournalRecord record) {
+        if (record instanceof BlogpostSaved r) {
+            blogpostRepository.save(r.blogpost());
+        } else if (record instanceof BlogpostDeleted r) {
+            blogpostRepository.deleteById(r.id());
+        } else if (record instanceof VersionSaved r) {
+            // title, author and content never change once a version exists, so only status and categories are taken
+            // over; the restored object stays in place, it may be the base of an older version's diff
+            versionRepository.findById(r.version().getId()).ifPresentOrElse(
+                existing -> {
+                    existing.setStatus(r.version().getStatus());
+                    versionRepository.saveCategories(existing, r.version().getCategories());
+                },
+                () -> versionRepository.save(r.version()));
+        } else if (record instanceof VersionDeleted r) {
+            versionRepository.deleteById(r.id());
+        } else if (record instanceof VersionsOfBlogpostDeleted r) {
+            versionRepository.deleteByBlogpostId(r.blogpostId());
+        } else if (record instanceof CategorySaved r) {
+            categoryRepository.save(r.category());
+        } else if (record instanceof CategoryDeleted r) {
+            categoryRepository.deleteById(r.id());
+        }
+    }
+
+    @Override
+    public void blogpostSaved(final Blogpost blogpost) {
+        append(new BlogpostSaved(blogpost));
+    }
+
+    @Override
+    public void blogpostDeleted(final Long id) {
+        append(new BlogpostDeleted(id));
+    }
+
+    @Override
+    public void versionSaved(final BlogpostVersion version) {
+        append(new VersionSaved(version));
+    }
+
+    @Override
+    public void versionDeleted(final Long id) {
+        append(new VersionDeleted(id));
+    }
+
+    @Override
+    public void versionsOfBlogpostDeleted(final Long blogpostId) {
+        append(new VersionsOfBlogpostDeleted(blogpostId));
+    }
+
+    @Override
+    public void categorySaved(final Category category) {
+        append(new CategorySaved(category));
+    }
+
+    @Override
+    public void categoryDeleted(final Long id) {
+        append(new CategoryDeleted(id));
+    }
+
+    // Records appended by the writes are fsynced once at the end instead of one by one; the batch returns only after that
+    @Override
+    public void batch(final Runnable writes) {
+        if (batchLastSeq.get() != null) {
+            writes.run();
+            return;
+        }
+        final long[] lastSeq = {0};
+        batchLastSeq.set(lastSeq);
+        try {
+            writes.run();
+        } finally {
+            batchLastSeq.remove();
+            // whatever was applied in memory must not stay volatile, even if the batch failed half-way
+            if (lastSeq[0] > 0) {
+                wal.sync(lastSeq[0]);
+            }
+        }
+    }
+
+    // Helper method: returns once the record is as durable as the configured DurabilityMode promises (or, inside a
+    // batch, once it is written)
+    private void append(final JournalRecord record) {
+        final long[] batch = batchLastSeq.get();
+        final long seq = wal.append(JournalRecord.encode(record), batch == null);
+        if (batch != null) {
+            batch[0] = seq;
+        }
+        if (recordsSinceSnapshot.incrementAndGet() >= snapshotIntervalRecords && snapshotScheduled.compareAndSet(false, true)) {
+            try {
+                snapshotter.execute(() -> {
+                    try {
+                        snapshot();
+                    } catch (IOException | RuntimeException e) {
+                        log.error("Snapshot failed, the write-ahead log keeps growing until the next one succeeds", e);
+                    } finally {
+                        snapshotScheduled.set(false);
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                // shutting down, close() takes the final snapshot
+                snapshotScheduled.set(false);
+            }
+        }
+    }
+
+    // Writes the current state as a snapshot and drops the log segments it covers. Writers keep going meanwhile: records
+    // after the snapshot's sequence number are replayed on top of it, and replaying a save is idempotent.
+    public void snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            final long seq = wal.lastSeq();
+            recordsSinceSnapshot.set(0);
+            final SnapshotStore.Header header = new SnapshotStore.Header(seq,
+                blogpostRepository.idWatermark(), versionRepository.idWatermark(), categoryRepository.idWatermark());
+            final Stream<JournalRecord> records = Stream.concat(
+                categoryRepository.findAll().stream().map(CategorySaved::new),
+                // versions in version order, so restoring rebuilds each blogpost's diff chain
+                blogpostRepository.stream().flatMap(blogpost -> Stream.concat(
+                    versionRepository.streamByBlogpostId(blogpost.getId()).map(VersionSaved::new),
+                    Stream.of(new BlogpostSaved(blogpost)))));
+            snapshots.write(header, records);
+            wal.deleteSegmentsCoveredBy(seq);
+            log.info("Wrote snapshot at record {}", seq);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    @Override
+    public void close() throws IOException {
+        // waits for a running snapshot to finish
+        snapshotter.close();
+        // a final snapshot makes the next startup replay nothing
+        try {
+            snapshot();
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Final snapshot failed, the next startup replays the write-ahead log instead", e);
+        }
+        blogpostRepository.setJournal(RepositoryJournal.NONE);
+        versionRepository.setJournal(RepositoryJournal.NONE);
+        categoryRepository.setJournal(RepositoryJournal.NONE);
+        wal.close();
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.cms.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import com.example.cms.model.Blogpost;
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.model.Category;
+import com.example.cms.model.Status;
+import com.example.cms.util.LongList;
+
+// One repository write, as stored in the write-ahead log and (saves only) in snapshots.
+// Saves carry the full entity state, so replaying a record is idempotent.
+sealed interface JournalRecord {
+
+    record BlogpostSaved(Blogpost blogpost) implements JournalRecord {}
+    record BlogpostDeleted(long id) implements JournalRecord {}
+    record VersionSaved(BlogpostVersion version) implements JournalRecord {}
+    record VersionDeleted(long id) implements JournalRecord {}
+    record VersionsOfBlogpostDeleted(long blogpostId) implements JournalRecord {}
+    record CategorySaved(Category category) implements JournalRecord {}
+    record CategoryDeleted(long id) implements JournalRecord {}
+
+    byte BLOGPOST_SAVED = 1;
+    byte BLOGPOST_DELETED = 2;
+    byte VERSION_SAVED = 3;
+    byte VERSION_DELETED = 4;
+    byte VERSIONS_OF_BLOGPOST_DELETED = 5;
+    byte CATEGORY_SAVED = 6;
+    byte CATEGORY_DELETED = 7;
+
+    static byte[] encode(final JournalRecord record) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            if (record instanceof BlogpostSaved r) {
+                out.writeByte(BLOGPOST_SAVED);
+                out.writeLong(r.blogpost().getId());
+                writeNullableLong(out, r.blogpost().getCurrentVersion());
+                writeLongs(out, r.blogpost().getVersionIds());
+            } else if (record instanceof VersionSaved r) {
+                final BlogpostVersion version = r.version();
+                out.writeByte(VERSION_SAVED);
+                out.writeLong(version.getId());
+                out.writeLong(version.getBlogpostId());
+                out.writeInt(version.getVersionNumber());
+                writeString(out, version.getTitle());
+                writeString(out, version.getAuthor());
+                writeString(out, version.getContent());
+                out.writeByte(version.getStatus() == null ? -1 : version.getStatus().ordinal());
+                writeLongs(out, version.getCategories() == null ? LongList.EMPTY : version.getCategories());
+                final LocalDateTime createdAt = version.getCreatedAt();
+                out.writeBoolean(createdAt != null);
+                if (createdAt != null) {
+                    out.writeLong(createdAt.toEpochSecond(ZoneOffset.UTC));
+                    out.writeInt(createdAt.getNano());
+                }
+            } else if (record instanceof CategorySaved r) {
+                out.writeByte(CATEGORY_SAVED);
+                out.writeLong(r.category().getId());
+                writeString(out, r.category().getName());
+                writeString(out, r.category().getDescription());
+            } else if (record instanceof BlogpostDeleted r) {
+                out.writeByte(BLOGPOST_DELETED);
+                out.writeLong(r.id());
+            } else if (record instanceof VersionDeleted r) {
+                out.writeByte(VERSION_DELETED);
+                out.writeLong(r.id());
+            } else if (record instanceof VersionsOfBlogpostDeleted r) {
+                out.writeByte(VERSIONS_OF_BLOGPOST_DELETED);
+                out.writeLong(r.blogpostId());
+            } else if (record instanceof CategoryDeleted r) {
+                out.writeByte(CATEGORY_DELETED);
+                out.writeLong(r.id());
+            }
+        } catch (IOException e) {
+            // cannot happen for an in-memory stream
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static JournalRecord decode(final ByteBuffer in) {
+        final byte type = in.get();
+        return switch (type) {
+            case BLOGPOST_SAVED -> {
+                final Blogpost blogpost = new Blogpost();
+                blogpost.setId(in.getLong());
+                blogpost.setCurrentVersion(readNullableLong(in));
+                blogpost.setVersionIds(readLongs(in));
+                yield new BlogpostSaved(blogpost);
+            }
+            case VERSION_SAVED -> {
+                final BlogpostVersion version = new BlogpostVersion();
+                version.setId(in.getLong());
+                version.setBlogpostId(in.getLong());
+                version.setVersionNumber(in.getInt());
+                version.setTitle(readString(in));
+                version.setAuthor(readString(in));
+                version.setContent(readString(in));
+                final byte status = in.get();
+                version.setStatus(status < 0 ? null : Status.values()[status]);
+                version.setCategories(readLongs(in));
+                if (in.get() != 0) {
+                    version.setCreatedAt(LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC));
+                }
+                yield new VersionSaved(version);
+            }
+            case CATEGORY_SAVED -> new CategorySaved(new Category(in.getLong(), readString(in), readString(in)));
+            case BLOGPOST_DELETED -> new BlogpostDeleted(in.getLong());
+            case VERSION_DELETED -> new VersionDeleted(in.getLong());
+            case VERSIONS_OF_BLOGPOST_DELETED -> new VersionsOfBlogpostDeleted(in.getLong());
+            case CATEGORY_DELETED -> new CategoryDeleted(in.getLong());
+            default -> throw new IllegalStateException("Unknown journal record type " + type);
+        };
+    }
+
+    // Helper: length-prefixed UTF-8, -1 for null (writeUTF is limited to 64 KB)
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(final ByteBuffer in) {
+        final int length = in.getInt();
+        if (length < 0) { return null; }
+        final byte[] utf8 = new byte[length];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static void writeNullableLong(final DataOutputStream out, final Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readNullableLong(final ByteBuffer in) {
+        return in.get() != 0 ? in.getLong() : null;
+    }
+
+    // Helper: count-prefixed ids
+    private static void writeLongs(final DataOutputStream out, final LongList values) throws IOException {
+        out.writeInt(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            out.writeLong(values.getLong(i));
+        }
+    }
+
+    private static LongList readLongs(final ByteBuffer in) {
+        final long[] values = new long[in.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.getLong();
+        }
+        return LongList.of(values);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.cms.persistence;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// A follower only serves reads: its repositories are written by ReplicationFollower alone, so writes to the CMS
+// endpoints are rejected with 405 instead of diverging from the leader
+@Component
+@ConditionalOnProperty(name = "cms.replication.role", havingValue = "follower")
+public class ReplicaWriteFilter extends OncePerRequestFilter {
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return READ_METHODS.contains(request.getMethod()) || request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain chain)
+            throws ServletException, IOException {
+        response.setHeader(HttpHeaders.ALLOW, String.join(", ", READ_METHODS));
+        response.sendError(HttpStatus.METHOD_NOT_ALLOWED.value(), "Read-only replica, send writes to the leader");
+    }
+}
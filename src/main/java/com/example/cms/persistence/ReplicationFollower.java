@@ -0,0 +1,373 @@
+package com.example.cms.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.cms.model.Blogpost;
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.model.Category;
+import com.example.cms.model.Change;
+import com.example.cms.model.Status;
+import com.example.cms.persistence.JournalRecord.BlogpostDeleted;
+import com.example.cms.persistence.JournalRecord.BlogpostSaved;
+import com.example.cms.persistence.JournalRecord.CategoryDeleted;
+import com.example.cms.persistence.JournalRecord.CategorySaved;
+import com.example.cms.persistence.JournalRecord.VersionDeleted;
+import com.example.cms.persistence.JournalRecord.VersionSaved;
+import com.example.cms.persistence.JournalRecord.VersionsOfBlogpostDeleted;
+import com.example.cms.repository.BlogpostRepository;
+import com.example.cms.repository.BlogpostVersionRepository;
+import com.example.cms.repository.CategoryIndex;
+import com.example.cms.repository.CategoryRepository;
+import com.example.cms.repository.ChangeLog;
+import com.example.cms.repository.CurrentVersionListener;
+import com.example.cms.repository.StatusIndex;
+import com.example.cms.util.CategoryNameResolver;
+import com.example.cms.util.EncodedPostCache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Follower side of replication: applies the leader's operation log to the local repositories on one background thread
+// and keeps the indexes and caches in step the way BlogpostService and CategoryService do on the leader, so reads can be
+// served locally. Reconnects after a lost connection and resumes from the last applied record, or installs a snapshot
+// if the leader no longer has it (or restarted). Reads are eventually consistent; writes are rejected (ReplicaWriteFilter).
+// Applied writes are recorded in the local change log as the leader's services record them, except that patches show up
+// as updates; a snapshot resets the change log, so change feed consumers start over as after falling behind.
+@Component
+@ConditionalOnProperty(name = "cms.replication.role", havingValue = "follower")
+public class ReplicationFollower implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicationFollower.class);
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+    private final BlogpostRepository blogpostRepository;
+    private final BlogpostVersionRepository versionRepository;
+    private final CategoryRepository categoryRepository;
+    private final List<CurrentVersionListener> currentVersionListeners;
+    private final CategoryIndex categoryIndex;
+    private final StatusIndex statusIndex;
+    private final EncodedPostCache encodedPostCache;
+    private final CategoryNameResolver categoryNameResolver;
+    private final ChangeLog changeLog;
+    private final String leaderHost;
+    private final int leaderPort;
+    private final long heartbeatIntervalMillis;
+    private final Counter snapshots;
+    private final Thread applier;
+    private volatile boolean running = true;
+    private volatile Socket socket;
+
+    // written by the applier thread only
+    private volatile boolean connected;
+    // leader run and record the local state is at, 0 before the first snapshot
+    private long epoch;
+    private volatile long appliedSeq;
+    private volatile long leaderSeq;
+    // leader time of the last applied record
+    private volatile long appliedAt;
+    // true while a snapshot is applied: its records are the leader's state, not changes
+    private boolean installingSnapshot;
+
+    public ReplicationFollower(BlogpostRepository blogpostRepository, BlogpostVersionRepository versionRepository, CategoryRepository categoryRepository,
+            List<CurrentVersionListener> currentVersionListeners, CategoryIndex categoryIndex, StatusIndex statusIndex,
+            EncodedPostCache encodedPostCache, CategoryNameResolver categoryNameResolver, ChangeLog changeLog, MeterRegistry meterRegistry,
+            @Value("${cms.replication.leader:localhost:7070}") String leader,
+            @Value("${cms.replication.heartbeat-interval-ms:1000}") long heartbeatIntervalMillis) {
+        this.blogpostRepository = blogpostRepository;
+        this.versionRepository = versionRepository;
+        this.categoryRepository = categoryRepository;
+        this.currentVersionListeners = currentVersionListeners;
+        this.categoryIndex = categoryIndex;
+        this.statusIndex = statusIndex;
+        this.encodedPostCache = encodedPostCache;
+        this.categoryNameResolver = categoryNameResolver;
+        this.changeLog = changeLog;
+        final int colon = leader.lastIndexOf(':');
+        this.leaderHost = leader.substring(0, colon);
+        this.leaderPort = Integer.parseInt(leader.substring(colon + 1));
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+        this.snapshots = meterRegistry.counter("cms.replication.snapshots");
+        meterRegistry.gauge("cms.replication.lag.records", this, ReplicationFollower::lagRecords);
+        TimeGauge.builder("cms.replication.lag", this, TimeUnit.MILLISECONDS, ReplicationFollower::lagMillis).register(meterRegistry);
+        meterRegistry.gauge("cms.replication.connected", this, follower -> follower.connected ? 1 : 0);
+        this.applier = new Thread(this::run, "replication-follower");
+        applier.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        applier.start();
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    // false once closed or rejected by the leader
+    public boolean isFollowing() {
+        return running;
+    }
+
+    public long appliedSeq() {
+        return appliedSeq;
+    }
+
+    // records the leader has written that are not applied here yet, as of the last frame received
+    public long lagRecords() {
+        return Math.max(0, leaderSeq - appliedSeq);
+    }
+
+    // how far the local state is behind the leader's: 0 when caught up, otherwise the age of the last applied write
+    // (by the leader's clock)
+    public long lagMillis() {
+        return lagRecords() == 0 ? 0 : Math.max(0, System.currentTimeMillis() - appliedAt);
+    }
+
+    // Helper method: runs on the applier thread until closed
+    private void run() {
+        while (running) {
+            try (Socket connection = new Socket()) {
+                socket = connection;
+                connection.connect(new InetSocketAddress(leaderHost, leaderPort), (int) RECONNECT_DELAY_MILLIS * 5);
+                connection.setTcpNoDelay(true);
+                // the leader sends a heartbeat at least every interval
+                connection.setSoTimeout((int) (heartbeatIntervalMillis * 5));
+                final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+                out.writeInt(ReplicationProtocol.MAGIC);
+                out.writeInt(versionRepository.shards());
+                out.writeLong(epoch);
+                out.writeLong(appliedSeq);
+                out.flush();
+                connected = true;
+                log.info("Following leader {}:{} from record {}", leaderHost, leaderPort, appliedSeq);
+                receive(new DataInputStream(new BufferedInputStream(connection.getInputStream(), 1 << 16)));
+            } catch (IOException | RuntimeException e) {
+                if (running) {
+                    log.warn("Replication from {}:{} interrupted, reconnecting: {}", leaderHost, leaderPort, e.toString());
+                }
+            } finally {
+                connected = false;
+            }
+            try {
+                Thread.sleep(RECONNECT_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // Helper method: applies frames until the connection ends
+    private void receive(final DataInputStream in) throws IOException {
+        while (running) {
+            final byte type = in.readByte();
+            switch (type) {
+                case ReplicationProtocol.SNAPSHOT -> installSnapshot(in);
+                case ReplicationProtocol.RECORD -> {
+                    final long seq = in.readLong();
+                    leaderSeq = in.readLong();
+                    final long recordAppendedAt = in.readLong();
+                    apply(JournalRecord.decode(ByteBuffer.wrap(ReplicationProtocol.readRecord(in))));
+                    appliedAt = recordAppendedAt;
+                    appliedSeq = seq;
+                }
+                case ReplicationProtocol.HEARTBEAT -> {
+                    leaderSeq = in.readLong();
+                    in.readLong();
+                }
+                case ReplicationProtocol.REJECTED -> {
+                    // reconnecting won't help until this node is restarted with the leader's shard count
+                    final int leaderShards = in.readInt();
+                    log.error("Leader {}:{} runs with {} shards, this node with {}; stopped following, restart with cms.repository.shards={}",
+                        leaderHost, leaderPort, leaderShards, versionRepository.shards(), leaderShards);
+                    running = false;
+                    return;
+                }
+                default -> throw new IOException("Unknown replication frame " + type);
+            }
+        }
+    }
+
+    // Helper method: applies the leader's full state and drops whatever the leader no longer has
+    private void installSnapshot(final DataInputStream in) throws IOException {
+        final long started = System.nanoTime();
+        final long snapshotEpoch = in.readLong();
+        final long seq = in.readLong();
+        blogpostRepository.reserveIdsBelow(in.readLong());
+        versionRepository.reserveIdsBelow(in.readLong());
+        categoryRepository.reserveIdsBelow(in.readLong());
+        final Set<Long> blogpostIds = new HashSet<>();
+        final Set<Long> categoryIds = new HashSet<>();
+        installingSnapshot = true;
+        try {
+            byte[] payload;
+            while ((payload = ReplicationProtocol.readRecord(in)) != null) {
+                final JournalRecord record = JournalRecord.decode(ByteBuffer.wrap(payload));
+                if (record instanceof BlogpostSaved r) {
+                    blogpostIds.add(r.blogpost().getId());
+                } else if (record instanceof CategorySaved r) {
+                    categoryIds.add(r.category().getId());
+                }
+                apply(record);
+            }
+            blogpostRepository.stream().map(Blogpost::getId).filter(id -> !blogpostIds.contains(id)).toList().forEach(id -> {
+                apply(new BlogpostDeleted(id));
+                apply(new VersionsOfBlogpostDeleted(id));
+            });
+            categoryRepository.findAll().stream().map(Category::getId).filter(id -> !categoryIds.contains(id)).toList()
+                .forEach(id -> apply(new CategoryDeleted(id)));
+        } finally {
+            // also when the snapshot broke off: the local state changed either way
+            installingSnapshot = false;
+            changeLog.reset();
+        }
+        epoch = snapshotEpoch;
+        appliedSeq = seq;
+        leaderSeq = Math.max(leaderSeq, seq);
+        appliedAt = System.currentTimeMillis();
+        snapshots.increment();
+        log.info("Installed snapshot at record {} with {} blogposts in {} ms", seq, blogpostIds.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    // Helper method: a record from the leader, with the index and cache maintenance the services do for that write
+    private void apply(final JournalRecord record) {
+        if (record instanceof BlogpostSaved r) {
+            final Blogpost blogpost = r.blogpost();
+            final Optional<Blogpost> existing = blogpostRepository.findById(blogpost.getId());
+            final BlogpostVersion previous = existing.map(Blogpost::getCurrentVersion).flatMap(versionRepository::findById).orElse(null);
+            // the published version is not part of the record (see DurableStorage.start); it is tracked from version statuses
+            blogpost.setPublishedVersion(existing.isPresent() ? existing.get().getPublishedVersion() : publishedVersionOf(blogpost.getId()));
+            blogpostRepository.save(blogpost);
+            final BlogpostVersion current = versionRepository.findById(blogpost.getCurrentVersion()).orElse(null);
+            if (existing.isEmpty() || previous != current) {
+                encodedPostCache.invalidate(blogpost.getId());
+                currentVersionListeners.forEach(listener -> listener.onCurrentVersionChanged(blogpost.getId(), previous, current));
+                // a rollback is the only write that makes an older version current
+                final Change.Type type = existing.isEmpty() ? Change.Type.CREATED
+                    : previous != null && current != null && current.getVersionNumber() < previous.getVersionNumber() ? Change.Type.ROLLED_BACK
+                    : Change.Type.UPDATED;
+                changed(Change.Entity.BLOGPOST, blogpost.getId(), type, current == null ? null : current.getVersionNumber());
+            }
+        } else if (record instanceof BlogpostDeleted r) {
+            final Optional<Blogpost> existing = blogpostRepository.findById(r.id());
+            if (existing.isEmpty()) { return; }
+            final BlogpostVersion previous = versionRepository.findById(existing.get().getCurrentVersion()).orElse(null);
+            blogpostRepository.deleteById(r.id());
+            encodedPostCache.invalidate(r.id());
+            currentVersionListeners.forEach(listener -> listener.onCurrentVersionChanged(r.id(), previous, null));
+            changed(Change.Entity.BLOGPOST, r.id(), Change.Type.DELETED, null);
+        } else if (record instanceof VersionSaved r) {
+            applyVersion(r.version());
+        } else if (record instanceof VersionDeleted r) {
+            versionRepository.deleteById(r.id());
+        } else if (record instanceof VersionsOfBlogpostDeleted r) {
+            versionRepository.deleteByBlogpostId(r.blogpostId());
+        } else if (record instanceof CategorySaved r) {
+            final boolean created = categoryRepository.findById(r.category().getId()).isEmpty();
+            categoryRepository.save(r.category());
+            categoryNameResolver.invalidate(r.category().getId());
+            changed(Change.Entity.CATEGORY, r.category().getId(), created ? Change.Type.CREATED : Change.Type.UPDATED, null);
+        } else if (record instanceof CategoryDeleted r) {
+            if (categoryRepository.findById(r.id()).isEmpty()) { return; }
+            categoryRepository.deleteById(r.id());
+            categoryIndex.removeCategory(r.id());
+            categoryNameResolver.invalidate(r.id());
+            changed(Change.Entity.CATEGORY, r.id(), Change.Type.DELETED, null);
+        }
+    }
+
+    // Helper method: like DurableStorage.apply, an existing version only takes over status and categories; a status
+    // change moves the blogpost's published pointer and status index entry as BlogpostService.updateStatus does
+    private void applyVersion(final BlogpostVersion saved) {
+        final Optional<BlogpostVersion> existing = versionRepository.findById(saved.getId());
+        if (existing.isEmpty()) {
+            versionRepository.save(saved);
+            if (saved.getStatus() == Status.PUBLISHED) {
+                blogpostRepository.findById(saved.getBlogpostId()).ifPresent(post -> statusChanged(post, saved));
+            }
+            return;
+        }
+        final BlogpostVersion version = existing.get();
+        final boolean statusChanged = version.getStatus() != saved.getStatus();
+        final boolean categoriesChanged = !saved.getCategories().equals(version.getCategories());
+        version.setStatus(saved.getStatus());
+        if (categoriesChanged) {
+            versionRepository.saveCategories(version, saved.getCategories());
+        }
+        blogpostRepository.findById(version.getBlogpostId()).ifPresent(post -> {
+            encodedPostCache.invalidate(post.getId());
+            if (statusChanged) {
+                statusChanged(post, version);
+            }
+            // only changes to the current version are reported, as on the leader (a removed category, a status change)
+            if (version.getId().equals(post.getCurrentVersion()) && (statusChanged || categoriesChanged)) {
+                changed(Change.Entity.BLOGPOST, post.getId(), statusChanged ? Change.Type.STATUS_CHANGED : Change.Type.UPDATED,
+                    version.getVersionNumber());
+            }
+        });
+    }
+
+    // Helper method: status of a version of an existing blogpost was set
+    private void statusChanged(final Blogpost post, final BlogpostVersion version) {
+        if (version.getStatus() == Status.PUBLISHED) {
+            post.setPublishedVersion(version.getId());
+        } else if (version.getId().equals(post.getPublishedVersion())) {
+            post.setPublishedVersion(null);
+        }
+        versionRepository.findById(post.getCurrentVersion())
+            .ifPresent(current -> statusIndex.update(post.getId(), current.getStatus(), post.getPublishedVersion() != null));
+    }
+
+    // Helper method: records the change a service records for the write the record stems from, unless it is part of a snapshot
+    private void changed(final Change.Entity entity, final long id, final Change.Type type, final Integer versionNumber) {
+        if (!installingSnapshot) {
+            changeLog.append(entity, id, type, versionNumber);
+        }
+    }
+
+    // Helper method: the published version of a blogpost arriving with its versions (snapshot, import)
+    private Long publishedVersionOf(final Long blogpostId) {
+        return versionRepository.streamByBlogpostId(blogpostId)
+            .filter(version -> version.getStatus() == Status.PUBLISHED)
+            .reduce((first, second) -> second)
+            .map(BlogpostVersion::getId)
+            .orElse(null);
+    }
+
+    @PreDestroy
+    @Override
+    public void close() throws IOException {
+        running = false;
+        applier.interrupt();
+        final Socket current = socket;
+        if (current != null) {
+            current.close();
+        }
+        try {
+            applier.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.cms.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.cms.model.Blogpost;
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.model.Category;
+import com.example.cms.persistence.JournalRecord.BlogpostDeleted;
+import com.example.cms.persistence.JournalRecord.BlogpostSaved;
+import com.example.cms.persistence.JournalRecord.CategoryDeleted;
+import com.example.cms.persistence.JournalRecord.CategorySaved;
+import com.example.cms.persistence.JournalRecord.VersionDeleted;
+import com.example.cms.persistence.JournalRecord.VersionSaved;
+import com.example.cms.persistence.JournalRecord.VersionsOfBlogpostDeleted;
+import com.example.cms.repository.BlogpostRepository;
+import com.example.cms.repository.BlogpostVersionRepository;
+import com.example.cms.repository.CategoryRepository;
+import com.example.cms.repository.RepositoryJournal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Leader side of replication: journals every repository write into the replication log (next to durable storage, if
+// enabled) and serves it to followers on cms.replication.port. Each follower gets its own thread, which sends a snapshot
+// when the follower is new or too far behind and then streams the log from there, so writers never wait for followers.
+@Component
+@ConditionalOnProperty(name = "cms.replication.role", havingValue = "leader")
+public class ReplicationLeader implements RepositoryJournal, Closeable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicationLeader.class);
+    private static final int SEND_BATCH = 256;
+
+    private final BlogpostRepository blogpostRepository;
+    private final BlogpostVersionRepository versionRepository;
+    private final CategoryRepository categoryRepository;
+    private final String bindAddress;
+    private final int port;
+    private final long heartbeatIntervalMillis;
+    private final ReplicationLog replicationLog;
+    private final long epoch = ThreadLocalRandom.current().nextLong();
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+    private ServerSocket serverSocket;
+    private volatile boolean running = true;
+    // journals of the repositories before this one was added, restored on close
+    private RepositoryJournal blogpostJournal;
+    private RepositoryJournal versionJournal;
+    private RepositoryJournal categoryJournal;
+
+    // durableStorage is only taken so the repositories are restored before followers can read them
+    public ReplicationLeader(BlogpostRepository blogpostRepository, BlogpostVersionRepository versionRepository, CategoryRepository categoryRepository,
+            Optional<DurableStorage> durableStorage, MeterRegistry meterRegistry,
+            @Value("${cms.replication.bind-address:0.0.0.0}") String bindAddress,
+            @Value("${cms.replication.port:7070}") int port,
+            @Value("${cms.replication.log-records:100000}") int logRecords,
+            @Value("${cms.replication.log-bytes:67108864}") long logBytes,
+            @Value("${cms.replication.heartbeat-interval-ms:1000}") long heartbeatIntervalMillis) {
+        this.blogpostRepository = blogpostRepository;
+        this.versionRepository = versionRepository;
+        this.categoryRepository = categoryRepository;
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+        this.replicationLog = new ReplicationLog(logRecords, logBytes);
+        meterRegistry.gauge("cms.replication.followers", followers, Set::size);
+        meterRegistry.gauge("cms.replication.log.records", replicationLog, ReplicationLog::retainedRecords);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(bindAddress, port));
+        blogpostJournal = blogpostRepository.getJournal();
+        versionJournal = versionRepository.getJournal();
+        categoryJournal = categoryRepository.getJournal();
+        blogpostRepository.setJournal(RepositoryJournal.of(blogpostJournal, this));
+        versionRepository.setJournal(RepositoryJournal.of(versionJournal, this));
+        categoryRepository.setJournal(RepositoryJournal.of(categoryJournal, this));
+        final Thread acceptor = new Thread(this::accept, "replication-leader");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Replication leader listening on {}", serverSocket.getLocalSocketAddress());
+    }
+
+    // the bound port, which differs from cms.replication.port if that is 0
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public long lastSeq() {
+        return replicationLog.lastSeq();
+    }
+
+    @Override
+    public void blogpostSaved(final Blogpost blogpost) {
+        append(new BlogpostSaved(blogpost));
+    }
+
+    @Override
+    public void blogpostDeleted(final Long id) {
+        append(new BlogpostDeleted(id));
+    }
+
+    @Override
+    public void versionSaved(final BlogpostVersion version) {
+        append(new VersionSaved(version));
+    }
+
+    @Override
+    public void versionDeleted(final Long id) {
+        append(new VersionDeleted(id));
+    }
+
+    @Override
+    public void versionsOfBlogpostDeleted(final Long blogpostId) {
+        append(new VersionsOfBlogpostDeleted(blogpostId));
+    }
+
+    @Override
+    public void categorySaved(final Category category) {
+        append(new CategorySaved(category));
+    }
+
+    @Override
+    public void categoryDeleted(final Long id) {
+        append(new CategoryDeleted(id));
+    }
+
+    // Helper method: encoded right away, the entity may change after the write returns
+    private void append(final JournalRecord record) {
+        replicationLog.append(JournalRecord.encode(record));
+    }
+
+    // Helper method: runs on the acceptor thread until closed
+    private void accept() {
+        while (running) {
+            try {
+                final Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                followers.add(socket);
+                final Thread sender = new Thread(() -> serve(socket), "replication-follower-" + socket.getRemoteSocketAddress());
+                sender.setDaemon(true);
+                sender.start();
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Accepting a follower failed", e);
+                }
+            }
+        }
+    }
+
+    // Helper method: runs on the follower's thread until it disconnects
+    private void serve(final Socket socket) {
+        try (socket) {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+            if (in.readInt() != ReplicationProtocol.MAGIC) {
+                log.warn("Rejected connection from {}: not a follower", socket.getRemoteSocketAddress());
+                return;
+            }
+            final int followerShards = in.readInt();
+            if (followerShards != versionRepository.shards()) {
+                log.error("Rejected follower {}: it runs with {} shards, the leader with {}", socket.getRemoteSocketAddress(),
+                    followerShards, versionRepository.shards());
+                out.writeByte(ReplicationProtocol.REJECTED);
+                out.writeInt(versionRepository.shards());
+                out.flush();
+                return;
+            }
+            final long followerEpoch = in.readLong();
+            final long appliedSeq = in.readLong();
+            long cursor = followerEpoch == epoch && replicationLog.findAfter(appliedSeq, 1).isPresent()
+                ? appliedSeq
+                : sendSnapshot(out, socket);
+            log.info("Follower {} streaming from record {}", socket.getRemoteSocketAddress(), cursor);
+            while (running) {
+                final Optional<List<ReplicationLog.Entry>> entries = replicationLog.findAfter(cursor, SEND_BATCH);
+                if (entries.isEmpty()) {
+                    log.warn("Follower {} fell behind the replication log at record {}", socket.getRemoteSocketAddress(), cursor);
+                    cursor = sendSnapshot(out, socket);
+                    continue;
+                }
+                final long leaderSeq = replicationLog.lastSeq();
+                for (ReplicationLog.Entry entry : entries.get()) {
+                    out.writeByte(ReplicationProtocol.RECORD);
+                    out.writeLong(entry.seq());
+                    out.writeLong(leaderSeq);
+                    out.writeLong(entry.appendedAt());
+                    ReplicationProtocol.writeRecord(out, entry.payload());
+                    cursor = entry.seq();
+                }
+                if (entries.get().isEmpty()) {
+                    replicationLog.awaitAfter(cursor, heartbeatIntervalMillis);
+                    if (replicationLog.lastSeq() == cursor) {
+                        out.writeByte(ReplicationProtocol.HEARTBEAT);
+                        out.writeLong(cursor);
+                        out.writeLong(System.currentTimeMillis());
+                    }
+                }
+                out.flush();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            if (running) {
+                log.info("Follower {} disconnected: {}", socket.getRemoteSocketAddress(), e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            followers.remove(socket);
+        }
+    }
+
+    // Helper method: the full state as of the returned sequence number, in the order of DurableStorage.snapshot. Writers
+    // keep going meanwhile: the records after it are sent next, and applying a save again is idempotent
+    private long sendSnapshot(final DataOutputStream out, final Socket socket) throws IOException {
+        final long started = System.nanoTime();
+        final long seq = replicationLog.lastSeq();
+        out.writeByte(ReplicationProtocol.SNAPSHOT);
+        out.writeLong(epoch);
+        out.writeLong(seq);
+        out.writeLong(blogpostRepository.idWatermark());
+        out.writeLong(versionRepository.idWatermark());
+        out.writeLong(categoryRepository.idWatermark());
+        final Stream<JournalRecord> records = Stream.concat(
+            categoryRepository.findAll().stream().map(CategorySaved::new),
+            blogpostRepository.stream().flatMap(blogpost -> Stream.concat(
+                versionRepository.streamByBlogpostId(blogpost.getId()).map(VersionSaved::new),
+                Stream.of(new BlogpostSaved(blogpost)))));
+        records.forEach(record -> {
+            try {
+                ReplicationProtocol.writeRecord(out, JournalRecord.encode(record));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.writeInt(-1);
+        out.flush();
+        log.info("Sent snapshot at record {} to follower {} in {} ms", seq, socket.getRemoteSocketAddress(),
+            (System.nanoTime() - started) / 1_000_000);
+        return seq;
+    }
+
+    @PreDestroy
+    @Override
+    public void close() throws IOException {
+        running = false;
+        blogpostRepository.setJournal(blogpostJournal);
+        versionRepository.setJournal(versionJournal);
+        categoryRepository.setJournal(categoryJournal);
+        serverSocket.close();
+        for (Socket follower : followers) {
+            try {
+                follower.close();
+            } catch (SocketException e) {
+                // already closed by its thread
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.cms.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// The leader's operation log: encoded journal records numbered from 1 in write order, of which the last maxRecords
+// (and at most maxBytes of them) are kept for followers to catch up from. A follower further behind gets a snapshot
+final class ReplicationLog {
+
+    record Entry(long seq, long appendedAt, byte[] payload) {}
+
+    private final Entry[] ring;
+    private final long maxBytes;
+    // guarded by this
+    private long oldestSeq = 1;
+    private long lastSeq;
+    private long bytes;
+
+    ReplicationLog(final int maxRecords, final long maxBytes) {
+        this.ring = new Entry[maxRecords];
+        this.maxBytes = maxBytes;
+    }
+
+    synchronized long append(final byte[] payload) {
+        final Entry entry = new Entry(++lastSeq, System.currentTimeMillis(), payload);
+        final int slot = (int) (entry.seq() % ring.length);
+        if (ring[slot] != null) {
+            bytes -= ring[slot].payload().length;
+            oldestSeq = ring[slot].seq() + 1;
+        }
+        ring[slot] = entry;
+        bytes += payload.length;
+        // the newest record is kept even if it alone is larger
+        while (bytes > maxBytes && oldestSeq < lastSeq) {
+            final int oldest = (int) (oldestSeq % ring.length);
+            bytes -= ring[oldest].payload().length;
+            ring[oldest] = null;
+            oldestSeq++;
+        }
+        notifyAll();
+        return entry.seq();
+    }
+
+    synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    synchronized long retainedRecords() {
+        return lastSeq - oldestSeq + 1;
+    }
+
+    // up to limit records after since, oldest first; empty if they are no longer retained
+    synchronized Optional<List<Entry>> findAfter(final long since, final int limit) {
+        if (since > lastSeq || since < oldestSeq - 1) { return Optional.empty(); }
+        final long until = Math.min(lastSeq, since + limit);
+        final List<Entry> entries = new ArrayList<>((int) (until - since));
+        for (long seq = since + 1; seq <= until; seq++) {
+            entries.add(ring[(int) (seq % ring.length)]);
+        }
+        return Optional.of(entries);
+    }
+
+    // waits until there is a record after since, at most timeoutMillis
+    synchronized void awaitAfter(final long since, final long timeoutMillis) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (lastSeq <= since && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+    }
+}
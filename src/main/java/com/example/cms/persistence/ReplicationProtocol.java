@@ -0,0 +1,40 @@
+package com.example.cms.persistence;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+// Wire format between leader and follower, big-endian over one TCP connection per follower.
+// Follower -> leader, once: [int MAGIC][int shards][long epoch][long appliedSeq], its shard count and the epoch and seq it
+// has applied up to (0 for none).
+// Leader -> follower:
+//   SNAPSHOT  [long epoch][long seq][3 x long id watermark] ([int length][record])* [int -1]
+//             the full state as of seq; records after it follow as RECORD frames
+//   RECORD    [long seq][long leaderSeq][long appendedAt][int length][record]
+//   HEARTBEAT [long leaderSeq][long leaderTime], when there was nothing to send for a heartbeat interval
+//   REJECTED  [int leaderShards], instead of anything else when the shard counts differ; version ids are placed by the
+//             shard count, so the follower can't apply the leader's state. The leader closes the connection after it
+// Records are JournalRecord encodings. The epoch identifies one run of the leader, whose sequence numbers start over
+final class ReplicationProtocol {
+    static final int MAGIC = 0x434d5332; // "CMS2", "CMSR" before the handshake carried the shard count
+    static final byte SNAPSHOT = 1;
+    static final byte RECORD = 2;
+    static final byte HEARTBEAT = 3;
+    static final byte REJECTED = 4;
+
+    private ReplicationProtocol() {}
+
+    static void writeRecord(final DataOutputStream out, final byte[] record) throws IOException {
+        out.writeInt(record.length);
+        out.write(record);
+    }
+
+    // null at the end of a snapshot
+    static byte[] readRecord(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) { return null; }
+        final byte[] record = new byte[length];
+        in.readFully(record);
+        return record;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.cms.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// Compact binary copy of all repositories as of a log sequence number:
+// [long magic][long seq][3 x long id watermark][int shards] ([int length][record])* [int -1][long crc32 of everything before]
+// Snapshots written before the shard count was recorded (magic "CMSSNAP1", no shards field) still load.
+final class SnapshotStore {
+    private static final long MAGIC = 0x434d53534e415032L; // "CMSSNAP2"
+    private static final long LEGACY_MAGIC = 0x434d53534e415031L; // "CMSSNAP1"
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    // what a snapshot holds besides its records
+    record Header(long seq, long blogpostIdWatermark, long versionIdWatermark, long categoryIdWatermark) {}
+
+    private final Path directory;
+    private final int shards;
+
+    SnapshotStore(final Path directory, final int shards) {
+        this.directory = directory;
+        this.shards = shards;
+    }
+
+    // Writes the snapshot to a temporary file and renames it into place, so a crash never leaves a partial snapshot behind.
+    // Older snapshots are removed afterwards.
+    void write(final Header header, final Stream<JournalRecord> records) throws IOException {
+        final Path target = directory.resolve(String.format("%s%020d%s", PREFIX, header.seq(), SUFFIX));
+        final Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        final CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc));
+            out.writeLong(MAGIC);
+            out.writeLong(header.seq());
+            out.writeLong(header.blogpostIdWatermark());
+            out.writeLong(header.versionIdWatermark());
+            out.writeLong(header.categoryIdWatermark());
+            out.writeInt(shards);
+            records.forEach(record -> {
+                final byte[] bytes = JournalRecord.encode(record);
+                try {
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.writeInt(-1);
+            // the checksum itself is not part of what it covers
+            final long checksum = crc.getValue();
+            out.writeLong(checksum);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        WriteAheadLog.forceDirectory(directory);
+        for (Path older : snapshots()) {
+            if (!older.equals(target)) {
+                Files.deleteIfExists(older);
+            }
+        }
+    }
+
+    // Maps the latest snapshot and feeds its records to restore; empty if there is none yet. Fails if it was written with
+    // a different shard count
+    Optional<Header> load(final Consumer<JournalRecord> restore) throws IOException {
+        // left behind by a crash while writing a snapshot
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path temporary : files.filter(path -> path.getFileName().toString().endsWith(SUFFIX + ".tmp")).toList()) {
+                Files.deleteIfExists(temporary);
+            }
+        }
+        final List<Path> snapshots = snapshots();
+        if (snapshots.isEmpty()) { return Optional.empty(); }
+        final Path latest = snapshots.get(snapshots.size() - 1);
+        try (FileChannel channel = FileChannel.open(latest, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            final boolean legacy = buffer.limit() >= Long.BYTES && buffer.getLong(0) == LEGACY_MAGIC;
+            if (buffer.limit() < 6 * Long.BYTES + (legacy ? 1 : 2) * Integer.BYTES || (!legacy && buffer.getLong(0) != MAGIC)) {
+                throw new IllegalStateException("Corrupt snapshot " + latest);
+            }
+            final CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, buffer.limit() - Long.BYTES));
+            if (crc.getValue() != buffer.getLong(buffer.limit() - Long.BYTES)) {
+                throw new IllegalStateException("Corrupt snapshot " + latest);
+            }
+            buffer.position(Long.BYTES);
+            final Header header = new Header(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+            if (!legacy) {
+                WriteAheadLog.checkShards(buffer.getInt(), shards, "Snapshot " + latest);
+            }
+            int length;
+            while ((length = buffer.getInt()) >= 0) {
+                final ByteBuffer record = buffer.slice(buffer.position(), length);
+                restore.accept(JournalRecord.decode(record));
+                buffer.position(buffer.position() + length);
+            }
+            return Optional.of(header);
+        }
+    }
+
+    private List<Path> snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> path.getFileName().toString().startsWith(PREFIX) && path.getFileName().toString().endsWith(SUFFIX))
+                .sorted(Comparator.comparing(path -> path.getFileName().toString()))
+                .toList();
+        }
+    }
+}
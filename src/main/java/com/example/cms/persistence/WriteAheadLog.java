@@ -0,0 +1,359 @@
+package com.example.cms.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Append-only log split into segment files named after the sequence number of their first record.
+// A segment starts with [int SEGMENT_MAGIC][int shards], the shard count of the repositories that wrote it (segments
+// written before the header existed start right with a record). A record is framed as [int length][int crc32][long seq][payload];
+// length and crc cover seq and payload, so a record torn by a crash is detected on recovery and cut off.
+final class WriteAheadLog implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = 8;
+    // negative, so it never reads as a record length
+    private static final int SEGMENT_MAGIC = 0xC34D5357;
+    private static final int SEGMENT_HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final DurabilityMode durability;
+    private final long segmentBytes;
+    private final int shards;
+
+    // guards appends and segment rolls; a group-commit fsync only takes it to read the segment and lastSeq
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private FileChannel segment;
+    private long segmentSize;
+    private long lastSeq;
+    // set once a write failed half-way; appending after a torn record would corrupt the middle of the log
+    private IOException failure;
+
+    // group commit: one writer fsyncs on behalf of everyone waiting, the others sleep until it is done
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushed = flushLock.newCondition();
+    private boolean flushing;
+    private long durableSeq;
+
+    private ScheduledExecutorService flusher;
+
+    WriteAheadLog(final Path directory, final DurabilityMode durability, final long segmentBytes, final int shards) {
+        this.directory = directory;
+        this.durability = durability;
+        this.segmentBytes = segmentBytes;
+        this.shards = shards;
+    }
+
+    // Replays the payload of every record after afterSeq, cuts off a torn tail and opens a new segment for appending.
+    // Fails if a segment was written with a different shard count: version ids are placed by it. Returns the sequence number of the last record (afterSeq if the log holds nothing newer).
+    long recover(final long afterSeq, final Consumer<ByteBuffer> replay, final long asyncFlushIntervalMillis) throws IOException {
+        final List<Path> segments = segments();
+        long last = afterSeq;
+        for (int i = 0; i < segments.size(); i++) {
+            last = Math.max(last, replaySegment(segments.get(i), i == segments.size() - 1, afterSeq, replay));
+        }
+        appendLock.lock();
+        try {
+            lastSeq = last;
+            durableSeq = last;
+            openSegment(last + 1);
+        } finally {
+            appendLock.unlock();
+        }
+        if (durability == DurabilityMode.ASYNC) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "wal-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushQuietly, asyncFlushIntervalMillis, asyncFlushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        return last;
+    }
+
+    // Helper method: replay one segment; a damaged record is only tolerated at the very end of the log
+    private long replaySegment(final Path path, final boolean tail, final long afterSeq, final Consumer<ByteBuffer> replay) throws IOException {
+        long last = afterSeq;
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        int position = 0;
+        if (buffer.limit() >= SEGMENT_HEADER_BYTES && buffer.getInt(0) == SEGMENT_MAGIC) {
+            checkShards(buffer.getInt(Integer.BYTES), shards, "Write-ahead log segment " + path);
+            position = SEGMENT_HEADER_BYTES;
+        }
+        while (buffer.limit() - position >= HEADER_BYTES) {
+            final int length = buffer.getInt(position);
+            if (length < Long.BYTES || length > buffer.limit() - position - HEADER_BYTES) { break; }
+            final CRC32 crc = new CRC32();
+            crc.update(buffer.slice(position + HEADER_BYTES, length));
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) { break; }
+            final long seq = buffer.getLong(position + HEADER_BYTES);
+            if (seq > afterSeq) {
+                replay.accept(buffer.slice(position + HEADER_BYTES + Long.BYTES, length - Long.BYTES));
+                last = Math.max(last, seq);
+            }
+            position += HEADER_BYTES + length;
+        }
+        if (position < buffer.limit()) {
+            if (!tail) {
+                throw new IllegalStateException("Corrupt write-ahead log segment " + path + " at offset " + position);
+            }
+            log.warn("Cutting off torn write-ahead log tail of {} at offset {} ({} bytes dropped)", path, position, buffer.limit() - position);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(position);
+                channel.force(true);
+            }
+        }
+        return last;
+    }
+
+    long append(final byte[] payload) {
+        return append(payload, true);
+    }
+
+    // with awaitDurable false the record is only written; sync(seq) later makes it and everything before it durable
+    long append(final byte[] payload, final boolean awaitDurable) {
+        final long seq;
+        appendLock.lock();
+        try {
+            if (failure != null) {
+                throw new UncheckedIOException("Write-ahead log is unusable after a failed write", failure);
+            }
+            seq = lastSeq + 1;
+            final ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + Long.BYTES + payload.length);
+            frame.putInt(Long.BYTES + payload.length).putInt(0).putLong(seq).put(payload);
+            final CRC32 crc = new CRC32();
+            crc.update(frame.slice(HEADER_BYTES, Long.BYTES + payload.length));
+            frame.putInt(4, (int) crc.getValue());
+            frame.flip();
+            try {
+                while (frame.hasRemaining()) {
+                    segment.write(frame);
+                }
+                segmentSize += frame.limit();
+                if (durability == DurabilityMode.FSYNC_PER_WRITE && awaitDurable) {
+                    segment.force(false);
+                }
+                lastSeq = seq;
+                if (segmentSize >= segmentBytes) {
+                    rollSegment();
+                }
+            } catch (IOException e) {
+                failure = e;
+                throw new UncheckedIOException("Failed to append to write-ahead log", e);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        if (durability == DurabilityMode.BATCHED && awaitDurable) {
+            awaitDurable(seq);
+        }
+        return seq;
+    }
+
+    // returns once every record up to seq is as durable as the DurabilityMode promises for a single append
+    void sync(final long seq) {
+        if (durability != DurabilityMode.ASYNC) {
+            awaitDurable(seq);
+        }
+    }
+
+    // sequence number of the last appended record; every record up to it has already been applied in memory
+    long lastSeq() {
+        appendLock.lock();
+        try {
+            return lastSeq;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Helper method: returns once seq is on disk, fsyncing as the leader of a group if nobody else is
+    private void awaitDurable(final long seq) {
+        flushLock.lock();
+        try {
+            while (durableSeq < seq) {
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                flushing = true;
+                flushLock.unlock();
+                long flushedSeq = -1;
+                try {
+                    flushedSeq = flush();
+                } finally {
+                    flushLock.lock();
+                    flushing = false;
+                    durableSeq = Math.max(durableSeq, flushedSeq);
+                    flushed.signalAll();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Helper method: fsync the active segment, returning the sequence number covered. The fsync runs outside appendLock,
+    // so writers keep appending to the page cache while it is in progress
+    private long flush() {
+        final FileChannel channel;
+        final long seq;
+        appendLock.lock();
+        try {
+            if (failure != null) {
+                throw new UncheckedIOException("Write-ahead log is unusable after a failed write", failure);
+            }
+            channel = segment;
+            seq = lastSeq;
+        } finally {
+            appendLock.unlock();
+        }
+        try {
+            channel.force(false);
+        } catch (ClosedChannelException e) {
+            // rollSegment forced the segment before closing it, so everything up to seq is durable already
+            if (!rolledPast(channel)) {
+                throw latch(e);
+            }
+        } catch (IOException e) {
+            throw latch(e);
+        }
+        return seq;
+    }
+
+    // Helper method: true if the channel is no longer the active segment
+    private boolean rolledPast(final FileChannel channel) {
+        appendLock.lock();
+        try {
+            return segment != channel;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Helper method: a failed fsync leaves it unknown what reached the disk, so the log refuses further appends like after a failed write
+    private UncheckedIOException latch(final IOException e) {
+        appendLock.lock();
+        try {
+            if (failure == null) {
+                failure = e;
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        return new UncheckedIOException("Failed to fsync write-ahead log", e);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Background fsync of write-ahead log failed", e);
+        }
+    }
+
+    // Helper method: called with appendLock held
+    private void rollSegment() throws IOException {
+        segment.force(false);
+        segment.close();
+        flushLock.lock();
+        try {
+            durableSeq = Math.max(durableSeq, lastSeq);
+            flushed.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+        openSegment(lastSeq + 1);
+    }
+
+    // Helper method: called with appendLock held
+    private void openSegment(final long firstSeq) throws IOException {
+        final Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX));
+        segment = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentSize = segment.size();
+        if (segmentSize == 0) {
+            final ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES).putInt(SEGMENT_MAGIC).putInt(shards).flip();
+            while (header.hasRemaining()) {
+                segment.write(header);
+            }
+            segmentSize = SEGMENT_HEADER_BYTES;
+        }
+        forceDirectory(directory);
+    }
+
+    // Version ids encode the shard their blogpost lives on, so state written with one shard count can't be read with another
+    static void checkShards(final int written, final int configured, final String source) {
+        if (written != configured) {
+            throw new IllegalStateException(source + " was written with " + written + " shards but cms.repository.shards is "
+                + configured + "; start with cms.repository.shards=" + written);
+        }
+    }
+
+    // Deletes segments whose records are all covered by a snapshot taken at seq; the active segment is always kept
+    void deleteSegmentsCoveredBy(final long seq) throws IOException {
+        final List<Path> segments = segments();
+        for (int i = 0; i < segments.size() - 1; i++) {
+            if (firstSeq(segments.get(i + 1)) - 1 <= seq) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        appendLock.lock();
+        try {
+            if (segment != null && segment.isOpen()) {
+                segment.force(false);
+                segment.close();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX) && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted((a, b) -> Long.compare(firstSeq(a), firstSeq(b)))
+                .toList();
+        }
+    }
+
+    private static long firstSeq(final Path segment) {
+        final String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // makes a created or renamed file entry durable; not supported on every platform
+    static void forceDirectory(final Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Cannot fsync directory {}", directory, e);
+        }
+    }
+}
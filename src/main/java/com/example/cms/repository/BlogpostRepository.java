@@ -1,33 +1,156 @@
 package com.example.cms.repository;
 
 import com.example.cms.model.Blogpost;
+import com.example.cms.util.FanOut;
+import com.example.cms.util.IdTable;
+import com.example.cms.util.KeyedLock;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+// Blogposts are hash-sharded by id (id % shards); BlogpostVersionRepository puts the versions of a blogpost in the same
+// shard. A write touches one shard, scans over all blogposts run shard by shard in parallel (see mapShards)
 @Repository
 public class BlogpostRepository {
-    private final Map<Long, Blogpost> blogposts = new HashMap<>();
-    private Long nextId = 1L;
+    // indexed by the id itself, which also keeps iteration and pages (see findPage) in id order
+    private final IdTable<Blogpost> blogposts;
+    private final AtomicLong nextId = new AtomicLong(1L);
+    private final KeyedLock[] locks;
+    private final FanOut fanOut;
+    private volatile RepositoryJournal journal = RepositoryJournal.NONE;
+
+    public BlogpostRepository() {
+        this(1, 1);
+    }
+
+    // 0 for either means one per available processor
+    @Autowired
+    public BlogpostRepository(@Value("${cms.repository.shards:0}") final int shards,
+                              @Value("${cms.repository.fan-out-parallelism:0}") final int parallelism) {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        this.blogposts = new IdTable<>(shards > 0 ? shards : processors);
+        this.locks = new KeyedLock[blogposts.shardCount()];
+        for (int shard = 0; shard < locks.length; shard++) {
+            locks[shard] = new KeyedLock();
+        }
+        this.fanOut = new FanOut(blogposts.shardCount(), parallelism > 0 ? parallelism : processors);
+    }
+
+    @PreDestroy
+    public void close() {
+        fanOut.close();
+    }
+
+    public int shards() {
+        return blogposts.shardCount();
+    }
+
+    // shard holding the blogpost and its versions
+    public int shardOf(final long id) {
+        return blogposts.shardOf(id);
+    }
+
+    // runs tasks per shard in parallel, for callers that split their own work by shardOf
+    public FanOut fanOut() {
+        return fanOut;
+    }
+
+    // a scan over all blogposts split by shard: source gets the blogposts of one shard in id order and mapper maps what it
+    // returns, both on the fan-out pool; the results come back in blogpost id order (see FanOut.map)
+    public <S, T> List<T> mapShards(final Function<Stream<Blogpost>, List<S>> source, final ToLongFunction<S> blogpostIdOf,
+                                    final Function<List<S>, List<T>> mapper) {
+        return fanOut.map(shard -> source.apply(blogposts.shardValues(shard)), blogpostIdOf, mapper);
+    }
 
     public List<Blogpost> findAll() {
-        return new ArrayList<>(blogposts.values());
+        return blogposts.values().collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    // lazy, weakly consistent view in id order; nothing is copied up front
+    public Stream<Blogpost> stream() {
+        return blogposts.values();
     }
 
     public Optional<Blogpost> findById(final Long id) {
+        return id == null ? Optional.empty() : findById(id.longValue());
+    }
+
+    public Optional<Blogpost> findById(final long id) {
         return Optional.ofNullable(blogposts.get(id));
     }
 
+    // up to limit blogposts with an id greater than afterId (all ids if afterId is null), in id order
+    public List<Blogpost> findPage(final Long afterId, final int limit) {
+        return (afterId == null ? blogposts.values() : blogposts.valuesAfter(afterId))
+            .limit(limit)
+            .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    // reserves an id up front, so the first version can reference its blogpost before the blogpost is saved
+    public Long nextId() {
+        return nextId.getAndIncrement();
+    }
+
+    // reserves count consecutive ids and returns the first, for bulk inserts
+    public long reserveIds(final int count) {
+        return nextId.getAndAdd(count);
+    }
+
     public Blogpost save(final Blogpost blogpost) {
         if (blogpost.getId() == null) {
-            blogpost.setId(nextId);
-            nextId++;
+            blogpost.setId(nextId());
         }
         blogposts.put(blogpost.getId(), blogpost);
+        reserveIdsBelow(blogpost.getId() + 1);
+        journal.blogpostSaved(blogpost);
         return blogpost;
     }
 
     public void deleteById(final Long id) {
-        blogposts.remove(id);
+        if (blogposts.remove(id) != null) {
+            journal.blogpostDeleted(id);
+        }
+    }
+
+    public long count() {
+        return blogposts.size();
+    }
+
+    // next id to be handed out; ids below it are never reused
+    public long idWatermark() {
+        return nextId.get();
+    }
+
+    // used when restoring saved state, so ids of deleted blogposts are not handed out again
+    public void reserveIdsBelow(final long watermark) {
+        nextId.accumulateAndGet(watermark, Math::max);
+    }
+
+    public RepositoryJournal getJournal() {
+        return journal;
+    }
+
+    public void setJournal(final RepositoryJournal journal) {
+        this.journal = journal;
+    }
+
+    // runs writes to any repository as one journal batch: with durable storage they are fsynced together at the end
+    public void writeBatch(final Runnable writes) {
+        journal.batch(writes);
+    }
+
+    // runs a read-modify-write of a blogpost and its versions without interleaving other writers of the same blogpost;
+    // writers of different blogposts never wait for each other
+    public <T> T withLock(final Long id, final Supplier<T> action) {
+        return locks[shardOf(id)].withLock(id, action);
     }
 
 }
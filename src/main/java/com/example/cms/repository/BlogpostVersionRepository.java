@@ -1,50 +1,390 @@
 package com.example.cms.repository;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import com.example.cms.model.BlogpostVersion;
+import com.example.cms.model.Status;
+import com.example.cms.model.VersionText;
+import com.example.cms.util.IdTable;
+import com.example.cms.util.LongList;
 
+// Version bodies are stored as a reverse delta chain per blogpost: the latest version holds the full text, each older
+// version a diff against the next one, with a full snapshot kept every SNAPSHOT_INTERVAL versions to bound reconstruction.
+// Identical bodies within a blogpost share one snapshot. Archived bodies may be moved off the heap (see ColdTier).
+// Sharded like BlogpostRepository: a version id is handed out by the counter of its blogpost's shard, so a version,
+// the index of its blogpost and its category references all sit in the blogpost's shard
 @Repository
 public class BlogpostVersionRepository {
-    private final Map<Long, BlogpostVersion> versions = new HashMap<>();
-    private Long nextId = 1L;
+    static final int SNAPSHOT_INTERVAL = 16;
+
+    private final IdTable<BlogpostVersion> versions;
+    // secondary index: blogpostId -> its versions ordered by version number
+    private final IdTable<VersionIndex> versionsByBlogpost;
+    // reverse index per shard: category id -> ids of the shard's versions (current or not) referencing it, so deleting a
+    // category only touches those versions; categories of a stored version are therefore only changed through saveCategories
+    private final IdTable<RoaringBitmap>[] versionIdsByCategory;
+    private final ReentrantReadWriteLock[] categoryLocks;
+    // per shard: the next id it hands out is nextSlot * shards + shard. Ids therefore depend on the shard count, which is
+    // why the write-ahead log, snapshots and the replication handshake record it and refuse a different one
+    private final AtomicLong[] nextSlot;
+    private volatile RepositoryJournal journal = RepositoryJournal.NONE;
+
+    public BlogpostVersionRepository() {
+        this(1);
+    }
+
+    // 0 means one shard per available processor, like BlogpostRepository
+    @Autowired
+    @SuppressWarnings("unchecked")
+    public BlogpostVersionRepository(@Value("${cms.repository.shards:0}") final int shards) {
+        final int count = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+        this.versions = new IdTable<>(count);
+        this.versionsByBlogpost = new IdTable<>(count);
+        this.versionIdsByCategory = new IdTable[count];
+        this.categoryLocks = new ReentrantReadWriteLock[count];
+        this.nextSlot = new AtomicLong[count];
+        for (int shard = 0; shard < count; shard++) {
+            versionIdsByCategory[shard] = new IdTable<>();
+            categoryLocks[shard] = new ReentrantReadWriteLock();
+            nextSlot[shard] = new AtomicLong();
+        }
+        reserveIdsBelow(1L);
+    }
+
+    private static final class VersionIndex {
+        // version number n -> id at ids[n - 1], 0 where there is none. Written under the index's monitor and published
+        // through maxVersionNumber, so readers take no lock; a reader may still see a slot deleted concurrently, and
+        // the lookup in versions then misses
+        private volatile long[] ids = new long[4];
+        // version numbers are never reused, so the max only grows (even if a single version is deleted)
+        private volatile int maxVersionNumber;
+        // content hash -> id of a version holding that content as a snapshot, for sharing identical bodies
+        private final Map<Integer, Long> snapshotIdsByContentHash = new ConcurrentHashMap<>();
+        // number of consecutive diffs directly behind the latest version
+        private int deltasBehindLatest;
+
+        private synchronized void add(final int versionNumber, final long id) {
+            if (versionNumber > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(versionNumber, ids.length * 2));
+            }
+            ids[versionNumber - 1] = id;
+            maxVersionNumber = Math.max(maxVersionNumber, versionNumber);
+        }
+
+        private synchronized void remove(final int versionNumber, final long id) {
+            if (versionNumber <= ids.length && ids[versionNumber - 1] == id) {
+                ids[versionNumber - 1] = 0;
+            }
+        }
+
+        // 0 if there is no such version
+        private long idOf(final int versionNumber) {
+            final int max = maxVersionNumber;
+            return versionNumber < 1 || versionNumber > max ? 0 : ids[versionNumber - 1];
+        }
+
+        // highest version number still present, 0 if there is none
+        private int latestVersionNumber() {
+            final int max = maxVersionNumber;
+            final long[] current = ids;
+            for (int number = max; number > 0; number--) {
+                if (current[number - 1] != 0) { return number; }
+            }
+            return 0;
+        }
+
+        // ids in version number order
+        private LongStream idStream() {
+            final int max = maxVersionNumber;
+            return Arrays.stream(ids, 0, max).filter(id -> id != 0);
+        }
+    }
+
+    public int shards() {
+        return nextSlot.length;
+    }
+
+    // reserves count ids in the blogpost's shard and returns the first, for bulk inserts; the others follow it at a
+    // stride of shards()
+    public long reserveIds(final long blogpostId, final int count) {
+        final int shard = versionsByBlogpost.shardOf(blogpostId);
+        return nextSlot[shard].getAndAdd(count) * nextSlot.length + shard;
+    }
 
     public BlogpostVersion save(final BlogpostVersion version) {
         if (version.getId() == null) {
-            version.setId(nextId);
-            nextId++;
+            version.setId(reserveIds(version.getBlogpostId(), 1));
+        }
+        final VersionIndex index = versionsByBlogpost.computeIfAbsent(version.getBlogpostId(), blogpostId -> new VersionIndex());
+        if (!versions.containsKey(version.getId())) {
+            // writers of one blogpost are serialized by BlogpostRepository.withLock, so the chain is never appended to concurrently
+            encodeBody(index, version);
+            addReferences(version.getId(), version.getCategories());
+        } else if (version.getBody() instanceof VersionText.Cold cold && version.getStatus() != Status.ARCHIVED) {
+            // rolled back to, so it is read like a current version again
+            version.setBody(new VersionText.Snapshot(cold.text()));
         }
         versions.put(version.getId(), version);
+        index.add(version.getVersionNumber(), version.getId());
+        // only the version's own shard has to skip its id
+        final int shard = versions.shardOf(version.getId());
+        nextSlot[shard].accumulateAndGet(version.getId() / nextSlot.length + 1, Math::max);
+        journal.versionSaved(version);
         return version;
     }
 
+    // Helper: share unchanged fields with earlier versions and turn the previous latest body into a diff against the new one
+    private void encodeBody(final VersionIndex index, final BlogpostVersion version) {
+        final String content = version.getContent();
+        final int latest = index.latestVersionNumber();
+        final BlogpostVersion previous = latest == 0 ? null : versions.get(index.idOf(latest));
+        if (previous != null) {
+            if (previous.getTitle() != null && previous.getTitle().equals(version.getTitle())) {
+                version.setTitle(previous.getTitle());
+            }
+            if (previous.getAuthor() != null && previous.getAuthor().equals(version.getAuthor())) {
+                version.setAuthor(previous.getAuthor());
+            }
+        }
+        if (content == null) { return; }
+
+        final BlogpostVersion sameContent = findById(index.snapshotIdsByContentHash.get(content.hashCode())).orElse(null);
+        if (sameContent != null && sameContent.getBody() instanceof VersionText.Snapshot snapshot && snapshot.text().equals(content)) {
+            version.setBody(snapshot);
+        } else {
+            index.snapshotIdsByContentHash.put(content.hashCode(), version.getId());
+        }
+
+        if (previous == null || !(previous.getBody() instanceof VersionText.Snapshot previousBody) || previousBody == version.getBody()) {
+            // the previous version stays a full snapshot, so nothing is chained behind the new one
+            index.deltasBehindLatest = 0;
+            return;
+        }
+        final VersionText.Delta delta = VersionText.Delta.of(version, content, previousBody.text());
+        // keep a snapshot every SNAPSHOT_INTERVAL versions, and whenever the diff would not be meaningfully smaller
+        if (index.deltasBehindLatest + 1 >= SNAPSHOT_INTERVAL || delta.inserted().length() > previousBody.text().length() / 2) {
+            index.deltasBehindLatest = 0;
+            return;
+        }
+        previous.setBody(delta);
+        index.deltasBehindLatest++;
+        // the previous version no longer holds a snapshot, so stop offering it for sharing
+        index.snapshotIdsByContentHash.remove(previousBody.text().hashCode(), previous.getId());
+    }
+
+    // replaces the categories of a stored version (or one about to be saved) and saves it
+    public BlogpostVersion saveCategories(final BlogpostVersion version, final List<Long> categories) {
+        if (versions.containsKey(version.getId())) {
+            final LongList before = version.getCategories() == null ? LongList.EMPTY : version.getCategories();
+            final LongList after = categories == null ? LongList.EMPTY : LongList.copyOf(categories);
+            removeReferences(version.getId(), LongList.of(before.longStream().filter(categoryId -> !after.contains(categoryId)).toArray()));
+            addReferences(version.getId(), LongList.of(after.longStream().filter(categoryId -> !before.contains(categoryId)).toArray()));
+        }
+        version.setCategories(categories);
+        return save(version);
+    }
+
+    // ids of every version referencing the category, in id order
+    public List<Long> findIdsByCategory(final Long categoryId) {
+        final RoaringBitmap all = new RoaringBitmap();
+        for (int shard = 0; shard < nextSlot.length; shard++) {
+            all.or(idsByCategory(categoryId, shard));
+        }
+        final List<Long> ids = new ArrayList<>();
+        all.forEach((int id) -> ids.add((long) id));
+        return ids;
+    }
+
+    // ids of the versions in one shard referencing the category, in id order
+    public List<Long> findIdsByCategory(final Long categoryId, final int shard) {
+        final List<Long> ids = new ArrayList<>();
+        idsByCategory(categoryId, shard).forEach((int id) -> ids.add((long) id));
+        return ids;
+    }
+
+    // Helper: a copy of the shard's bitmap for the category
+    private RoaringBitmap idsByCategory(final Long categoryId, final int shard) {
+        categoryLocks[shard].readLock().lock();
+        try {
+            final RoaringBitmap referencing = versionIdsByCategory[shard].get(categoryId);
+            return referencing == null ? new RoaringBitmap() : referencing.clone();
+        } finally {
+            categoryLocks[shard].readLock().unlock();
+        }
+    }
+
+    // Helper: record that the version references the categories
+    private void addReferences(final long versionId, final LongList categories) {
+        if (categories == null || categories.isEmpty()) { return; }
+        final int id = Math.toIntExact(versionId);
+        final int shard = versions.shardOf(versionId);
+        categoryLocks[shard].writeLock().lock();
+        try {
+            for (int i = 0; i < categories.size(); i++) {
+                versionIdsByCategory[shard].computeIfAbsent(categories.getLong(i), key -> new RoaringBitmap()).add(id);
+            }
+        } finally {
+            categoryLocks[shard].writeLock().unlock();
+        }
+    }
+
+    // Helper: drops empty bitmaps so deleted categories don't linger
+    private void removeReferences(final long versionId, final LongList categories) {
+        if (categories == null || categories.isEmpty()) { return; }
+        final int id = Math.toIntExact(versionId);
+        final int shard = versions.shardOf(versionId);
+        categoryLocks[shard].writeLock().lock();
+        try {
+            for (int i = 0; i < categories.size(); i++) {
+                final long categoryId = categories.getLong(i);
+                final RoaringBitmap referencing = versionIdsByCategory[shard].get(categoryId);
+                if (referencing != null) {
+                    referencing.remove(id);
+                    if (referencing.isEmpty()) {
+                        versionIdsByCategory[shard].remove(categoryId);
+                    }
+                }
+            }
+        } finally {
+            categoryLocks[shard].writeLock().unlock();
+        }
+    }
+
+    // archived versions created before the cutoff whose body is still on the heap. The latest version of a blogpost stays,
+    // the next one is chained to it (see encodeBody)
+    public Stream<BlogpostVersion> streamColdCandidates(final LocalDateTime createdBefore) {
+        return versions.values().filter(version -> isColdCandidate(version, createdBefore));
+    }
+
+    // replaces the body of a cold candidate by what spill makes of its content; false if the version no longer qualifies
+    // or spill returns null. Callers hold the blogpost's lock (see BlogpostRepository.withLock)
+    public boolean moveToColdTier(final BlogpostVersion version, final LocalDateTime createdBefore, final Function<String, VersionText> spill) {
+        if (!versions.containsKey(version.getId()) || !isColdCandidate(version, createdBefore)) { return false; }
+        final VersionText cold = spill.apply(version.getContent());
+        if (cold == null) { return false; }
+        version.setBody(cold);
+        return true;
+    }
+
+    private boolean isColdCandidate(final BlogpostVersion version, final LocalDateTime createdBefore) {
+        if (version.getStatus() != Status.ARCHIVED || version.getBody() == null || version.getBody() instanceof VersionText.Cold
+                || version.getCreatedAt() == null || !version.getCreatedAt().isBefore(createdBefore)) {
+            return false;
+        }
+        final VersionIndex index = versionsByBlogpost.get(version.getBlogpostId());
+        return index != null && index.latestVersionNumber() > version.getVersionNumber();
+    }
+
     public Optional<BlogpostVersion> findById(final Long id) {
+        return id == null ? Optional.empty() : findById(id.longValue());
+    }
+
+    public Optional<BlogpostVersion> findById(final long id) {
         return Optional.ofNullable(versions.get(id));
     }
 
+    // versions of one blogpost, ordered by version number
     public List<BlogpostVersion> findByBlogpostId(final Long blogpostId) {
         List<BlogpostVersion> list = new ArrayList<>();
-        for (BlogpostVersion version : versions.values()) {
-            if (version.getBlogpostId().equals(blogpostId)) {
+        final VersionIndex index = versionsByBlogpost.get(blogpostId);
+        if (index == null) { return list; }
+        index.idStream().forEach(id -> {
+            final BlogpostVersion version = versions.get(id);
+            if (version != null) {
                 list.add(version);
             }
-        }
+        });
         return list;
     }
 
+    // lazy variant of findByBlogpostId
+    public Stream<BlogpostVersion> streamByBlogpostId(final Long blogpostId) {
+        final VersionIndex index = versionsByBlogpost.get(blogpostId);
+        if (index == null) { return Stream.empty(); }
+        return index.idStream()
+            .mapToObj(versions::get)
+            .filter(Objects::nonNull);
+    }
+
+    public Optional<BlogpostVersion> findByBlogpostIdAndVersionNumber(final Long blogpostId, final Integer versionNumber) {
+        final VersionIndex index = versionsByBlogpost.get(blogpostId);
+        if (index == null || versionNumber == null) { return Optional.empty(); }
+        return Optional.ofNullable(versions.get(index.idOf(versionNumber)));
+    }
+
+    // highest version number ever saved for the blogpost, 0 if it has none
+    public int findMaxVersionNumber(final Long blogpostId) {
+        final VersionIndex index = versionsByBlogpost.get(blogpostId);
+        return index == null ? 0 : index.maxVersionNumber;
+    }
+
     public void deleteById(final Long id) {
-        versions.remove(id);
+        final BlogpostVersion removed = versions.remove(id);
+        if (removed != null) {
+            removeReferences(id, removed.getCategories());
+            final VersionIndex index = versionsByBlogpost.get(removed.getBlogpostId());
+            if (index != null) {
+                index.remove(removed.getVersionNumber(), id);
+            }
+            journal.versionDeleted(id);
+        }
     }
 
     public void deleteByBlogpostId(final Long blogpostId) {
-        versions.values().removeIf(version -> version.getBlogpostId().equals(blogpostId));
+        final VersionIndex index = versionsByBlogpost.remove(blogpostId);
+        if (index == null) { return; }
+        index.idStream().forEach(id -> {
+            final BlogpostVersion removed = versions.remove(id);
+            if (removed != null) {
+                removeReferences(id, removed.getCategories());
+            }
+        });
+        journal.versionsOfBlogpostDeleted(blogpostId);
     }
 
-    
+    public long count() {
+        return versions.size();
+    }
+
+    // above every id handed out so far; ids below it are never reused
+    public long idWatermark() {
+        long watermark = 0;
+        for (int shard = 0; shard < nextSlot.length; shard++) {
+            watermark = Math.max(watermark, nextSlot[shard].get() * nextSlot.length + shard);
+        }
+        return watermark;
+    }
+
+    // used when restoring saved state, so ids of deleted versions are not handed out again
+    public void reserveIdsBelow(final long watermark) {
+        for (int shard = 0; shard < nextSlot.length; shard++) {
+            // first slot whose id in this shard is at least the watermark
+            nextSlot[shard].accumulateAndGet(Math.floorDiv(watermark - shard + nextSlot.length - 1, nextSlot.length), Math::max);
+        }
+    }
+
+    public RepositoryJournal getJournal() {
+        return journal;
+    }
+
+    public void setJournal(final RepositoryJournal journal) {
+        this.journal = journal;
+    }
 }
@@ -0,0 +1,88 @@
+package com.example.cms.repository;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Repository;
+
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.util.IdTable;
+import com.example.cms.util.LongList;
+
+// Inverted index: category id -> compressed bitmap of the blogposts whose current version has that category
+@Repository
+public class CategoryIndex implements CurrentVersionListener {
+    private final IdTable<RoaringBitmap> blogpostsByCategory = new IdTable<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void onCurrentVersionChanged(final Long blogpostId, final BlogpostVersion previous, final BlogpostVersion current) {
+        final int id = Math.toIntExact(blogpostId);
+        final LongList before = categoriesOf(previous);
+        final LongList after = categoriesOf(current);
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < before.size(); i++) {
+                if (!after.contains(before.getLong(i))) {
+                    remove(before.getLong(i), id);
+                }
+            }
+            for (int i = 0; i < after.size(); i++) {
+                blogpostsByCategory.computeIfAbsent(after.getLong(i), key -> new RoaringBitmap()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // blogposts whose current version has all of the given categories (bitmap intersection)
+    public RoaringBitmap findBlogpostIds(final Collection<Long> categoryIds) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = null;
+            for (Long categoryId : categoryIds) {
+                final RoaringBitmap posts = categoryId == null ? null : blogpostsByCategory.get(categoryId);
+                if (posts == null) { return new RoaringBitmap(); }
+                result = result == null ? posts.clone() : RoaringBitmap.and(result, posts);
+            }
+            return result == null ? new RoaringBitmap() : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // number of blogposts whose current version has the category
+    public long countBlogposts(final Long categoryId) {
+        lock.readLock().lock();
+        try {
+            final RoaringBitmap posts = blogpostsByCategory.get(categoryId);
+            return posts == null ? 0 : posts.getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void removeCategory(final Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            blogpostsByCategory.remove(categoryId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Helper: caller holds the write lock; drops empty bitmaps so deleted categories don't linger
+    private void remove(final long categoryId, final int blogpostId) {
+        final RoaringBitmap posts = blogpostsByCategory.get(categoryId);
+        if (posts == null) { return; }
+        posts.remove(blogpostId);
+        if (posts.isEmpty()) {
+            blogpostsByCategory.remove(categoryId);
+        }
+    }
+
+    private static LongList categoriesOf(final BlogpostVersion version) {
+        return version == null || version.getCategories() == null ? LongList.EMPTY : version.getCategories();
+    }
+}
@@ -1,34 +1,75 @@
 package com.example.cms.repository;
 
 import com.example.cms.model.Category;
+import com.example.cms.util.IdTable;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Repository;
 
 @Repository
 public class CategoryRepository {
-    private final Map<Long, Category> categories = new HashMap<>();
-    private Long nextId = 1L;
+    // indexed by the id itself, which also keeps iteration and pages (see findPage) in id order
+    private final IdTable<Category> categories = new IdTable<>();
+    private final AtomicLong nextId = new AtomicLong(1L);
+    private volatile RepositoryJournal journal = RepositoryJournal.NONE;
 
     public List<Category> findAll() {
-        return new ArrayList<>(categories.values());
+        return categories.values().collect(Collectors.toCollection(ArrayList::new));
     }
 
     public Optional<Category> findById(final Long id) {
+        return id == null ? Optional.empty() : findById(id.longValue());
+    }
+
+    public Optional<Category> findById(final long id) {
         return Optional.ofNullable(categories.get(id));
     }
 
+    // up to limit categories with an id greater than afterId (all ids if afterId is null), in id order
+    public List<Category> findPage(final Long afterId, final int limit) {
+        return (afterId == null ? categories.values() : categories.valuesAfter(afterId))
+            .limit(limit)
+            .collect(Collectors.toCollection(ArrayList::new));
+    }
+
     public Category save(final Category category) {
         if (category.getId() == null) {
-            category.setId(nextId);
-            nextId++;
+            category.setId(nextId.getAndIncrement());
         }
         categories.put(category.getId(), category);
+        reserveIdsBelow(category.getId() + 1);
+        journal.categorySaved(category);
         return category;
     }
 
     public void deleteById(final Long id) {
-        categories.remove(id);
+        if (categories.remove(id) != null) {
+            journal.categoryDeleted(id);
+        }
+    }
+
+    public long count() {
+        return categories.size();
+    }
+
+    // next id to be handed out; ids below it are never reused
+    public long idWatermark() {
+        return nextId.get();
+    }
+
+    // used when restoring saved state, so ids of deleted categories are not handed out again
+    public void reserveIdsBelow(final long watermark) {
+        nextId.accumulateAndGet(watermark, Math::max);
+    }
+
+    public RepositoryJournal getJournal() {
+        return journal;
+    }
+
+    public void setJournal(final RepositoryJournal journal) {
+        this.journal = journal;
     }
 
 }
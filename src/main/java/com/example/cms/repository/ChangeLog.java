@@ -0,0 +1,73 @@
+package com.example.cms.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import com.example.cms.model.Change;
+
+// Every write to blogposts and categories, numbered by one global sequence, in a ring of the last `retention` changes.
+// Sequence numbers start at the start time in microseconds, so they keep growing across restarts (unless more than
+// a million changes a second were made) and a consumer's position from an earlier run is recognized as no longer retained
+@Repository
+public class ChangeLog {
+    private final Change[] ring;
+    private final long firstSeq;
+    // seq of the newest change, firstSeq - 1 while there is none; guarded by this
+    private long lastSeq;
+    // no change before it is retained, whatever the ring still holds (see reset); guarded by this
+    private long oldestSeq;
+
+    public ChangeLog(@Value("${cms.changes.retention:100000}") int retention) {
+        this.ring = new Change[retention];
+        this.firstSeq = System.currentTimeMillis() * 1000 + 1;
+        this.lastSeq = firstSeq - 1;
+        this.oldestSeq = firstSeq;
+    }
+
+    public synchronized Change append(final Change.Entity entity, final long id, final Change.Type type, final Integer versionNumber) {
+        final Change change = new Change(++lastSeq, entity, id, type, versionNumber, LocalDateTime.now());
+        ring[(int) ((change.seq() - firstSeq) % ring.length)] = change;
+        notifyAll();
+        return change;
+    }
+
+    // seq of the newest change; a consumer that starts from it sees every later change
+    public synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    // up to limit changes after since, oldest first; empty if changes after since are no longer retained or since is
+    // ahead of the log (a position from another run), so the consumer has to start over from a full read
+    public synchronized Optional<List<Change>> findAfter(final long since, final int limit) {
+        final long oldest = Math.max(oldestSeq, lastSeq - ring.length + 1);
+        if (since > lastSeq || since < oldest - 1) { return Optional.empty(); }
+        final long until = Math.min(lastSeq, since + limit);
+        final List<Change> changes = new ArrayList<>((int) (until - since));
+        for (long seq = since + 1; seq <= until; seq++) {
+            changes.add(ring[(int) ((seq - firstSeq) % ring.length)]);
+        }
+        return Optional.of(changes);
+    }
+
+    // drops every retained change, for when the data was replaced wholesale (a replica installing a snapshot): the seq
+    // is skipped past every position handed out so far, so their consumers are woken up and find them no longer retained
+    public synchronized void reset() {
+        oldestSeq = ++lastSeq + 1;
+        notifyAll();
+    }
+
+    // waits until there is a change after since, at most timeoutMillis
+    public synchronized void awaitAfter(final long since, final long timeoutMillis) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (lastSeq <= since && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+    }
+}
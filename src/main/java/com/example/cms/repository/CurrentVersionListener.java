@@ -0,0 +1,10 @@
+package com.example.cms.repository;
+
+import com.example.cms.model.BlogpostVersion;
+
+// Implemented by indexes over the current version of each blogpost; BlogpostService notifies them on every change
+public interface CurrentVersionListener {
+
+    // previous is null when the blogpost is created, current is null when it is deleted
+    void onCurrentVersionChanged(Long blogpostId, BlogpostVersion previous, BlogpostVersion current);
+}
@@ -0,0 +1,84 @@
+package com.example.cms.repository;
+
+import com.example.cms.model.Blogpost;
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.model.Category;
+
+// Receives every write of the repositories after it has been applied in memory, e.g. to make it durable
+public interface RepositoryJournal {
+
+    // default for repositories without persistence
+    RepositoryJournal NONE = new RepositoryJournal() {};
+
+    default void blogpostSaved(Blogpost blogpost) {}
+
+    default void blogpostDeleted(Long id) {}
+
+    default void versionSaved(BlogpostVersion version) {}
+
+    default void versionDeleted(Long id) {}
+
+    default void versionsOfBlogpostDeleted(Long blogpostId) {}
+
+    default void categorySaved(Category category) {}
+
+    default void categoryDeleted(Long id) {}
+
+    // runs writes (of any repository) that only need to be durable together once they are done, not one by one
+    default void batch(Runnable writes) {
+        writes.run();
+    }
+
+    // both journals, first before second; a batch is one batch for each of them
+    static RepositoryJournal of(final RepositoryJournal first, final RepositoryJournal second) {
+        if (first == NONE) { return second; }
+        return new RepositoryJournal() {
+            @Override
+            public void blogpostSaved(final Blogpost blogpost) {
+                first.blogpostSaved(blogpost);
+                second.blogpostSaved(blogpost);
+            }
+
+            @Override
+            public void blogpostDeleted(final Long id) {
+                first.blogpostDeleted(id);
+                second.blogpostDeleted(id);
+            }
+
+            @Override
+            public void versionSaved(final BlogpostVersion version) {
+                first.versionSaved(version);
+                second.versionSaved(version);
+            }
+
+            @Override
+            public void versionDeleted(final Long id) {
+                first.versionDeleted(id);
+                second.versionDeleted(id);
+            }
+
+            @Override
+            public void versionsOfBlogpostDeleted(final Long blogpostId) {
+                first.versionsOfBlogpostDeleted(blogpostId);
+                second.versionsOfBlogpostDeleted(blogpostId);
+            }
+
+            @Override
+            public void categorySaved(final Category category) {
+                first.categorySaved(category);
+                second.categorySaved(category);
+            }
+
+            @Override
+            public void categoryDeleted(final Long id) {
+                first.categoryDeleted(id);
+                second.categoryDeleted(id);
+            }
+
+            @Override
+            public void batch(final Runnable writes) {
+                first.batch(() -> second.batch(writes));
+            }
+        };
+    }
+}
@@ -0,0 +1,484 @@
+package com.example.cms.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Repository;
+
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.util.Tokenizer;
+
+// Inverted index over title, author and content of each blogpost's current version, ranked with BM25.
+// Postings are sorted by blogpost id, so a query intersects them by galloping through the longer lists, and keep the
+// highest frequency and shortest text per block of BLOCK entries (recomputed lazily after edits that shift entries), so
+// blocks that cannot reach the current top are skipped.
+// A forward index (term ids in text order, per blogpost) answers phrase queries and says which postings to drop when a
+// version is replaced.
+@Repository
+public class SearchIndex implements CurrentVersionListener {
+    static final int MAX_PREFIX_EXPANSIONS = 128;
+    private static final int BLOCK_SHIFT = 7;
+    private static final int BLOCK = 1 << BLOCK_SHIFT;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // a title word counts as often as this many content words
+    private static final int TITLE_WEIGHT = 3;
+    // "quoted phrase" or a single word, prefix words end with *
+    private static final Pattern QUERY_PART = Pattern.compile("\"([^\"]*)\"?|(\\S+)");
+
+    public record Hit(long blogpostId, double score) {}
+
+    private static final class Postings {
+        private final int termId;
+        private int[] docs = new int[2];
+        private int[] frequencies = new int[2];
+        private int size;
+        // per block of BLOCK entries: highest frequency and shortest text length, bounding the score of every entry in it.
+        // Only the first validBlocks hold exact bounds; an edit that shifts later entries makes the blocks from its own on
+        // stale, and those share the looser tail bounds until enough edits piled up to pay for recomputing them
+        private int[] blockMaxFrequency = new int[1];
+        private int[] blockMinLength = new int[1];
+        private int validBlocks;
+        private int tailMaxFrequency;
+        private int tailMinLength = Integer.MAX_VALUE;
+        private int staleEdits;
+
+        private Postings(final int termId) {
+            this.termId = termId;
+        }
+
+        // new blogposts have the highest id so far, which makes the common case an append
+        private void put(final int doc, final int frequency, final int[] lengths) {
+            int index = size == 0 || docs[size - 1] < doc ? size : Arrays.binarySearch(docs, 0, size, doc);
+            if (index >= 0 && index < size) {
+                // nothing moves, only the entry's own block changes
+                frequencies[index] = frequency;
+                if (index >> BLOCK_SHIFT < validBlocks) {
+                    updateBlock(index >> BLOCK_SHIFT, lengths);
+                } else {
+                    widenTail(index, lengths);
+                }
+                return;
+            }
+            index = index < 0 ? -index - 1 : index;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            System.arraycopy(docs, index, docs, index + 1, size - index);
+            System.arraycopy(frequencies, index, frequencies, index + 1, size - index);
+            docs[index] = doc;
+            frequencies[index] = frequency;
+            size++;
+            updateBlocks(index, lengths);
+        }
+
+        private void remove(final int doc, final int[] lengths) {
+            final int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index < 0) { return; }
+            System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+            System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+            size--;
+            updateBlocks(index, lengths);
+        }
+
+        // Helper: entries from index on have moved. An edit in the last block (an append) recomputes just that block;
+        // anywhere else the blocks from index on turn stale, and they are recomputed together once there have been as
+        // many edits as BLOCK entries each to recompute, so an edit costs O(BLOCK) amortized instead of O(size)
+        private void updateBlocks(final int index, final int[] lengths) {
+            final int blocks = (size + BLOCK - 1) >> BLOCK_SHIFT;
+            final int block = index >> BLOCK_SHIFT;
+            if (block >= blocks - 1 && block <= validBlocks) {
+                rebuildBlocks(block, lengths);
+                return;
+            }
+            for (int stale = block; stale < validBlocks; stale++) {
+                tailMaxFrequency = Math.max(tailMaxFrequency, blockMaxFrequency[stale]);
+                tailMinLength = Math.min(tailMinLength, blockMinLength[stale]);
+            }
+            validBlocks = Math.min(validBlocks, block);
+            if (index < size) {
+                widenTail(index, lengths);
+            }
+            if ((long) ++staleEdits << BLOCK_SHIFT >= size - ((long) validBlocks << BLOCK_SHIFT)) {
+                rebuildBlocks(validBlocks, lengths);
+            }
+        }
+
+        // Helper: recomputes the blocks from the given one on, after which every block is exact again
+        private void rebuildBlocks(final int from, final int[] lengths) {
+            final int blocks = (size + BLOCK - 1) >> BLOCK_SHIFT;
+            if (blocks > blockMaxFrequency.length) {
+                blockMaxFrequency = Arrays.copyOf(blockMaxFrequency, Math.max(blocks, blockMaxFrequency.length * 2));
+                blockMinLength = Arrays.copyOf(blockMinLength, blockMaxFrequency.length);
+            }
+            for (int block = from; block < blocks; block++) {
+                updateBlock(block, lengths);
+            }
+            validBlocks = blocks;
+            tailMaxFrequency = 0;
+            tailMinLength = Integer.MAX_VALUE;
+            staleEdits = 0;
+        }
+
+        private void updateBlock(final int block, final int[] lengths) {
+            int maxFrequency = 0;
+            int minLength = Integer.MAX_VALUE;
+            for (int i = block << BLOCK_SHIFT; i < Math.min(size, (block + 1) << BLOCK_SHIFT); i++) {
+                maxFrequency = Math.max(maxFrequency, frequencies[i]);
+                minLength = Math.min(minLength, lengths[docs[i]]);
+            }
+            blockMaxFrequency[block] = maxFrequency;
+            blockMinLength[block] = minLength;
+        }
+
+        // Helper: the tail bounds only ever widen until the next rebuild, so they cover every entry in a stale block
+        private void widenTail(final int index, final int[] lengths) {
+            tailMaxFrequency = Math.max(tailMaxFrequency, frequencies[index]);
+            tailMinLength = Math.min(tailMinLength, lengths[docs[index]]);
+        }
+
+        private int maxFrequency(final int block) {
+            return block < validBlocks ? blockMaxFrequency[block] : tailMaxFrequency;
+        }
+
+        private int minLength(final int block) {
+            return block < validBlocks ? blockMinLength[block] : tailMinLength;
+        }
+    }
+
+    // term -> postings; sorted, so prefix queries are a range of it
+    private final TreeMap<String, Postings> dictionary = new TreeMap<>();
+    private final List<Postings> postingsByTermId = new ArrayList<>();
+    // blogpost id -> varint-encoded (term id + 1) in text order, 0 between fields; null if not indexed
+    private byte[][] forward = new byte[0][];
+    private int[] lengths = new int[0];
+    private int documents;
+    private long totalLength;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void onCurrentVersionChanged(final Long blogpostId, final BlogpostVersion previous, final BlogpostVersion current) {
+        final int doc = Math.toIntExact(blogpostId);
+        // tokenizing needs no lock, so writers of different blogposts only queue for the index update itself
+        final List<List<String>> fields = current == null ? null
+            : List.of(Tokenizer.tokenize(current.getTitle()), Tokenizer.tokenize(current.getAuthor()), Tokenizer.tokenize(current.getContent()));
+        lock.writeLock().lock();
+        try {
+            if (fields == null) {
+                remove(doc);
+            } else {
+                add(doc, fields);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Helper: caller holds the write lock. A blogpost already indexed keeps its place in the postings of the terms it
+    // still contains (frequency updated in place); only terms it gained or lost shift their postings
+    private void add(final int doc, final List<List<String>> fields) {
+        final Map<Postings, int[]> frequencies = new HashMap<>();
+        final ByteArrayBuilder terms = new ByteArrayBuilder();
+        int length = 0;
+        for (int field = 0; field < fields.size(); field++) {
+            if (field > 0) {
+                terms.writeVarint(0);
+            }
+            for (String token : fields.get(field)) {
+                final Postings postings = dictionary.computeIfAbsent(token, key -> {
+                    final Postings created = new Postings(postingsByTermId.size());
+                    postingsByTermId.add(created);
+                    return created;
+                });
+                frequencies.computeIfAbsent(postings, key -> new int[1])[0] += field == 0 ? TITLE_WEIGHT : 1;
+                terms.writeVarint(postings.termId + 1);
+                length++;
+            }
+        }
+        if (doc >= forward.length) {
+            final int capacity = Math.max(doc + 1, forward.length * 2);
+            forward = Arrays.copyOf(forward, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        if (forward[doc] != null) {
+            forEachTermId(forward[doc], termId -> {
+                final Postings postings = postingsByTermId.get(termId - 1);
+                if (!frequencies.containsKey(postings)) {
+                    postings.remove(doc, lengths);
+                }
+            });
+            documents--;
+            totalLength -= lengths[doc];
+        }
+        forward[doc] = terms.toByteArray();
+        // before the postings, whose block bounds read it
+        lengths[doc] = length;
+        frequencies.forEach((postings, frequency) -> postings.put(doc, frequency[0], lengths));
+        documents++;
+        totalLength += length;
+    }
+
+    // Helper: caller holds the write lock
+    private void remove(final int doc) {
+        if (doc >= forward.length || forward[doc] == null) { return; }
+        final byte[] terms = forward[doc];
+        forward[doc] = null;
+        // removing twice is harmless, the second time the blogpost is no longer found
+        forEachTermId(terms, termId -> postingsByTermId.get(termId - 1).remove(doc, lengths));
+        documents--;
+        totalLength -= lengths[doc];
+    }
+
+    // Helper: every (term id + 1) of a forward index entry, field separators skipped
+    private static void forEachTermId(final byte[] terms, final IntConsumer action) {
+        for (int i = 0; i < terms.length; ) {
+            int termId = 0;
+            for (int shift = 0; ; shift += 7) {
+                final byte b = terms[i++];
+                termId |= (b & 0x7f) << shift;
+                if (b >= 0) { break; }
+            }
+            if (termId > 0) {
+                action.accept(termId);
+            }
+        }
+    }
+
+    // Top limit blogposts containing every word of the query, best first. Words ending with * match every term with that
+    // prefix, "quoted words" must appear next to each other in one field.
+    public List<Hit> search(final String query, final int limit) {
+        final List<String> terms = new ArrayList<>();
+        final List<String> prefixes = new ArrayList<>();
+        final List<List<String>> phrases = new ArrayList<>();
+        final Matcher parts = QUERY_PART.matcher(query == null ? "" : query);
+        while (parts.find()) {
+            final List<String> tokens = Tokenizer.tokenize(parts.group(1) != null ? parts.group(1) : parts.group(2));
+            if (tokens.isEmpty()) { continue; }
+            if (parts.group(2) != null && parts.group(2).endsWith("*")) {
+                prefixes.add(tokens.remove(tokens.size() - 1));
+            }
+            terms.addAll(tokens);
+            if (parts.group(1) != null && tokens.size() > 1) {
+                phrases.add(tokens);
+            }
+        }
+        if (terms.isEmpty() && prefixes.isEmpty()) { return List.of(); }
+
+        lock.readLock().lock();
+        try {
+            final List<Postings> required = new ArrayList<>();
+            for (String term : terms.stream().distinct().toList()) {
+                final Postings postings = dictionary.get(term);
+                if (postings == null || postings.size == 0) { return List.of(); }
+                required.add(postings);
+            }
+            for (String prefix : prefixes) {
+                final Postings merged = expand(prefix);
+                if (merged.size == 0) { return List.of(); }
+                required.add(merged);
+            }
+            final List<int[]> phraseTermIds = phrases.stream()
+                .map(phrase -> phrase.stream().mapToInt(term -> dictionary.get(term).termId + 1).toArray())
+                .toList();
+            return intersect(required, phraseTermIds, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Helper: one postings list for every term starting with prefix (the first MAX_PREFIX_EXPANSIONS of them), frequencies summed
+    private Postings expand(final String prefix) {
+        final List<Postings> expansions = dictionary.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values().stream()
+            .filter(postings -> postings.size > 0)
+            .limit(MAX_PREFIX_EXPANSIONS)
+            .toList();
+        int total = 0;
+        for (Postings postings : expansions) {
+            total += postings.size;
+        }
+        final Postings merged = new Postings(-1);
+        // each blogpost at most once
+        final int capacity = Math.max(2, Math.min(total, forward.length));
+        merged.docs = new int[capacity];
+        merged.frequencies = new int[capacity];
+        if (total > forward.length / 8) {
+            // long lists: add the frequencies up per blogpost id, then walk the ids in order
+            final int[] sums = new int[forward.length];
+            for (Postings postings : expansions) {
+                for (int i = 0; i < postings.size; i++) {
+                    sums[postings.docs[i]] += postings.frequencies[i];
+                }
+            }
+            for (int doc = 0; doc < sums.length; doc++) {
+                if (sums[doc] > 0) {
+                    merged.docs[merged.size] = doc;
+                    merged.frequencies[merged.size++] = sums[doc];
+                }
+            }
+        } else {
+            // short lists: (blogpost id, frequency) pairs packed into longs sort by blogpost id
+            final long[] entries = new long[total];
+            int n = 0;
+            for (Postings postings : expansions) {
+                for (int i = 0; i < postings.size; i++) {
+                    entries[n++] = (long) postings.docs[i] << 32 | postings.frequencies[i];
+                }
+            }
+            Arrays.sort(entries);
+            for (long entry : entries) {
+                final int doc = (int) (entry >>> 32);
+                if (merged.size > 0 && merged.docs[merged.size - 1] == doc) {
+                    merged.frequencies[merged.size - 1] += (int) entry;
+                } else {
+                    merged.docs[merged.size] = doc;
+                    merged.frequencies[merged.size++] = (int) entry;
+                }
+            }
+        }
+        merged.rebuildBlocks(0, lengths);
+        return merged;
+    }
+
+    // Helper: walk the shortest postings list and gallop the others to each of its blogposts, scoring those found in all.
+    // Once limit hits are collected, blocks of the shortest list whose best possible score does not beat the worst of them
+    // are skipped.
+    private List<Hit> intersect(final List<Postings> required, final List<int[]> phrases, final int limit) {
+        required.sort((a, b) -> Integer.compare(a.size, b.size));
+        final int count = required.size();
+        final double averageLength = Math.max(1.0, (double) totalLength / Math.max(1, documents));
+        final double[] idf = new double[count];
+        // best possible score from all lists but the shortest
+        double othersBound = 0;
+        for (int i = 0; i < count; i++) {
+            final Postings postings = required.get(i);
+            idf[i] = Math.log(1 + (documents - postings.size + 0.5) / (postings.size + 0.5));
+            if (i > 0) {
+                double best = 0;
+                for (int block = 0; block << BLOCK_SHIFT < postings.size; block++) {
+                    best = Math.max(best, termScore(postings.maxFrequency(block), postings.minLength(block), averageLength));
+                }
+                othersBound += idf[i] * best;
+            }
+        }
+        final int[] positions = new int[count];
+        // lowest score at the head; ties go to the lower blogpost id, which the walk in id order reaches first
+        final PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, (a, b) -> a.score() != b.score()
+            ? Double.compare(a.score(), b.score()) : Long.compare(b.blogpostId(), a.blogpostId()));
+        double threshold = Double.NEGATIVE_INFINITY;
+
+        final Postings shortest = required.get(0);
+        candidates:
+        for (int c = 0; c < shortest.size; c++) {
+            if ((c & (BLOCK - 1)) == 0 && top.size() == limit) {
+                final int block = c >> BLOCK_SHIFT;
+                final double bound = idf[0] * termScore(shortest.maxFrequency(block), shortest.minLength(block), averageLength);
+                if (bound + othersBound <= threshold) {
+                    c += BLOCK - 1;
+                    continue;
+                }
+            }
+            final int doc = shortest.docs[c];
+            positions[0] = c;
+            for (int i = 1; i < count; i++) {
+                final Postings postings = required.get(i);
+                positions[i] = advance(postings.docs, positions[i], postings.size, doc);
+                if (positions[i] == postings.size) { break candidates; }
+                if (postings.docs[positions[i]] != doc) { continue candidates; }
+            }
+            double score = 0;
+            for (int i = 0; i < count; i++) {
+                score += idf[i] * termScore(required.get(i).frequencies[positions[i]], lengths[doc], averageLength);
+            }
+            // phrases are checked last, only for blogposts that would make it into the top
+            if (score <= threshold || (!phrases.isEmpty() && !containsPhrases(forward[doc], phrases))) { continue; }
+            top.add(new Hit(doc, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+            if (top.size() == limit) {
+                threshold = top.peek().score();
+            }
+        }
+        final List<Hit> hits = new ArrayList<>(top);
+        hits.sort(top.comparator().reversed());
+        return hits;
+    }
+
+    // BM25 contribution of one term without its idf; grows with the frequency and shrinks with the text length
+    private static double termScore(final int frequency, final int length, final double averageLength) {
+        return frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    // Helper: first index at or after from whose blogpost id is >= target (exponential then binary search)
+    private static int advance(final int[] docs, final int from, final int size, final int target) {
+        if (from >= size || docs[from] >= target) { return from; }
+        // docs[low] < target throughout
+        int low = from;
+        int step = 1;
+        int high = from + 1;
+        while (high < size && docs[high] < target) {
+            low = high;
+            step <<= 1;
+            high = from + step;
+        }
+        final int index = Arrays.binarySearch(docs, low + 1, Math.min(high + 1, size), target);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    // Helper: whether every phrase occurs in the varint-encoded text
+    private static boolean containsPhrases(final byte[] encoded, final List<int[]> phrases) {
+        final int[] text = new int[encoded.length];
+        int length = 0;
+        for (int i = 0; i < encoded.length; ) {
+            int termId = 0;
+            for (int shift = 0; ; shift += 7) {
+                final byte b = encoded[i++];
+                termId |= (b & 0x7f) << shift;
+                if (b >= 0) { break; }
+            }
+            text[length++] = termId;
+        }
+        phrases:
+        for (int[] phrase : phrases) {
+            for (int start = 0; start + phrase.length <= length; start++) {
+                int matched = 0;
+                while (matched < phrase.length && text[start + matched] == phrase[matched]) {
+                    matched++;
+                }
+                if (matched == phrase.length) { continue phrases; }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static final class ByteArrayBuilder {
+        private byte[] bytes = new byte[64];
+        private int size;
+
+        private void writeVarint(int value) {
+            if (size + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((value & ~0x7f) != 0) {
+                bytes[size++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
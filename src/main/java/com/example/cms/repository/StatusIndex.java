@@ -0,0 +1,72 @@
+package com.example.cms.repository;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Repository;
+
+import com.example.cms.model.Blogpost;
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.model.Status;
+
+// Status -> bitmap of blogposts. DRAFT and ARCHIVED go by the status of the current version; PUBLISHED holds every
+// blogpost with a published version, which stays public while a newer draft is being edited.
+@Repository
+public class StatusIndex implements CurrentVersionListener {
+    private final BlogpostRepository blogpostRepository;
+    private final Map<Status, RoaringBitmap> blogpostsByStatus = new EnumMap<>(Status.class);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public StatusIndex(BlogpostRepository blogpostRepository) {
+        this.blogpostRepository = blogpostRepository;
+        for (Status status : Status.values()) {
+            blogpostsByStatus.put(status, new RoaringBitmap());
+        }
+    }
+
+    @Override
+    public void onCurrentVersionChanged(final Long blogpostId, final BlogpostVersion previous, final BlogpostVersion current) {
+        final boolean published = current != null && blogpostRepository.findById(blogpostId)
+            .map(Blogpost::getPublishedVersion)
+            .isPresent();
+        update(blogpostId, current == null ? null : current.getStatus(), published);
+    }
+
+    // called whenever the status of the current version or the published version of a blogpost changes; a null status
+    // removes the blogpost
+    public void update(final Long blogpostId, final Status currentStatus, final boolean published) {
+        final int id = Math.toIntExact(blogpostId);
+        lock.writeLock().lock();
+        try {
+            blogpostsByStatus.values().forEach(posts -> posts.remove(id));
+            if (currentStatus != null && currentStatus != Status.PUBLISHED) {
+                blogpostsByStatus.get(currentStatus).add(id);
+            }
+            if (published || currentStatus == Status.PUBLISHED) {
+                blogpostsByStatus.get(Status.PUBLISHED).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public RoaringBitmap findBlogpostIds(final Status status) {
+        lock.readLock().lock();
+        try {
+            return blogpostsByStatus.get(status).clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long countBlogposts(final Status status) {
+        lock.readLock().lock();
+        try {
+            return blogpostsByStatus.get(status).getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
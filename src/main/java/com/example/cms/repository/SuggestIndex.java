@@ -0,0 +1,430 @@
+package com.example.cms.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Repository;
+
+import com.example.cms.model.BlogpostVersion;
+
+// Type-ahead over the titles and authors of current versions. Per field, a radix trie over the lower-cased values; a value
+// ranks by its newest use (the latest createdAt among the current versions carrying it). Nodes with more than
+// CACHE_THRESHOLD values below them keep a list of their newest values, maintained on every write, so no prefix walks
+// more than CACHE_THRESHOLD values. A list holds between TOP_K and TOP_K_SLACK entries: a value leaving it only shortens
+// it (everything outside is older), and it is rebuilt from the children once fewer than TOP_K remain
+@Repository
+public class SuggestIndex implements CurrentVersionListener {
+    public static final int TOP_K = 10;
+    private static final int TOP_K_SLACK = 2 * TOP_K;
+    private static final int CACHE_THRESHOLD = TOP_K_SLACK;
+    // longer values are indexed (and matched) by their first MAX_KEY_LENGTH characters
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final char[] NO_FIRSTS = new char[0];
+
+    public enum Field { TITLE, AUTHOR }
+
+    public record Suggestion(String text, long blogpostId, LocalDateTime updatedAt) {}
+
+    // a distinct lower-cased value and the blogposts whose current version uses it
+    private static final class Value {
+        private final String key;
+        // as written by the newest use
+        private String text;
+        // uses ordered by createdAt, oldest first; the last one ranks the value
+        private LocalDateTime[] times = new LocalDateTime[1];
+        private long[] blogpostIds = new long[1];
+        private int size;
+
+        private Value(final String key) {
+            this.key = key;
+        }
+
+        private LocalDateTime newest() {
+            return times[size - 1];
+        }
+
+        private void add(final LocalDateTime time, final long blogpostId) {
+            int index = size;
+            while (index > 0 && times[index - 1].isAfter(time)) {
+                index--;
+            }
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                blogpostIds = Arrays.copyOf(blogpostIds, size * 2);
+            }
+            System.arraycopy(times, index, times, index + 1, size - index);
+            System.arraycopy(blogpostIds, index, blogpostIds, index + 1, size - index);
+            times[index] = time;
+            blogpostIds[index] = blogpostId;
+            size++;
+        }
+
+        private void remove(final long blogpostId) {
+            for (int index = size - 1; index >= 0; index--) {
+                if (blogpostIds[index] == blogpostId) {
+                    System.arraycopy(times, index + 1, times, index, size - index - 1);
+                    System.arraycopy(blogpostIds, index + 1, blogpostIds, index, size - index - 1);
+                    times[--size] = null;
+                    return;
+                }
+            }
+        }
+    }
+
+    // newest first; ties by key so results are stable
+    private static int newestFirst(final Value a, final Value b) {
+        final int byTime = b.newest().compareTo(a.newest());
+        return byTime != 0 ? byTime : a.key.compareTo(b.key);
+    }
+
+    private static final class Node {
+        // edge label: source.substring(start, end), borrowed from the key the node was created for
+        private final String source;
+        private int start;
+        private final int end;
+        // sorted by the first character of their label; firsts holds those characters, so finding a child only reads
+        // the child it finds
+        private Node[] children = NO_CHILDREN;
+        private char[] firsts = NO_FIRSTS;
+        private Value value;
+        // values in this subtree
+        private int count;
+        // the topSize newest values of the subtree, newest first; only while count > CACHE_THRESHOLD
+        private Value[] top;
+        private int topSize;
+
+        private Node(final String source, final int start, final int end) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+
+        private int length() {
+            return end - start;
+        }
+
+        private char first() {
+            return source.charAt(start);
+        }
+    }
+
+    private final Map<Field, Node> roots = new EnumMap<>(Field.class);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public SuggestIndex() {
+        for (Field field : Field.values()) {
+            roots.put(field, new Node("", 0, 0));
+        }
+    }
+
+    @Override
+    public void onCurrentVersionChanged(final Long blogpostId, final BlogpostVersion previous, final BlogpostVersion current) {
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                remove(roots.get(Field.TITLE), previous.getTitle(), blogpostId);
+                remove(roots.get(Field.AUTHOR), previous.getAuthor(), blogpostId);
+            }
+            if (current != null) {
+                add(roots.get(Field.TITLE), current.getTitle(), current.getCreatedAt(), blogpostId);
+                add(roots.get(Field.AUTHOR), current.getAuthor(), current.getCreatedAt(), blogpostId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // up to limit (at most TOP_K) distinct values of the field starting with prefix, ignoring case, most recent first
+    public List<Suggestion> suggest(final Field field, final String prefix, final int limit) {
+        // a trailing blank is part of what was typed ("spring " asks for more words after "spring")
+        final String key = key(prefix.stripLeading());
+        lock.readLock().lock();
+        try {
+            Node node = roots.get(field);
+            int matched = 0;
+            while (matched < key.length()) {
+                final Node child = child(node, key.charAt(matched));
+                if (child == null) { return List.of(); }
+                final int common = commonPrefix(child, key, matched);
+                if (matched + common < key.length() && common < child.length()) { return List.of(); }
+                node = child;
+                matched += common;
+            }
+            final List<Value> values;
+            if (node.top != null) {
+                values = Arrays.asList(node.top).subList(0, node.topSize);
+            } else {
+                values = new ArrayList<>(node.count);
+                collect(node, values);
+                values.sort(SuggestIndex::newestFirst);
+            }
+            return values.stream()
+                .limit(Math.min(limit, TOP_K))
+                .map(value -> new Suggestion(value.text, value.blogpostIds[value.size - 1], value.newest()))
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // distinct values of the field
+    public int countValues(final Field field) {
+        lock.readLock().lock();
+        try {
+            return roots.get(field).count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String key(final String text) {
+        final String key = text.toLowerCase(Locale.ROOT);
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    // Helper: caller holds the write lock
+    private void add(final Node root, final String text, final LocalDateTime createdAt, final long blogpostId) {
+        if (text == null || text.isBlank()) { return; }
+        final String key = key(text.strip());
+        final LocalDateTime time = createdAt == null ? LocalDateTime.MIN : createdAt;
+        final List<Node> path = new ArrayList<>();
+        Node node = root;
+        int matched = 0;
+        path.add(node);
+        while (matched < key.length()) {
+            Node child = child(node, key.charAt(matched));
+            if (child == null) {
+                child = new Node(key, matched, key.length());
+                insertChild(node, child);
+            } else {
+                final int common = commonPrefix(child, key, matched);
+                if (common < child.length()) {
+                    child = split(node, child, common);
+                }
+            }
+            node = child;
+            matched += child.length();
+            path.add(node);
+        }
+        final boolean created = node.value == null;
+        if (created) {
+            node.value = new Value(key);
+        }
+        final Value value = node.value;
+        value.add(time, blogpostId);
+        if (value.newest() == time && value.blogpostIds[value.size - 1] == blogpostId) {
+            value.text = text.strip();
+        }
+        // deepest first, so a rebuilt list can rely on the lists of the children
+        for (int i = path.size() - 1; i >= 0; i--) {
+            final Node onPath = path.get(i);
+            if (created) {
+                onPath.count++;
+            }
+            if (onPath.top != null) {
+                offer(onPath, value);
+            } else if (onPath.count > CACHE_THRESHOLD) {
+                rebuildTop(onPath);
+            }
+        }
+    }
+
+    // Helper: caller holds the write lock
+    private void remove(final Node root, final String text, final long blogpostId) {
+        if (text == null || text.isBlank()) { return; }
+        final String key = key(text.strip());
+        final List<Node> path = new ArrayList<>();
+        Node node = root;
+        int matched = 0;
+        path.add(node);
+        while (matched < key.length()) {
+            final Node child = child(node, key.charAt(matched));
+            if (child == null || commonPrefix(child, key, matched) < child.length()) { return; }
+            node = child;
+            matched += child.length();
+            path.add(node);
+        }
+        final Value value = node.value;
+        if (value == null) { return; }
+        value.remove(blogpostId);
+        final boolean gone = value.size == 0;
+        if (gone) {
+            node.value = null;
+        }
+        // deepest first, so a rebuilt list can rely on the lists of the children
+        for (int i = path.size() - 1; i >= 0; i--) {
+            final Node onPath = path.get(i);
+            if (gone) {
+                onPath.count--;
+                if (onPath.count == 0 && i > 0) {
+                    removeChild(path.get(i - 1), onPath);
+                    continue;
+                }
+            }
+            if (onPath.count <= CACHE_THRESHOLD) {
+                onPath.top = null;
+            } else {
+                demote(onPath, value, gone);
+            }
+        }
+    }
+
+    // Helper: a value that is new or got newer enters the node's list if it is newer than the list's oldest entry
+    private static void offer(final Node node, final Value value) {
+        final int index = indexInTop(node, value);
+        if (index >= 0) {
+            removeFromTop(node, index);
+        } else if (newestFirst(value, node.top[node.topSize - 1]) >= 0) {
+            // values outside the list may be newer than this one
+            return;
+        }
+        node.topSize = keep(node.top, node.topSize, value);
+    }
+
+    // Helper: a value that is gone or got older stays in the node's list only where it is still known to belong
+    private static void demote(final Node node, final Value value, final boolean gone) {
+        final int index = indexInTop(node, value);
+        if (index < 0) { return; }
+        removeFromTop(node, index);
+        if (!gone && newestFirst(value, node.top[node.topSize - 1]) < 0) {
+            node.topSize = keep(node.top, node.topSize, value);
+        }
+        if (node.topSize < TOP_K) {
+            rebuildTop(node);
+        }
+    }
+
+    // Helper: the node's newest values from its own value and its children's lists (or all values of small children).
+    // A child's list that does not hold its whole subtree only vouches for values at least as new as its last entry
+    private static void rebuildTop(final Node node) {
+        Value oldestKnown = null;
+        for (Node child : node.children) {
+            if (child.top != null && child.topSize < child.count
+                    && (oldestKnown == null || newestFirst(child.top[child.topSize - 1], oldestKnown) < 0)) {
+                oldestKnown = child.top[child.topSize - 1];
+            }
+        }
+        final Value[] top = new Value[TOP_K_SLACK];
+        int size = 0;
+        final List<Value> candidates = new ArrayList<>();
+        if (node.value != null) {
+            candidates.add(node.value);
+        }
+        for (Node child : node.children) {
+            if (child.top != null) {
+                candidates.addAll(Arrays.asList(child.top).subList(0, child.topSize));
+            } else {
+                collect(child, candidates);
+            }
+        }
+        for (Value candidate : candidates) {
+            if (oldestKnown == null || newestFirst(candidate, oldestKnown) <= 0) {
+                size = keep(top, size, candidate);
+            }
+        }
+        node.top = top;
+        node.topSize = size;
+    }
+
+    // Helper: insert a value into a bounded list sorted newest first, dropping the oldest when full; returns the new size
+    private static int keep(final Value[] top, final int size, final Value value) {
+        if (size == top.length && newestFirst(value, top[size - 1]) >= 0) { return size; }
+        int index = Math.min(size, top.length - 1);
+        while (index > 0 && newestFirst(value, top[index - 1]) < 0) {
+            top[index] = top[index - 1];
+            index--;
+        }
+        top[index] = value;
+        return Math.min(size + 1, top.length);
+    }
+
+    private static int indexInTop(final Node node, final Value value) {
+        for (int i = 0; i < node.topSize; i++) {
+            if (node.top[i] == value) { return i; }
+        }
+        return -1;
+    }
+
+    private static void removeFromTop(final Node node, final int index) {
+        System.arraycopy(node.top, index + 1, node.top, index, node.topSize - index - 1);
+        node.top[--node.topSize] = null;
+    }
+
+    // Helper: every value in the subtree
+    private static void collect(final Node node, final List<Value> values) {
+        if (node.value != null) {
+            values.add(node.value);
+        }
+        for (Node child : node.children) {
+            collect(child, values);
+        }
+    }
+
+    private static Node child(final Node node, final char first) {
+        final int index = Arrays.binarySearch(node.firsts, first);
+        return index < 0 ? null : node.children[index];
+    }
+
+    private static void insertChild(final Node node, final Node child) {
+        final int index = -Arrays.binarySearch(node.firsts, child.first()) - 1;
+        final int length = node.children.length;
+        final Node[] children = new Node[length + 1];
+        final char[] firsts = new char[length + 1];
+        System.arraycopy(node.children, 0, children, 0, index);
+        System.arraycopy(node.firsts, 0, firsts, 0, index);
+        children[index] = child;
+        firsts[index] = child.first();
+        System.arraycopy(node.children, index, children, index + 1, length - index);
+        System.arraycopy(node.firsts, index, firsts, index + 1, length - index);
+        node.children = children;
+        node.firsts = firsts;
+    }
+
+    private static void removeChild(final Node node, final Node child) {
+        final int index = Arrays.binarySearch(node.firsts, child.first());
+        final int length = node.children.length;
+        if (length == 1) {
+            node.children = NO_CHILDREN;
+            node.firsts = NO_FIRSTS;
+            return;
+        }
+        final Node[] children = new Node[length - 1];
+        final char[] firsts = new char[length - 1];
+        System.arraycopy(node.children, 0, children, 0, index);
+        System.arraycopy(node.firsts, 0, firsts, 0, index);
+        System.arraycopy(node.children, index + 1, children, index, length - index - 1);
+        System.arraycopy(node.firsts, index + 1, firsts, index, length - index - 1);
+        node.children = children;
+        node.firsts = firsts;
+    }
+
+    // Helper: characters the child's label shares with key from offset on
+    private static int commonPrefix(final Node child, final String key, final int offset) {
+        final int max = Math.min(child.length(), key.length() - offset);
+        int common = 0;
+        while (common < max && child.source.charAt(child.start + common) == key.charAt(offset + common)) {
+            common++;
+        }
+        return common;
+    }
+
+    // Helper: cut the child's label after common characters; the new node in between covers the same subtree
+    private static Node split(final Node parent, final Node child, final int common) {
+        final Node middle = new Node(child.source, child.start, child.start + common);
+        child.start += common;
+        middle.children = new Node[] {child};
+        middle.firsts = new char[] {child.first()};
+        middle.count = child.count;
+        middle.top = child.top == null ? null : child.top.clone();
+        middle.topSize = child.topSize;
+        parent.children[Arrays.binarySearch(parent.firsts, middle.first())] = middle;
+        return middle;
+    }
+}
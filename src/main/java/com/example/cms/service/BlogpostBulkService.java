@@ -0,0 +1,223 @@
+package com.example.cms.service;
+
+import com.example.cms.repository.BlogpostRepository;
+import com.example.cms.repository.BlogpostVersionRepository;
+import com.example.cms.repository.CategoryRepository;
+import com.example.cms.repository.ChangeLog;
+import com.example.cms.repository.CurrentVersionListener;
+import com.example.cms.model.Blogpost;
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.model.Category;
+import com.example.cms.model.Change;
+import com.example.cms.model.Status;
+import com.example.cms.dto.BulkPost;
+import com.example.cms.dto.BulkVersion;
+import com.example.cms.dto.ImportError;
+import com.example.cms.dto.ImportResponse;
+import com.example.cms.util.LongList;
+import com.example.cms.util.NdjsonReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Bulk import and export of blogposts with their full version history, for migrating content in and out of the CMS.
+// The import validates against one snapshot of the categories, reserves ids for a whole batch at once and inserts each
+// batch as one journal batch; rejected lines are reported instead of aborting the import.
+@Service
+public class BlogpostBulkService {
+    private static final Logger log = LoggerFactory.getLogger(BlogpostBulkService.class);
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final BlogpostRepository repository;
+    private final BlogpostVersionRepository versionRepository;
+    private final CategoryRepository categoryRepository;
+    private final List<CurrentVersionListener> currentVersionListeners;
+    private final ChangeLog changeLog;
+    private final int batchSize;
+
+    public BlogpostBulkService(BlogpostRepository repository, BlogpostVersionRepository versionRepository, CategoryRepository categoryRepository,
+            List<CurrentVersionListener> currentVersionListeners, ChangeLog changeLog, @Value("${cms.import.batch-size:1000}") int batchSize) {
+        this.repository = repository;
+        this.versionRepository = versionRepository;
+        this.categoryRepository = categoryRepository;
+        this.currentVersionListeners = currentVersionListeners;
+        this.changeLog = changeLog;
+        this.batchSize = batchSize;
+    }
+
+    // A blogpost that passed validation, with its versions sorted by version number
+    private record ValidPost(List<BulkVersion> versions, int currentIndex) {}
+
+    public ImportResponse importBlogposts(final Iterator<NdjsonReader.Line<BulkPost>> lines) {
+        final long started = System.nanoTime();
+        // categories deleted while the import runs may still end up referenced; single writes re-check under the blogpost lock
+        final Set<Long> categoryIds = categoryRepository.findAll().stream()
+            .map(Category::getId)
+            .collect(Collectors.toSet());
+        final List<ImportError> errors = new ArrayList<>();
+        final List<ValidPost> batch = new ArrayList<>(batchSize);
+        long imported = 0;
+        long importedVersions = 0;
+        long failed = 0;
+        int batchNumber = 0;
+
+        while (lines.hasNext()) {
+            final NdjsonReader.Line<BulkPost> line = lines.next();
+            final String error = line.error() != null ? "Invalid JSON: " + line.error() : validate(line.value(), categoryIds);
+            if (error != null) {
+                failed++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(new ImportError(line.number(), batchNumber, error));
+                }
+            } else {
+                batch.add(toValidPost(line.value()));
+            }
+            if (batch.size() == batchSize) {
+                importedVersions += insert(batch);
+                imported += batch.size();
+                batch.clear();
+                batchNumber++;
+            }
+        }
+        if (!batch.isEmpty()) {
+            importedVersions += insert(batch);
+            imported += batch.size();
+        }
+
+        final long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Imported {} blogposts with {} versions in {} ms ({} versions/s), rejected {} lines",
+            imported, importedVersions, millis, importedVersions * 1000 / millis, failed);
+        return new ImportResponse(imported, importedVersions, failed, errors);
+    }
+
+    // Helper method: null if the blogpost can be imported, otherwise why not
+    private String validate(final BulkPost post, final Set<Long> categoryIds) {
+        if (post == null) { return "Empty record"; }
+        if (post.versions() == null || post.versions().isEmpty()) { return "A blogpost needs at least one version"; }
+        final Set<Integer> versionNumbers = new HashSet<>();
+        int published = 0;
+        for (BulkVersion version : post.versions()) {
+            if (version == null) { return "Empty version"; }
+            if (isEmpty(version.title()) || isEmpty(version.author()) || isEmpty(version.content())) {
+                return "Title, content and author cannot be null or empty";
+            }
+            if (version.versionNumber() != null && (version.versionNumber() < 1 || !versionNumbers.add(version.versionNumber()))) {
+                return "Version numbers must be positive and unique, got " + version.versionNumber();
+            }
+            if (version.categoryIds() != null && !categoryIds.containsAll(version.categoryIds())) {
+                return "Unknown categories in " + version.categoryIds();
+            }
+            if (version.status() == Status.PUBLISHED) {
+                published++;
+            }
+        }
+        if (!versionNumbers.isEmpty() && versionNumbers.size() != post.versions().size()) {
+            return "Either every version or none has a version number";
+        }
+        if (published > 1) { return "At most one version can be PUBLISHED"; }
+        if (post.currentVersion() != null) {
+            final boolean known = versionNumbers.isEmpty()
+                ? post.currentVersion() >= 1 && post.currentVersion() <= post.versions().size()
+                : versionNumbers.contains(post.currentVersion());
+            if (!known) { return "Current version " + post.currentVersion() + " is not one of the versions"; }
+        }
+        return null;
+    }
+
+    // Helper method: without version numbers, versions are numbered in the order they are listed
+    private ValidPost toValidPost(final BulkPost post) {
+        final List<BulkVersion> versions = new ArrayList<>(post.versions().size());
+        for (int i = 0; i < post.versions().size(); i++) {
+            final BulkVersion version = post.versions().get(i);
+            versions.add(version.versionNumber() != null ? version : new BulkVersion(i + 1, version.title(), version.author(),
+                version.content(), version.createdAt(), version.status(), version.categoryIds()));
+        }
+        versions.sort(Comparator.comparing(BulkVersion::versionNumber));
+        int currentIndex = versions.size() - 1;
+        if (post.currentVersion() != null) {
+            for (int i = 0; i < versions.size(); i++) {
+                if (versions.get(i).versionNumber().equals(post.currentVersion())) {
+                    currentIndex = i;
+                }
+            }
+        }
+        return new ValidPost(versions, currentIndex);
+    }
+
+    // Helper method: insert a validated batch under blogpost ids reserved in one step and version ids reserved in one step
+    // per blogpost (in its shard), returning the number of versions
+    private int insert(final List<ValidPost> batch) {
+        final int versionCount = batch.stream().mapToInt(post -> post.versions().size()).sum();
+        final long firstBlogpostId = repository.reserveIds(batch.size());
+        final LocalDateTime now = LocalDateTime.now();
+        repository.writeBatch(() -> {
+            for (int i = 0; i < batch.size(); i++) {
+                final ValidPost post = batch.get(i);
+                final Blogpost blogpost = new Blogpost();
+                blogpost.setId(firstBlogpostId + i);
+                long versionId = versionRepository.reserveIds(blogpost.getId(), post.versions().size());
+                final List<Long> versionIds = new ArrayList<>(post.versions().size());
+                BlogpostVersion current = null;
+                // in version order, so the repository can chain the bodies as diffs
+                for (int v = 0; v < post.versions().size(); v++) {
+                    final BlogpostVersion saved = versionRepository.save(toEntity(post.versions().get(v), versionId, blogpost.getId(), now));
+                    versionId += versionRepository.shards();
+                    versionIds.add(saved.getId());
+                    if (v == post.currentIndex()) {
+                        current = saved;
+                    }
+                    if (saved.getStatus() == Status.PUBLISHED) {
+                        blogpost.setPublishedVersion(saved.getId());
+                    }
+                }
+                // the blogpost is only saved once its versions exist, as in BlogpostService.createBlogpost
+                blogpost.setCurrentVersion(current.getId());
+                blogpost.addVersionIds(versionIds);
+                repository.save(blogpost);
+                final BlogpostVersion currentVersion = current;
+                currentVersionListeners.forEach(listener -> listener.onCurrentVersionChanged(blogpost.getId(), null, currentVersion));
+                changeLog.append(Change.Entity.BLOGPOST, blogpost.getId(), Change.Type.CREATED, currentVersion.getVersionNumber());
+            }
+        });
+        return versionCount;
+    }
+
+    // Helper method: imported version -> entity
+    private BlogpostVersion toEntity(final BulkVersion imported, final long id, final long blogpostId, final LocalDateTime now) {
+        final BlogpostVersion version = new BlogpostVersion();
+        version.setId(id);
+        version.setBlogpostId(blogpostId);
+        version.setVersionNumber(imported.versionNumber());
+        version.setTitle(imported.title());
+        version.setAuthor(imported.author());
+        version.setContent(imported.content());
+        version.setCategories(imported.categoryIds() == null ? LongList.EMPTY : imported.categoryIds());
+        version.setStatus(imported.status() == null ? Status.DRAFT : imported.status());
+        version.setCreatedAt(imported.createdAt() == null ? now : imported.createdAt());
+        return version;
+    }
+
+    // every blogpost with its full version history, in the format importBlogposts reads
+    public Stream<BulkPost> exportBlogposts() {
+        return repository.stream().map(blogpost -> {
+            final List<BulkVersion> versions = versionRepository.streamByBlogpostId(blogpost.getId())
+                .map(version -> new BulkVersion(version.getVersionNumber(), version.getTitle(), version.getAuthor(), version.getContent(),
+                    version.getCreatedAt(), version.getStatus(), version.getCategories()))
+                .toList();
+            final Integer currentVersion = versionRepository.findById(blogpost.getCurrentVersion())
+                .map(BlogpostVersion::getVersionNumber)
+                .orElse(null);
+            return new BulkPost(blogpost.getId(), currentVersion, versions);
+        });
+    }
+
+    private static boolean isEmpty(final String value) {
+        return value == null || value.isEmpty();
+    }
+}
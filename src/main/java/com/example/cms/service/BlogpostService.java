@@ -2,17 +2,37 @@ package com.example.cms.service;
 
 import com.example.cms.repository.BlogpostRepository;
 import com.example.cms.repository.BlogpostVersionRepository;
+import com.example.cms.repository.CategoryIndex;
 import com.example.cms.repository.CategoryRepository;
+import com.example.cms.repository.ChangeLog;
+import com.example.cms.repository.CurrentVersionListener;
+import com.example.cms.repository.SearchIndex;
+import com.example.cms.repository.StatusIndex;
+import com.example.cms.repository.SuggestIndex;
 import com.example.cms.model.Blogpost;
 import com.example.cms.model.BlogpostVersion;
+import com.example.cms.model.Change;
 import com.example.cms.model.Status;
+import com.example.cms.dto.PageResponse;
+import com.example.cms.dto.PostProjection;
 import com.example.cms.dto.PostRequest;
 import com.example.cms.dto.PostResponse;
 import com.example.cms.dto.StatusRequest;
+import com.example.cms.dto.SuggestionResponse;
+import com.example.cms.util.EncodedPostCache;
+import com.example.cms.util.EncodedPostCache.EncodedPost;
+import com.example.cms.util.IfMatch;
+import com.example.cms.util.LongList;
+import com.example.cms.util.PageCursor;
+import com.example.cms.util.PostFields;
 import com.example.cms.util.PostMapper;
 import com.example.cms.service.ServiceResult;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.stereotype.Service;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import javax.naming.NameNotFoundException;
 
@@ -22,32 +42,59 @@ import org.slf4j.LoggerFactory;
 @Service
 public class BlogpostService {
     private static final Logger log = LoggerFactory.getLogger(BlogpostService.class);
+    // category filters matching fewer blogposts are resolved on the caller's thread; handing shards to the pool would cost more
+    private static final int MIN_FAN_OUT_POSTS = 1024;
     private final BlogpostRepository repository;
     private final BlogpostVersionRepository versionRepository;
     private final CategoryRepository categoryRepository;
     private final PostMapper postMapper;
-    private Long nextId = 1L; 
-
-    public BlogpostService(BlogpostRepository repository, BlogpostVersionRepository versionRepository, CategoryRepository categoryRepository, PostMapper postMapper) {
+    private final CategoryIndex categoryIndex;
+    private final List<CurrentVersionListener> currentVersionListeners;
+    private final EncodedPostCache encodedPostCache;
+    private final SearchIndex searchIndex;
+    private final StatusIndex statusIndex;
+    private final SuggestIndex suggestIndex;
+    private final ChangeLog changeLog;
+
+    public BlogpostService(BlogpostRepository repository, BlogpostVersionRepository versionRepository, CategoryRepository categoryRepository, PostMapper postMapper, CategoryIndex categoryIndex, List<CurrentVersionListener> currentVersionListeners, EncodedPostCache encodedPostCache, SearchIndex searchIndex, StatusIndex statusIndex, SuggestIndex suggestIndex, ChangeLog changeLog) {
         this.repository = repository;
         this.versionRepository = versionRepository;
         this.categoryRepository = categoryRepository;
         this.postMapper = postMapper;
+        this.categoryIndex = categoryIndex;
+        this.currentVersionListeners = currentVersionListeners;
+        this.encodedPostCache = encodedPostCache;
+        this.searchIndex = searchIndex;
+        this.statusIndex = statusIndex;
+        this.suggestIndex = suggestIndex;
+        this.changeLog = changeLog;
     }
     
     public List<PostResponse> getAllBlogposts() {
-        List<Blogpost> blogposts = repository.findAll();
-        log.info("Successfully fetched {} blogposts", blogposts.size());
+        return mapCurrentVersions(postMapper::toResponses);
+    }
+
+    // getAllBlogposts restricted to fields
+    public List<PostProjection> getAllBlogposts(final PostFields fields) {
+        return mapCurrentVersions(versions -> postMapper.toProjections(versions, fields));
+    }
 
-        List<BlogpostVersion> currentVersions = blogposts.stream()
+    // Helper method: the current version of every blogpost, resolved and mapped shard by shard in parallel
+    private <T> List<T> mapCurrentVersions(final Function<List<BlogpostVersion>, List<T>> mapper) {
+        final List<T> mapped = repository.mapShards(blogposts -> blogposts
             .map(Blogpost::getCurrentVersion)
             .map(versionRepository::findById)
-            .filter(Optional::isPresent)
-            .map(Optional::get)
-            .toList();
+            .flatMap(Optional::stream)
+            .toList(), BlogpostVersion::getBlogpostId, mapper);
+        log.debug("Successfully fetched {} current versions for each blogpost", mapped.size());
+        return mapped;
+    }
 
-        log.info("Successfully fetched {} current versions for each blogpost", currentVersions.size());
-        return currentVersions.stream().map(postMapper::toResponse).toList();
+    private Stream<BlogpostVersion> streamCurrentVersions() {
+        return repository.stream()
+            .map(Blogpost::getCurrentVersion)
+            .map(versionRepository::findById)
+            .flatMap(Optional::stream);
     }
 
     public Optional<PostResponse> getBlogpost(final Long id) {
@@ -59,35 +106,276 @@ public class BlogpostService {
         
     }
 
+    // current version as pre-encoded JSON with its ETag, served from the cache when still valid
+    public Optional<EncodedPost> getEncodedBlogpost(final Long id) {
+        return repository.findById(id)
+            .map(Blogpost::getCurrentVersion)
+            .flatMap(versionRepository::findById)
+            .map(version -> encodedPostCache.get(version, () -> postMapper.toResponse(version)));
+    }
+
     public List<PostResponse> getBlogpostsByCategory(final List<Long> categoryIds) {
-        log.info("Filter blogposts by categories {}", categoryIds);
+        return mapVersionsByCategory(categoryIds, postMapper::toResponses);
+    }
 
-        return repository.findAll().stream()
+    public List<PostProjection> getBlogpostsByCategory(final List<Long> categoryIds, final PostFields fields) {
+        return mapVersionsByCategory(categoryIds, versions -> postMapper.toProjections(versions, fields));
+    }
+
+    // Helper method: like mapCurrentVersions, restricted to the blogposts in any of the categories
+    private <T> List<T> mapVersionsByCategory(final List<Long> categoryIds, final Function<List<BlogpostVersion>, List<T>> mapper) {
+        log.debug("Filter blogposts by categories {}", categoryIds);
+        if (categoryIds.isEmpty()) { return mapCurrentVersions(mapper); }
+
+        final RoaringBitmap blogpostIds = categoryIndex.findBlogpostIds(categoryIds);
+        if (blogpostIds.getCardinality() < MIN_FAN_OUT_POSTS) {
+            return mapper.apply(currentVersionsOf(blogpostIds));
+        }
+        // split once, so each shard only walks its own ids
+        final RoaringBitmap[] byShard = new RoaringBitmap[repository.shards()];
+        Arrays.setAll(byShard, shard -> new RoaringBitmap());
+        blogpostIds.forEach((int blogpostId) -> byShard[repository.shardOf(blogpostId)].add(blogpostId));
+        return repository.fanOut().map(shard -> currentVersionsOf(byShard[shard]), BlogpostVersion::getBlogpostId, mapper);
+    }
+
+    // Helper method: current versions of the blogposts in the bitmap, in id order
+    private List<BlogpostVersion> currentVersionsOf(final RoaringBitmap blogpostIds) {
+        final List<BlogpostVersion> versions = new ArrayList<>();
+        blogpostIds.forEach((int blogpostId) -> repository.findById((long) blogpostId)
             .map(Blogpost::getCurrentVersion)
-            .map(versionRepository::findById)
+            .flatMap(versionRepository::findById)
+            .ifPresent(versions::add));
+        return versions;
+    }
+
+    // lazy variant of getAllBlogposts, getBlogpostsByCategory and getBlogpostsByStatus (either filter may be missing): each
+    // blogpost is resolved and mapped only when the stream reaches it
+    public Stream<PostResponse> streamBlogposts(final List<Long> categoryIds, final Status status) {
+        return streamFilteredVersions(categoryIds, status).map(postMapper::toResponse);
+    }
+
+    public Stream<PostProjection> streamBlogposts(final List<Long> categoryIds, final Status status, final PostFields fields) {
+        return streamFilteredVersions(categoryIds, status).map(version -> postMapper.toProjection(version, fields));
+    }
+
+    private Stream<BlogpostVersion> streamFilteredVersions(final List<Long> categoryIds, final Status status) {
+        if (status == null && (categoryIds == null || categoryIds.isEmpty())) { return streamCurrentVersions(); }
+        return filterIds(categoryIds, status).stream()
+            .mapToObj(blogpostId -> repository.findById((long) blogpostId))
             .flatMap(Optional::stream)
-            .filter(version -> version.getCategories().containsAll(categoryIds))
-            .map(postMapper::toResponse)
-            .toList(); 
+            .map(post -> shownVersion(post, status))
+            .flatMap(Optional::stream);
+    }
+
+    // served from the status index; PUBLISHED lists the published version of each blogpost (even while a newer draft
+    // exists), DRAFT and ARCHIVED list current versions with that status. Categories filter by the version that is listed
+    public List<PostResponse> getBlogpostsByStatus(final Status status, final List<Long> categoryIds) {
+        return postMapper.toResponses(versionsByStatus(status, categoryIds));
+    }
+
+    public List<PostProjection> getBlogpostsByStatus(final Status status, final List<Long> categoryIds, final PostFields fields) {
+        return postMapper.toProjections(versionsByStatus(status, categoryIds), fields);
+    }
+
+    private List<BlogpostVersion> versionsByStatus(final Status status, final List<Long> categoryIds) {
+        log.debug("Filter blogposts by status {}", status);
+        final List<BlogpostVersion> versions = new ArrayList<>();
+        filterIds(categoryIds, status).forEach((int blogpostId) ->
+            repository.findById((long) blogpostId)
+                .flatMap(post -> shownVersion(post, status))
+                .ifPresent(versions::add));
+        return versions;
+    }
+
+    // current versions matching every word of the query, best BM25 match first (see SearchIndex for the query syntax)
+    public ServiceResult<List<PostResponse>> searchBlogposts(final String query, final int limit) {
+        if (query == null || query.isBlank() || !PageCursor.validLimit(limit)) {
+            log.warn("Search needs a query and a limit between 1 and {}", PageCursor.MAX_LIMIT);
+            return ServiceResult.invalidInput();
+        }
+        final List<BlogpostVersion> versions = new ArrayList<>();
+        for (SearchIndex.Hit hit : searchIndex.search(query, limit)) {
+            repository.findById(hit.blogpostId())
+                .map(Blogpost::getCurrentVersion)
+                .flatMap(versionRepository::findById)
+                .ifPresent(versions::add);
+        }
+        log.debug("Search for '{}' found {} blogposts", query, versions.size());
+        return ServiceResult.ok(postMapper.toResponses(versions));
+    }
+
+    // distinct titles or authors of current versions starting with prefix, most recently used first
+    public ServiceResult<List<SuggestionResponse>> suggest(final String prefix, final String field, final int limit) {
+        final Optional<SuggestIndex.Field> suggestField = Arrays.stream(SuggestIndex.Field.values())
+            .filter(candidate -> candidate.name().equalsIgnoreCase(field))
+            .findFirst();
+        if (prefix == null || prefix.isBlank() || suggestField.isEmpty() || limit < 1 || limit > SuggestIndex.TOP_K) {
+            log.warn("Suggest needs a prefix, field title or author and a limit between 1 and {}", SuggestIndex.TOP_K);
+            return ServiceResult.invalidInput();
+        }
+        return ServiceResult.ok(suggestIndex.suggest(suggestField.get(), prefix, limit).stream()
+            .map(suggestion -> new SuggestionResponse(suggestion.text(), suggestion.blogpostId(), suggestion.updatedAt()))
+            .toList());
+    }
+
+    // keyset pagination in blogpost id order, optionally filtered by categories and status (see getBlogpostsByStatus)
+    public ServiceResult<PageResponse<PostResponse>> getBlogpostPage(final List<Long> categoryIds, final Status status, final String cursor, final int limit) {
+        return getBlogpostPage(categoryIds, status, cursor, limit, postMapper::toResponses);
+    }
+
+    public ServiceResult<PageResponse<PostProjection>> getBlogpostPage(final List<Long> categoryIds, final Status status, final String cursor,
+            final int limit, final PostFields fields) {
+        return getBlogpostPage(categoryIds, status, cursor, limit, versions -> postMapper.toProjections(versions, fields));
+    }
+
+    private <T> ServiceResult<PageResponse<T>> getBlogpostPage(final List<Long> categoryIds, final Status status, final String cursor,
+            final int limit, final Function<List<BlogpostVersion>, List<T>> mapper) {
+        if (!PageCursor.validLimit(limit)) {
+            log.warn("Page limit {} must be between 1 and {}", limit, PageCursor.MAX_LIMIT);
+            return ServiceResult.invalidInput();
+        }
+        final Optional<Long> afterId = cursor == null ? Optional.empty() : PageCursor.decode(cursor);
+        if (cursor != null && afterId.isEmpty()) {
+            log.warn("Invalid page cursor {}", cursor);
+            return ServiceResult.invalidInput();
+        }
+
+        // fetch one extra blogpost to know whether there is a next page
+        final List<Blogpost> page = (status == null && (categoryIds == null || categoryIds.isEmpty()))
+            ? repository.findPage(afterId.orElse(null), limit + 1)
+            : findPageInIndex(filterIds(categoryIds, status), afterId.orElse(null), limit + 1);
+        final boolean hasNext = page.size() > limit;
+        final List<Blogpost> blogposts = hasNext ? page.subList(0, limit) : page;
+
+        final List<T> items = mapper.apply(blogposts.stream()
+            .map(post -> shownVersion(post, status))
+            .flatMap(Optional::stream)
+            .toList());
+        final String next = hasNext ? PageCursor.encode(blogposts.get(blogposts.size() - 1).getId()) : null;
+        return ServiceResult.ok(new PageResponse<>(items, next));
+    }
+
+    // Helper method: blogpost ids matching the category and status filters, either of which may be missing
+    private RoaringBitmap filterIds(final List<Long> categoryIds, final Status status) {
+        if (categoryIds == null || categoryIds.isEmpty()) {
+            return statusIndex.findBlogpostIds(status);
+        }
+        final RoaringBitmap ids = categoryIndex.findBlogpostIds(categoryIds);
+        if (status != Status.PUBLISHED) {
+            return status == null ? ids : RoaringBitmap.and(ids, statusIndex.findBlogpostIds(status));
+        }
+        // the category index follows current versions. Where a draft or archived version is current, the published
+        // version is an older one, so those blogposts are checked against the categories of their published version
+        final RoaringBitmap published = statusIndex.findBlogpostIds(Status.PUBLISHED);
+        final RoaringBitmap diverged = RoaringBitmap.and(published,
+            RoaringBitmap.or(statusIndex.findBlogpostIds(Status.DRAFT), statusIndex.findBlogpostIds(Status.ARCHIVED)));
+        final RoaringBitmap matching = RoaringBitmap.andNot(RoaringBitmap.and(ids, published), diverged);
+        diverged.forEach((int blogpostId) -> {
+            if (publishedVersionHasCategories((long) blogpostId, categoryIds)) {
+                matching.add(blogpostId);
+            }
+        });
+        return matching;
+    }
+
+    // Helper method: true if the published version of the blogpost has every one of the categories
+    private boolean publishedVersionHasCategories(final long blogpostId, final List<Long> categoryIds) {
+        return repository.findById(blogpostId)
+            .map(Blogpost::getPublishedVersion)
+            .flatMap(versionRepository::findById)
+            .map(version -> version.getCategories() != null && version.getCategories().containsAll(categoryIds))
+            .orElse(false);
+    }
+
+    // Helper method: the version a listing shows, the published one when filtering by PUBLISHED
+    private Optional<BlogpostVersion> shownVersion(final Blogpost post, final Status status) {
+        return Optional.ofNullable(status == Status.PUBLISHED ? post.getPublishedVersion() : post.getCurrentVersion())
+            .flatMap(versionRepository::findById);
+    }
+
+    // Helper method: walk the index bitmap from the cursor position instead of from the start
+    private List<Blogpost> findPageInIndex(final RoaringBitmap index, final Long afterId, final int limit) {
+        final PeekableIntIterator ids = index.getIntIterator();
+        if (afterId != null) {
+            // bitmap ids are ints, so nothing follows a cursor at or past the largest one
+            if (afterId >= Integer.MAX_VALUE) { return List.of(); }
+            ids.advanceIfNeeded((int) Math.max(0, afterId + 1));
+        }
+        final List<Blogpost> page = new ArrayList<>();
+        while (ids.hasNext() && page.size() < limit) {
+            repository.findById((long) ids.next()).ifPresent(page::add);
+        }
+        return page;
     }
 
     public Optional<List<PostResponse>> getAllVersionsOfBlogpost(Long id) {
         return repository.findById(id)
             .map(post -> versionRepository.findByBlogpostId(post.getId()))
-            .map(versions -> versions.stream()
-                .map(postMapper::toResponse)
-                .toList());
+            .map(postMapper::toResponses);
+    }
+
+    public Optional<List<PostProjection>> getAllVersionsOfBlogpost(final Long id, final PostFields fields) {
+        return repository.findById(id)
+            .map(post -> versionRepository.findByBlogpostId(post.getId()))
+            .map(versions -> postMapper.toProjections(versions, fields));
+    }
+
+    // lazy variant of getAllVersionsOfBlogpost
+    public Optional<Stream<PostResponse>> streamAllVersionsOfBlogpost(final Long id) {
+        return repository.findById(id)
+            .map(post -> versionRepository.streamByBlogpostId(post.getId())
+                .map(postMapper::toResponse));
+    }
+
+    public Optional<Stream<PostProjection>> streamAllVersionsOfBlogpost(final Long id, final PostFields fields) {
+        return repository.findById(id)
+            .map(post -> versionRepository.streamByBlogpostId(post.getId())
+                .map(version -> postMapper.toProjection(version, fields)));
     }
 
     // Helper method: avoid adding categories to blogposts that don't exist
     private boolean validCategories(final List<Long> categories) {
-        log.info("Validating categories {}", categories);
+        log.debug("Validating categories {}", categories);
         return Optional.ofNullable(categories)
             .orElseGet(List::of)
             .stream()
             .allMatch(id -> categoryRepository.findById(id).isPresent());
     }
 
+    // Helper method: called under the blogpost's lock once the written version is saved and current. validCategories ran
+    // before the save, and a category deleted since may have been missed by the delete's cleanup, which only finds
+    // versions saved before it scans: such categories are dropped from the version here, together with the category index
+    // entry the write may have recreated. A category still present now is deleted later, so the cleanup finds the version
+    private void dropDeletedCategories(final Long blogpostId, final BlogpostVersion version) {
+        if (version.getCategories() == null) { return; }
+        final LongList deleted = LongList.of(version.getCategories().longStream()
+            .filter(categoryId -> categoryRepository.findById(categoryId).isEmpty())
+            .toArray());
+        if (deleted.isEmpty()) { return; }
+        log.warn("Categories {} were deleted while blogpost with id {} was written, dropping them", deleted, blogpostId);
+        versionRepository.saveCategories(version, LongList.of(version.getCategories().longStream()
+            .filter(categoryId -> !deleted.contains(categoryId))
+            .toArray()));
+        deleted.forEach(categoryIndex::removeCategory);
+        encodedPostCache.invalidate(blogpostId);
+    }
+
+    // Helper method: keep the indexes over current versions in sync
+    private void currentVersionChanged(final Long blogpostId, final BlogpostVersion previous, final BlogpostVersion current) {
+        encodedPostCache.invalidate(blogpostId);
+        currentVersionListeners.forEach(listener -> listener.onCurrentVersionChanged(blogpostId, previous, current));
+    }
+
+    // Helper method: compare step of a conditional write, called under the blogpost's lock so the commit that follows
+    // cannot interleave with another writer
+    private boolean currentVersionMatches(final Blogpost post, final IfMatch ifMatch) {
+        if (ifMatch == null) { return true; }
+        final int currentNumber = versionRepository.findById(post.getCurrentVersion()).map(BlogpostVersion::getVersionNumber).orElse(0);
+        if (ifMatch.matches(currentNumber)) { return true; }
+        log.warn("Current version {} of blogpost with id {} does not match {}", currentNumber, post.getId(), ifMatch);
+        return false;
+    }
+
     // Helper method: invalid title
     private boolean invalidTitle(final PostRequest request) {
         return (request.title() == null || request.title().isEmpty());
@@ -113,9 +401,15 @@ public class BlogpostService {
             return ServiceResult.invalidInput();
         }
 
+        // the blogpost is only saved once its first version exists, so readers never see it without a current version;
+        // nobody else knows the new id yet, its lock only orders this write with a concurrent category cleanup
+        final Long id = repository.nextId();
+        return repository.withLock(id, () -> doCreateBlogpost(id, request));
+    }
+
+    private ServiceResult<PostResponse> doCreateBlogpost(final Long id, final PostRequest request) {
         Blogpost blogpost = new Blogpost();
-        blogpost.setId(nextId);
-        nextId++;
+        blogpost.setId(id);
 
         BlogpostVersion version = postMapper.toEntity(request);
         version.setBlogpostId(blogpost.getId());
@@ -123,19 +417,34 @@ public class BlogpostService {
         BlogpostVersion savedVersion = versionRepository.save(version);
 
         blogpost.setCurrentVersion(savedVersion.getId());
-        blogpost.getVersionIds().add(savedVersion.getId());
+        blogpost.addVersionId(savedVersion.getId());
         repository.save(blogpost);
+        currentVersionChanged(blogpost.getId(), null, savedVersion);
+        dropDeletedCategories(blogpost.getId(), savedVersion);
+        changeLog.append(Change.Entity.BLOGPOST, blogpost.getId(), Change.Type.CREATED, savedVersion.getVersionNumber());
 
-        log.info("Successfully created blogpost with id {} version {}", blogpost.getId(), savedVersion.getVersionNumber());
+        log.debug("Successfully created blogpost with id {} version {}", blogpost.getId(), savedVersion.getVersionNumber());
         return ServiceResult.ok(postMapper.toResponse(savedVersion));
     }
 
     public ServiceResult<PostResponse> updateBlogpost(final Long id, final PostRequest request) {
+        return updateBlogpost(id, request, null);
+    }
+
+    // with ifMatch, the new version is only committed if the current version is still one the caller expects
+    public ServiceResult<PostResponse> updateBlogpost(final Long id, final PostRequest request, final IfMatch ifMatch) {
+        return repository.withLock(id, () -> doUpdateBlogpost(id, request, ifMatch));
+    }
+
+    private ServiceResult<PostResponse> doUpdateBlogpost(final Long id, final PostRequest request, final IfMatch ifMatch) {
         Optional<Blogpost> existing = repository.findById(id);
         if (existing.isEmpty()) {
             log.warn("Blogpost with id {} not found", id);
             return ServiceResult.notFound();
         }
+        if (!currentVersionMatches(existing.get(), ifMatch)) {
+            return ServiceResult.preconditionFailed();
+        }
         if (invalidTitle(request) || invalidContent(request) || invalidAuthor(request)) {
             log.warn("Title, content and author cannot be null or empty");
             return ServiceResult.invalidInput();
@@ -146,24 +455,28 @@ public class BlogpostService {
         }
 
         Blogpost post = existing.get();
-        log.info("ID of current version of blogpost: {}", post.getCurrentVersion());
+        log.debug("ID of current version of blogpost: {}", post.getCurrentVersion());
         BlogpostVersion currentVersion = versionRepository.findById(post.getCurrentVersion()).get();
         BlogpostVersion newVersion = postMapper.toEntity(request);
         newVersion.setBlogpostId(currentVersion.getBlogpostId());
-        newVersion.setVersionNumber(versionRepository.findByBlogpostId(id).stream()
-            .map(BlogpostVersion::getVersionNumber)
-            .max(Integer::compareTo)
-            .get() + 1);
+        newVersion.setVersionNumber(versionRepository.findMaxVersionNumber(id) + 1);
         BlogpostVersion savedVersion = versionRepository.save(newVersion);
         post.setCurrentVersion(savedVersion.getId());
-        post.getVersionIds().add(savedVersion.getId());
+        post.addVersionId(savedVersion.getId());
         repository.save(post);
-        log.info("Successfully updated blogpost with id {} to new version {}", post.getId(), savedVersion.getVersionNumber());
+        currentVersionChanged(id, currentVersion, savedVersion);
+        dropDeletedCategories(id, savedVersion);
+        changeLog.append(Change.Entity.BLOGPOST, id, Change.Type.UPDATED, savedVersion.getVersionNumber());
+        log.debug("Successfully updated blogpost with id {} to new version {}", post.getId(), savedVersion.getVersionNumber());
 
         return ServiceResult.ok(postMapper.toResponse(newVersion));
     }
 
     public ServiceResult<PostResponse> updateStatus(final Long id, final StatusRequest request) {
+        return repository.withLock(id, () -> doUpdateStatus(id, request));
+    }
+
+    private ServiceResult<PostResponse> doUpdateStatus(final Long id, final StatusRequest request) {
         Optional<Blogpost> existing = repository.findById(id);
         if (existing.isEmpty()) {
             log.warn("Blogpost with id {} not found", id);
@@ -173,29 +486,40 @@ public class BlogpostService {
         BlogpostVersion currentVersion = versionRepository.findById(post.getCurrentVersion()).get();
         currentVersion.setStatus(request.status());
         versionRepository.save(currentVersion);
-        log.info("Version {} of blogpost with id {} is set to {}", currentVersion.getVersionNumber(), id, currentVersion.getStatus());
+        encodedPostCache.invalidate(id);
+        log.debug("Version {} of blogpost with id {} is set to {}", currentVersion.getVersionNumber(), id, currentVersion.getStatus());
 
         // if the current version is now published, set previously published version to archived
+        final Long publishedVersion = post.getPublishedVersion();
         if (currentVersion.getStatus() == Status.PUBLISHED) {
-            for (BlogpostVersion version : versionRepository.findByBlogpostId(id)) {
-                if (!version.getId().equals(currentVersion.getId()) && version.getStatus() == Status.PUBLISHED) {
+            if (publishedVersion != null && !publishedVersion.equals(currentVersion.getId())) {
+                versionRepository.findById(publishedVersion).ifPresent(version -> {
                     version.setStatus(Status.ARCHIVED);
                     versionRepository.save(version);
-                    log.info("Previously published version {} of blogpost with id {} set to archived", version.getVersionNumber(), id);
-                }
+                    log.debug("Previously published version {} of blogpost with id {} set to archived", version.getVersionNumber(), id);
+                });
             }
+            post.setPublishedVersion(currentVersion.getId());
+        } else if (currentVersion.getId().equals(publishedVersion)) {
+            post.setPublishedVersion(null);
         }
+        statusIndex.update(id, currentVersion.getStatus(), post.getPublishedVersion() != null);
+        changeLog.append(Change.Entity.BLOGPOST, id, Change.Type.STATUS_CHANGED, currentVersion.getVersionNumber());
         return ServiceResult.ok(postMapper.toResponse(currentVersion));
     }
 
     public ServiceResult<PostResponse> rollbackBlogpost(final Long id, final Integer versionNumber) {
+        return repository.withLock(id, () -> doRollbackBlogpost(id, versionNumber));
+    }
+
+    private ServiceResult<PostResponse> doRollbackBlogpost(final Long id, final Integer versionNumber) {
         Optional<Blogpost> existing = repository.findById(id);
         if (existing.isEmpty()) {
             log.warn("Blogpost with id {} not found", id);
             return ServiceResult.notFound();
         }
         Blogpost post = existing.get();
-        Optional<BlogpostVersion> targetVersionOpt = versionRepository.findByBlogpostId(id).stream().filter(v -> v.getVersionNumber().equals(versionNumber)).findFirst();
+        Optional<BlogpostVersion> targetVersionOpt = versionRepository.findByBlogpostIdAndVersionNumber(id, versionNumber);
         if (targetVersionOpt.isEmpty()) {
             log.warn("Version number {} not found in existing version numbers {}", versionNumber, post.getVersionIds());
             return ServiceResult.invalidInput();
@@ -206,28 +530,39 @@ public class BlogpostService {
         // new current version is set to DRAFT, previous current version to ARCHIVED
         targetVersion.setStatus(Status.DRAFT);
         prevCurrentVersion.setStatus(Status.ARCHIVED);
-        // look at categories of new version to make sure every category still exists (because when deleting a category fully, not every version of a post is checked)
-        for (Long categoryId : targetVersion.getCategories()) {
-            if (categoryRepository.findById(categoryId).isEmpty()) {
-                targetVersion.getCategories().remove(categoryId);
-            }
+        if (targetVersion.getId().equals(post.getPublishedVersion()) || prevCurrentVersion.getId().equals(post.getPublishedVersion())) {
+            post.setPublishedVersion(null);
         }
         repository.save(post);
         versionRepository.save(prevCurrentVersion);
         versionRepository.save(targetVersion);
+        currentVersionChanged(id, prevCurrentVersion, targetVersion);
+        dropDeletedCategories(id, targetVersion);
+        changeLog.append(Change.Entity.BLOGPOST, id, Change.Type.ROLLED_BACK, targetVersion.getVersionNumber());
 
-        log.info("Blogpost with id {} is set to version {}", id, targetVersion.getVersionNumber());
-        log.info("Previous latest version ({}) of blogpost is set to ARCHIVED", prevCurrentVersion.getVersionNumber());
+        log.debug("Blogpost with id {} is set to version {}", id, targetVersion.getVersionNumber());
+        log.debug("Previous latest version ({}) of blogpost is set to ARCHIVED", prevCurrentVersion.getVersionNumber());
 
         return ServiceResult.ok(postMapper.toResponse(targetVersion));
     }
 
     public ServiceResult<PostResponse> patchBlogpost(final Long id, final PostRequest request) {
+        return patchBlogpost(id, request, null);
+    }
+
+    public ServiceResult<PostResponse> patchBlogpost(final Long id, final PostRequest request, final IfMatch ifMatch) {
+        return repository.withLock(id, () -> doPatchBlogpost(id, request, ifMatch));
+    }
+
+    private ServiceResult<PostResponse> doPatchBlogpost(final Long id, final PostRequest request, final IfMatch ifMatch) {
         Optional<Blogpost> blogpost = repository.findById(id);
         if (!blogpost.isPresent()) {
             log.warn("Blogpost with id {} not found", id);
             return ServiceResult.notFound();
         }
+        if (!currentVersionMatches(blogpost.get(), ifMatch)) {
+            return ServiceResult.preconditionFailed();
+        }
         if (request.categoryIds() != null && !validCategories(request.categoryIds())) {
             log.warn("Invalid categories: partial blogpost update unsuccessful");
             return ServiceResult.invalidInput();
@@ -236,7 +571,7 @@ public class BlogpostService {
         Blogpost post = blogpost.get();
         BlogpostVersion current = versionRepository.findById(blogpost.get().getCurrentVersion()).get();
         BlogpostVersion newVersion = postMapper.toEntity(request);
-        log.info("Current content of newVersion: author - {}, content - {}, title - {}, categories - {}", newVersion.getAuthor(), newVersion.getContent(), newVersion.getTitle(), newVersion.getCategories());
+        log.debug("Current content of newVersion: author - {}, content - {}, title - {}, categories - {}", newVersion.getAuthor(), newVersion.getContent(), newVersion.getTitle(), newVersion.getCategories());
         if (request.title() == null) {
             newVersion.setTitle(current.getTitle());
         }
@@ -249,26 +584,34 @@ public class BlogpostService {
         if (request.categoryIds() == null) {
             newVersion.setCategories(current.getCategories());
         }
-        newVersion.setVersionNumber(versionRepository.findByBlogpostId(id).stream()
-            .map(BlogpostVersion::getVersionNumber)
-            .max(Integer::compareTo)
-            .get() + 1);
+        newVersion.setVersionNumber(versionRepository.findMaxVersionNumber(id) + 1);
         newVersion.setBlogpostId(current.getBlogpostId());
         versionRepository.save(newVersion);
         post.setCurrentVersion(newVersion.getId());
-        post.getVersionIds().add(newVersion.getId());
+        post.addVersionId(newVersion.getId());
         repository.save(post);
+        currentVersionChanged(id, current, newVersion);
+        dropDeletedCategories(id, newVersion);
+        changeLog.append(Change.Entity.BLOGPOST, id, Change.Type.PATCHED, newVersion.getVersionNumber());
         
-        log.info("Successfully updated blogpost with id {} to new version {}", id, newVersion.getVersionNumber());
+        log.debug("Successfully updated blogpost with id {} to new version {}", id, newVersion.getVersionNumber());
         return ServiceResult.ok(postMapper.toResponse(newVersion));
     }
 
     public boolean deleteBlogpost(final Long id) {
+        return repository.withLock(id, () -> doDeleteBlogpost(id));
+    }
+
+    private boolean doDeleteBlogpost(final Long id) {
         return repository.findById(id)
             .map(post -> {
-                versionRepository.deleteByBlogpostId(id);
+                final BlogpostVersion current = versionRepository.findById(post.getCurrentVersion()).orElse(null);
+                // remove the blogpost first so readers stop resolving it before its versions disappear
                 repository.deleteById(id);
-                log.info("Successfully deleted blogpost with id {}", id);
+                versionRepository.deleteByBlogpostId(id);
+                currentVersionChanged(id, current, null);
+                changeLog.append(Change.Entity.BLOGPOST, id, Change.Type.DELETED, null);
+                log.debug("Successfully deleted blogpost with id {}", id);
                 return true;
             })
             .orElseGet(() -> {
@@ -3,16 +3,24 @@ package com.example.cms.service;
 import com.example.cms.repository.CategoryRepository;
 import com.example.cms.repository.BlogpostRepository;
 import com.example.cms.repository.BlogpostVersionRepository;
+import com.example.cms.repository.CategoryIndex;
+import com.example.cms.repository.ChangeLog;
+import com.example.cms.model.BlogpostVersion;
 import com.example.cms.model.Category;
+import com.example.cms.model.Change;
 import com.example.cms.dto.CategoryRequest;
 import com.example.cms.dto.CategoryResponse;
+import com.example.cms.dto.PageResponse;
 import com.example.cms.util.CategoryMapper;
+import com.example.cms.util.CategoryNameResolver;
+import com.example.cms.util.PageCursor;
 import com.example.cms.service.ServiceResult;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.springframework.stereotype.Service;
 
@@ -24,22 +32,47 @@ public class CategoryService {
     private final BlogpostRepository blogpostRepository;
     private final BlogpostVersionRepository versionRepository;
     private final CategoryMapper categoryMapper;
+    private final CategoryIndex categoryIndex;
+    private final CategoryNameResolver categoryNameResolver;
+    private final ChangeLog changeLog;
 
-    public CategoryService(CategoryRepository repository, BlogpostRepository blogpostRepository, BlogpostVersionRepository versionRepository, CategoryMapper categoryMapper) {
+    public CategoryService(CategoryRepository repository, BlogpostRepository blogpostRepository, BlogpostVersionRepository versionRepository, CategoryMapper categoryMapper, CategoryIndex categoryIndex, CategoryNameResolver categoryNameResolver, ChangeLog changeLog) {
         this.repository = repository;
         this.blogpostRepository = blogpostRepository;
         this.versionRepository = versionRepository;
         this.categoryMapper = categoryMapper;
+        this.categoryIndex = categoryIndex;
+        this.categoryNameResolver = categoryNameResolver;
+        this.changeLog = changeLog;
     }
 
     public List<CategoryResponse> getAllCategories() {
         final List<Category> categories = repository.findAll();
-        log.info("Successfully fetched {} categories", categories.size());
+        log.debug("Successfully fetched {} categories", categories.size());
         return categories.stream()
             .map(categoryMapper::toResponse)
             .toList();
     }
 
+    // keyset pagination in category id order
+    public ServiceResult<PageResponse<CategoryResponse>> getCategoryPage(final String cursor, final int limit) {
+        if (!PageCursor.validLimit(limit)) {
+            log.warn("Page limit {} must be between 1 and {}", limit, PageCursor.MAX_LIMIT);
+            return ServiceResult.invalidInput();
+        }
+        final Optional<Long> afterId = cursor == null ? Optional.empty() : PageCursor.decode(cursor);
+        if (cursor != null && afterId.isEmpty()) {
+            log.warn("Invalid page cursor {}", cursor);
+            return ServiceResult.invalidInput();
+        }
+        // fetch one extra category to know whether there is a next page
+        final List<Category> page = repository.findPage(afterId.orElse(null), limit + 1);
+        final boolean hasNext = page.size() > limit;
+        final List<Category> categories = hasNext ? page.subList(0, limit) : page;
+        final String next = hasNext ? PageCursor.encode(categories.get(categories.size() - 1).getId()) : null;
+        return ServiceResult.ok(new PageResponse<>(categories.stream().map(categoryMapper::toResponse).toList(), next));
+    }
+
     public Optional<CategoryResponse> getCategory(final Long id) {
         return repository.findById(id).map(categoryMapper::toResponse);
     }
@@ -53,7 +86,8 @@ public class CategoryService {
         if (invalidName(request)) { return ServiceResult.invalidInput(); }
         final Category newCategory = categoryMapper.toEntity(request);
         repository.save(newCategory);
-        log.info("Successfully created new category: {}", newCategory.getId());
+        changeLog.append(Change.Entity.CATEGORY, newCategory.getId(), Change.Type.CREATED, null);
+        log.debug("Successfully created new category: {}", newCategory.getId());
         return ServiceResult.ok(categoryMapper.toResponse(newCategory));
     }
 
@@ -65,7 +99,9 @@ public class CategoryService {
             current.setName(request.name());
             current.setDescription(request.description());
             repository.save(current);
-            log.info("Successfully updated category {}", id);
+            categoryNameResolver.invalidate(id);
+            changeLog.append(Change.Entity.CATEGORY, id, Change.Type.UPDATED, null);
+            log.debug("Successfully updated category {}", id);
             return ServiceResult.ok(categoryMapper.toResponse(current));
         }
         return ServiceResult.notFound();
@@ -82,7 +118,9 @@ public class CategoryService {
                 current.setDescription(request.description());
             }
             repository.save(current);
-            log.info("Successfully updated category {} partially", id);
+            categoryNameResolver.invalidate(id);
+            changeLog.append(Change.Entity.CATEGORY, id, Change.Type.PATCHED, null);
+            log.debug("Successfully updated category {} partially", id);
             return Optional.of(categoryMapper.toResponse(current));
         }
         return Optional.empty();
@@ -91,13 +129,44 @@ public class CategoryService {
     public boolean deleteCategory(final Long id) {
         if (repository.findById(id).isEmpty()) { return false; }
         repository.deleteById(id);
-        // loop through blogpostRepository to remove references to deleted category in current version
-        blogpostRepository.findAll().forEach(blogpost -> {
-            versionRepository.findById(blogpost.getCurrentVersion()).get().getCategories().remove(id);
-        });
+        categoryIndex.removeCategory(id);
+        removeFromVersions(id);
+        categoryNameResolver.invalidate(id);
+        changeLog.append(Change.Entity.CATEGORY, id, Change.Type.DELETED, null);
         return true;
     }
 
+    // Helper: remove the category from exactly the versions referencing it (current or not), found through the reverse
+    // index; the shards are cleaned up in parallel
+    private void removeFromVersions(final Long categoryId) {
+        final LongAdder removed = new LongAdder();
+        blogpostRepository.fanOut().run(shard -> {
+            final List<Long> versionIds = versionRepository.findIdsByCategory(categoryId, shard);
+            // one lock per blogpost for all of its versions
+            final Map<Long, List<BlogpostVersion>> versionsByBlogpost = new LinkedHashMap<>();
+            for (Long versionId : versionIds) {
+                versionRepository.findById(versionId).ifPresent(version ->
+                    versionsByBlogpost.computeIfAbsent(version.getBlogpostId(), key -> new ArrayList<>()).add(version));
+            }
+            versionsByBlogpost.forEach((blogpostId, versions) -> blogpostRepository.withLock(blogpostId, () -> {
+                versions.forEach(version -> removeFromVersion(version, categoryId));
+                // the change feed only reports posts whose current version lost the category
+                blogpostRepository.findById(blogpostId)
+                    .flatMap(post -> versions.stream().filter(version -> version.getId().equals(post.getCurrentVersion())).findFirst())
+                    .ifPresent(current -> changeLog.append(Change.Entity.BLOGPOST, blogpostId, Change.Type.UPDATED, current.getVersionNumber()));
+                return null;
+            }));
+            removed.add(versionIds.size());
+        });
+        log.debug("Removed category {} from {} versions", categoryId, removed.sum());
+    }
+
+    // Helper: replace the category list of the version with a copy that no longer contains the category
+    private void removeFromVersion(final BlogpostVersion version, final Long categoryId) {
+        if (version.getCategories() == null || !version.getCategories().contains(categoryId)) { return; }
+        versionRepository.saveCategories(version, version.getCategories().without(categoryId));
+    }
+
     public boolean deleteCategorySafely(final Long id) {
         // check if category exists
         final Optional<Category> category = repository.findById(id);
@@ -105,14 +174,19 @@ public class CategoryService {
             log.warn("Category with id {} not found", id);
             return false;
         }
-        // check if category is part of any blogposts
-        if (blogpostRepository.findAll().stream().anyMatch(blogpost -> versionRepository.findById(blogpost.getCurrentVersion()).get().getCategories() != null && versionRepository.findById(blogpost.getCurrentVersion()).get().getCategories().contains(id))) {
+        // check if category is part of any blogposts (current versions, counted by the category index)
+        if (categoryIndex.countBlogposts(id) > 0) {
             log.warn("Category with id {} still used in blogposts, cannot be safely deleted", id);
             return false;
         }
-        // actually delete it
+        // actually delete it, and drop it from older versions that still reference it (and from current versions a
+        // concurrent write gave it after the check)
         repository.deleteById(id);
-        log.info("Category with id {} safely deleted", id);
+        categoryIndex.removeCategory(id);
+        removeFromVersions(id);
+        categoryNameResolver.invalidate(id);
+        changeLog.append(Change.Entity.CATEGORY, id, Change.Type.DELETED, null);
+        log.debug("Category with id {} safely deleted", id);
         return true;
     }
 
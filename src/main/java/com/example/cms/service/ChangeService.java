@@ -0,0 +1,172 @@
+package com.example.cms.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.cms.dto.ChangePage;
+import com.example.cms.model.Change;
+import com.example.cms.repository.ChangeLog;
+import com.example.cms.util.PageCursor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+// Change feed: catch-up reads of the change log from a sequence number, and Server-Sent Events streams that replay
+// from there and then tail it. Each stream is written by its own daemon thread that waits on the log, so a write only
+// notifies the waiting streams and never blocks on a slow client
+@Service
+public class ChangeService {
+    private static final Logger log = LoggerFactory.getLogger(ChangeService.class);
+    private static final int STREAM_BATCH = 256;
+    // idle streams get a comment line this often, so proxies keep them open and dead clients are noticed
+    private static final long KEEP_ALIVE_MILLIS = TimeUnit.SECONDS.toMillis(15);
+
+    private final ChangeLog changeLog;
+    private final int maxSubscribers;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // streams holding one of the maxSubscribers slots, counted apart from the set so taking a slot is one CAS
+    private final AtomicInteger slots = new AtomicInteger();
+
+    public ChangeService(ChangeLog changeLog, MeterRegistry meterRegistry, @Value("${cms.changes.max-subscribers:32}") int maxSubscribers) {
+        this.changeLog = changeLog;
+        this.maxSubscribers = maxSubscribers;
+        meterRegistry.gauge("cms.changes.subscribers", slots);
+    }
+
+    // changes after since, oldest first; without since, no changes and the position to start from. NOT_FOUND if changes
+    // after since are no longer retained, so the consumer has to reload everything and continue from a fresh position
+    public ServiceResult<ChangePage> getChanges(final Long since, final int limit) {
+        if (!PageCursor.validLimit(limit)) {
+            log.warn("Change limit {} must be between 1 and {}", limit, PageCursor.MAX_LIMIT);
+            return ServiceResult.invalidInput();
+        }
+        if (since == null) {
+            return ServiceResult.ok(new ChangePage(List.of(), changeLog.lastSeq()));
+        }
+        final Optional<List<Change>> changes = changeLog.findAfter(since, limit);
+        if (changes.isEmpty()) {
+            log.warn("Changes after {} are no longer retained", since);
+            return ServiceResult.notFound();
+        }
+        final List<Change> page = changes.get();
+        return ServiceResult.ok(new ChangePage(page, page.isEmpty() ? since : page.get(page.size() - 1).seq()));
+    }
+
+    // stream of changes after since (only new ones without since); NOT_FOUND like getChanges. Empty if maxSubscribers
+    // streams are open already: checking and taking a slot is one step, so concurrent subscribers can't overshoot it
+    public Optional<ServiceResult<SseEmitter>> trySubscribe(final Long since) {
+        if (!tryTakeSlot()) {
+            log.warn("Change stream refused, {} subscribers already", maxSubscribers);
+            return Optional.empty();
+        }
+        final long from = since == null ? changeLog.lastSeq() : since;
+        if (changeLog.findAfter(from, 1).isEmpty()) {
+            slots.decrementAndGet();
+            log.warn("Changes after {} are no longer retained", from);
+            return Optional.of(ServiceResult.notFound());
+        }
+        // the stream ends when the client goes away or the application stops, not after the async request timeout
+        final SseEmitter emitter = new SseEmitter(0L);
+        final Subscriber subscriber = new Subscriber(emitter, from);
+        subscribers.add(subscriber);
+        emitter.onCompletion(subscriber::stop);
+        emitter.onTimeout(subscriber::stop);
+        emitter.onError(error -> subscriber.stop());
+        subscriber.thread.start();
+        log.debug("Change stream subscribed after {}, {} subscribers", from, slots.get());
+        return Optional.of(ServiceResult.ok(emitter));
+    }
+
+    // Helper: false if every slot is taken
+    private boolean tryTakeSlot() {
+        int taken;
+        do {
+            taken = slots.get();
+            if (taken >= maxSubscribers) { return false; }
+        } while (!slots.compareAndSet(taken, taken + 1));
+        return true;
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.forEach(subscriber -> {
+            subscriber.stop();
+            subscriber.emitter.complete();
+        });
+    }
+
+    // One SSE stream and the thread writing it
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Thread thread;
+        private volatile boolean running = true;
+        private long cursor;
+
+        private Subscriber(final SseEmitter emitter, final long since) {
+            this.emitter = emitter;
+            this.cursor = since;
+            this.thread = new Thread(this::run, "change-stream");
+            thread.setDaemon(true);
+        }
+
+        private void stop() {
+            running = false;
+            release();
+            thread.interrupt();
+        }
+
+        // Helper: gives the slot back exactly once, however the stream ended
+        private void release() {
+            if (subscribers.remove(this)) {
+                slots.decrementAndGet();
+            }
+        }
+
+        // Helper: runs on the subscriber's thread until the client goes away
+        private void run() {
+            try {
+                long lastSent = System.currentTimeMillis();
+                while (running) {
+                    final Optional<List<Change>> changes = changeLog.findAfter(cursor, STREAM_BATCH);
+                    if (changes.isEmpty()) {
+                        // fell behind the retention window: the client has to reload and subscribe again
+                        emitter.send(SseEmitter.event().name("reset").data(cursor));
+                        emitter.complete();
+                        return;
+                    }
+                    for (Change change : changes.get()) {
+                        emitter.send(SseEmitter.event().id(Long.toString(change.seq())).name("change").data(change, MediaType.APPLICATION_JSON));
+                        cursor = change.seq();
+                        lastSent = System.currentTimeMillis();
+                    }
+                    if (changes.get().isEmpty()) {
+                        if (System.currentTimeMillis() - lastSent >= KEEP_ALIVE_MILLIS) {
+                            emitter.send(SseEmitter.event().comment("keep-alive"));
+                            lastSent = System.currentTimeMillis();
+                        }
+                        changeLog.awaitAfter(cursor, KEEP_ALIVE_MILLIS);
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // the client disconnected or the emitter was completed
+                log.debug("Change stream after {} closed: {}", cursor, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                release();
+            }
+        }
+    }
+}
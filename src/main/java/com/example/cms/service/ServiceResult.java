@@ -4,7 +4,9 @@ public class ServiceResult<T> {
     public enum Status {
         OK,
         NOT_FOUND,
-        INVALID_INPUT
+        INVALID_INPUT,
+        // a conditional write (If-Match) found a different current version
+        PRECONDITION_FAILED
     }
 
     private final Status status;
@@ -29,4 +31,8 @@ public class ServiceResult<T> {
     public static <T> ServiceResult<T> invalidInput() {
         return new ServiceResult<>(Status.INVALID_INPUT, null);
     }
+
+    public static <T> ServiceResult<T> preconditionFailed() {
+        return new ServiceResult<>(Status.PRECONDITION_FAILED, null);
+    }
 }
@@ -8,13 +8,10 @@ import org.springframework.stereotype.Component;
 
 @Component
 public class CategoryMapper {
-    private Long nextId = 1L;
     
-    // DTO -> Entity
+    // DTO -> Entity (id is assigned by the repository on save)
     public Category toEntity(CategoryRequest request) {
         Category category = new Category();
-        category.setId(nextId);
-        nextId++;
         category.setName(request.name());
         category.setDescription(request.description());
         return category;
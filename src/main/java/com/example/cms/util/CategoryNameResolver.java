@@ -0,0 +1,55 @@
+package com.example.cms.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.example.cms.model.Category;
+import com.example.cms.repository.CategoryRepository;
+
+// Resolves category ids to names through a cache; CategoryService invalidates it whenever a category is renamed or deleted
+@Component
+public class CategoryNameResolver {
+    public static final String NOT_FOUND = "[Category not found]";
+
+    private final CategoryRepository categoryRepository;
+    // bumped on every invalidation: entries stamped with an older generation are treated as missing
+    private final AtomicLong generation = new AtomicLong();
+    private final IdTable<CachedName> names = new IdTable<>();
+
+    private record CachedName(long generation, String name) {}
+
+    public CategoryNameResolver(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public String resolve(final long categoryId) {
+        return resolve(categoryId, generation.get());
+    }
+
+    public void invalidate(final Long categoryId) {
+        generation.incrementAndGet();
+        names.remove(categoryId);
+    }
+
+    // resolves against a generation read once by the caller, so a whole batch sees one state of the categories. The entry
+    // is stamped with that generation, so a concurrent invalidation always wins
+    public String resolve(final long categoryId, final long current) {
+        final CachedName cached = names.get(categoryId);
+        if (cached != null && cached.generation() == current) {
+            return cached.name();
+        }
+        return categoryRepository.findById(categoryId)
+            .map(Category::getName)
+            .map(name -> {
+                names.put(categoryId, new CachedName(current, name));
+                return name;
+            })
+            // misses are not cached, they are rare and a cached miss would need its own invalidation
+            .orElse(NOT_FOUND);
+    }
+}
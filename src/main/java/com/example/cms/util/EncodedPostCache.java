@@ -0,0 +1,76 @@
+package com.example.cms.util;
+
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import com.example.cms.dto.PostResponse;
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.model.Status;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Bounded cache of the JSON bytes (plus strong ETag) of each blogpost's current version, for GET /blogposts/{id}.
+// The ETag is "<versionNumber>-<hash of the body>": If-Match compares its version number (see IfMatch), the hash lets
+// If-None-Match notice status changes and category renames, which keep the version number
+@Component
+public class EncodedPostCache {
+
+    public record EncodedPost(byte[] body, String etag) {}
+
+    // an entry is only valid for the exact version, category names and status it was encoded from
+    private record Key(Long versionId, long categoryGeneration, Status status) {}
+    private record Entry(Key key, EncodedPost post) {}
+
+    private final Cache<Long, Entry> entries;
+    private final ObjectWriter writer;
+    private final CategoryNameResolver categoryNameResolver;
+
+    public EncodedPostCache(ObjectMapper objectMapper, CategoryNameResolver categoryNameResolver, MeterRegistry meterRegistry,
+            @Value("${cms.cache.encoded-posts.max-entries:10000}") long maxEntries) {
+        this.writer = objectMapper.writerFor(PostResponse.class);
+        this.categoryNameResolver = categoryNameResolver;
+        this.entries = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .recordStats()
+            .build();
+        // exposes cache.gets{result=hit|miss}, cache.evictions and cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "encodedPosts");
+    }
+
+    public EncodedPost get(final BlogpostVersion version, final Supplier<PostResponse> response) {
+        // read the generation before mapping, so names resolved after a concurrent rename never get cached under it
+        final long generation = categoryNameResolver.generation();
+        final Entry cached = entries.getIfPresent(version.getBlogpostId());
+        if (cached != null && cached.key().equals(new Key(version.getId(), generation, version.getStatus()))) {
+            return cached.post();
+        }
+        final PostResponse mapped = response.get();
+        final EncodedPost encoded = encode(mapped);
+        // keyed by the status actually encoded, which may differ from the one checked above under a concurrent status change
+        entries.put(version.getBlogpostId(), new Entry(new Key(version.getId(), generation, mapped.status()), encoded));
+        return encoded;
+    }
+
+    public void invalidate(final Long blogpostId) {
+        entries.invalidate(blogpostId);
+    }
+
+    // also used for the responses of writes, so their ETag is the one a GET of the written version returns
+    public EncodedPost encode(final PostResponse response) {
+        try {
+            final byte[] body = writer.writeValueAsBytes(response);
+            return new EncodedPost(body, "\"" + response.versionNumber() + "-" + DigestUtils.md5DigestAsHex(body) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode blogpost " + response.blogpostId(), e);
+        }
+    }
+}
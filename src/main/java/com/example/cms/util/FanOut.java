@@ -0,0 +1,94 @@
+package com.example.cms.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.ToLongFunction;
+
+// Runs one task per shard of the sharded repositories on a fork-join pool and merges their results in id order. The
+// calling thread takes the first shard itself, so one shard (or a parallelism of 1) never leaves the caller's thread
+public final class FanOut implements AutoCloseable {
+    private final int shards;
+    // null when everything runs on the caller
+    private final ForkJoinPool pool;
+
+    public FanOut(final int shards, final int parallelism) {
+        if (shards < 1) { throw new IllegalArgumentException("Shard count must be positive: " + shards); }
+        this.shards = shards;
+        this.pool = shards == 1 || parallelism <= 1 ? null : new ForkJoinPool(parallelism, pool -> {
+            final var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("fan-out-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    public int shards() {
+        return shards;
+    }
+
+    // source returns the items of a shard in id order and mapper maps them one to one; the mapped items of all shards
+    // come back ordered by the id of the item each was mapped from
+    public <S, T> List<T> map(final IntFunction<List<S>> source, final ToLongFunction<S> idOf, final Function<List<S>, List<T>> mapper) {
+        if (shards == 1) { return mapper.apply(source.apply(0)); }
+        final List<Part<T>> parts = collect(shard -> {
+            final List<S> items = source.apply(shard);
+            final long[] ids = new long[items.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = idOf.applyAsLong(items.get(i));
+            }
+            return new Part<>(ids, mapper.apply(items));
+        });
+        // k-way merge of the shards' sorted runs, picking the lowest head each step (there are few shards)
+        final int[] next = new int[shards];
+        final List<T> merged = new ArrayList<>(parts.stream().mapToInt(part -> part.ids().length).sum());
+        while (true) {
+            int lowest = -1;
+            for (int shard = 0; shard < shards; shard++) {
+                final long[] ids = parts.get(shard).ids();
+                if (next[shard] < ids.length && (lowest < 0 || ids[next[shard]] < parts.get(lowest).ids()[next[lowest]])) {
+                    lowest = shard;
+                }
+            }
+            if (lowest < 0) { return merged; }
+            merged.add(parts.get(lowest).values().get(next[lowest]++));
+        }
+    }
+
+    // runs the task for every shard and returns once all of them are done; the first failure is rethrown
+    public void run(final IntConsumer task) {
+        collect(shard -> {
+            task.accept(shard);
+            return null;
+        });
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    // mapped items of one shard and the ids of what they were mapped from
+    private record Part<T>(long[] ids, List<T> values) {}
+
+    // Helper: results of every shard, indexed by shard
+    private <R> List<R> collect(final IntFunction<R> task) {
+        final List<ForkJoinTask<R>> forked = new ArrayList<>(shards - 1);
+        for (int shard = 1; shard < shards; shard++) {
+            final int forkedShard = shard;
+            forked.add(pool == null ? null : pool.submit(() -> task.apply(forkedShard)));
+        }
+        final List<R> results = new ArrayList<>(shards);
+        results.add(task.apply(0));
+        for (int shard = 1; shard < shards; shard++) {
+            final ForkJoinTask<R> running = forked.get(shard - 1);
+            results.add(running == null ? task.apply(shard) : running.join());
+        }
+        return results;
+    }
+}
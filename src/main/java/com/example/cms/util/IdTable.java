@@ -0,0 +1,256 @@
+package com.example.cms.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Concurrent map from long ids to values for ids handed out by a counter: values sit in fixed-size chunks indexed by
+// the id itself, so a lookup is two array reads with no boxed key and no entry object. Ids are never reused, so slots
+// of deleted entries stay empty; a chunk costs CHUNK_SIZE references once any id in its range was stored.
+// Ids may be spread over shards (id % shards picks the shard, id / shards the slot in it), each with its own chunks and
+// size counter, so writers of different shards share no cache line and a shard can be walked on its own.
+// Iteration is in id order and weakly consistent, like a ConcurrentSkipListMap's
+public final class IdTable<V> {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final class Shard<V> {
+        // replaced as a whole when it grows; chunks are only added under the shard's monitor
+        private volatile AtomicReferenceArray<AtomicReferenceArray<V>> chunks = new AtomicReferenceArray<>(16);
+        private final AtomicLong size = new AtomicLong();
+
+        // the chunk holding the slot, null if none was allocated for it
+        private AtomicReferenceArray<V> chunk(final long slot) {
+            final AtomicReferenceArray<AtomicReferenceArray<V>> current = chunks;
+            final long index = slot >>> CHUNK_BITS;
+            return index >= current.length() ? null : current.get((int) index);
+        }
+
+        // allocates the chunk (and grows the directory) on first use of its range
+        private AtomicReferenceArray<V> chunkFor(final long slot) {
+            final AtomicReferenceArray<V> existing = chunk(slot);
+            if (existing != null) { return existing; }
+            final int index = (int) (slot >>> CHUNK_BITS);
+            synchronized (this) {
+                AtomicReferenceArray<AtomicReferenceArray<V>> current = chunks;
+                if (index >= current.length()) {
+                    final AtomicReferenceArray<AtomicReferenceArray<V>> grown =
+                        new AtomicReferenceArray<>((int) Math.min(Integer.MAX_VALUE - 8L, Math.max(index + 1L, current.length() * 2L)));
+                    for (int i = 0; i < current.length(); i++) {
+                        grown.set(i, current.get(i));
+                    }
+                    chunks = grown;
+                    current = grown;
+                }
+                AtomicReferenceArray<V> chunk = current.get(index);
+                if (chunk == null) {
+                    chunk = new AtomicReferenceArray<>(CHUNK_SIZE);
+                    current.set(index, chunk);
+                }
+                return chunk;
+            }
+        }
+
+        // one past the highest slot that may hold a value
+        private long end() {
+            return (long) chunks.length() << CHUNK_BITS;
+        }
+    }
+
+    private final Shard<V>[] shards;
+
+    public IdTable() {
+        this(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public IdTable(final int shards) {
+        if (shards < 1) { throw new IllegalArgumentException("Shard count must be positive: " + shards); }
+        this.shards = new Shard[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            this.shards[shard] = new Shard<>();
+        }
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    // shard of a (non-negative) id
+    public int shardOf(final long id) {
+        return (int) (id % shards.length);
+    }
+
+    public V get(final long id) {
+        final AtomicReferenceArray<V> chunk = chunk(id);
+        return chunk == null ? null : chunk.get(slotInChunk(id));
+    }
+
+    public boolean containsKey(final long id) {
+        return get(id) != null;
+    }
+
+    // returns the previous value, null if there was none
+    public V put(final long id, final V value) {
+        if (value == null) { throw new NullPointerException("value"); }
+        final V previous = chunkFor(id).getAndSet(slotInChunk(id), value);
+        if (previous == null) {
+            shards[shardOf(id)].size.incrementAndGet();
+        }
+        return previous;
+    }
+
+    // the value stored for the id, or the one created for it; create may run more than once when called concurrently
+    public V computeIfAbsent(final long id, final LongFunction<V> create) {
+        final V existing = get(id);
+        if (existing != null) { return existing; }
+        final AtomicReferenceArray<V> chunk = chunkFor(id);
+        final V created = create.apply(id);
+        final int slot = slotInChunk(id);
+        if (chunk.compareAndSet(slot, null, created)) {
+            shards[shardOf(id)].size.incrementAndGet();
+            return created;
+        }
+        return chunk.get(slot);
+    }
+
+    // returns the removed value, null if there was none
+    public V remove(final long id) {
+        final AtomicReferenceArray<V> chunk = chunk(id);
+        if (chunk == null) { return null; }
+        final V removed = chunk.getAndSet(slotInChunk(id), null);
+        if (removed != null) {
+            shards[shardOf(id)].size.decrementAndGet();
+        }
+        return removed;
+    }
+
+    public long size() {
+        long size = 0;
+        for (Shard<V> shard : shards) {
+            size += shard.size.get();
+        }
+        return size;
+    }
+
+    // values in id order
+    public Stream<V> values() {
+        return valuesAfter(-1);
+    }
+
+    // values with an id greater than afterId, in id order
+    public Stream<V> valuesAfter(final long afterId) {
+        final int count = shards.length;
+        final Iterator<V> iterator = new Iterator<>() {
+            // saturating: nothing follows Long.MAX_VALUE
+            private long nextId = afterId == Long.MAX_VALUE ? afterId : Math.max(afterId + 1, 0);
+            private long end;
+            private V next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null) {
+                    if (nextId >= end) {
+                        end = end();
+                        if (nextId >= end) { break; }
+                    }
+                    final long slot = nextId / count;
+                    final int shard = (int) (nextId % count);
+                    if (shard == 0 && (slot & CHUNK_MASK) == 0 && noChunkFor(slot)) {
+                        // skip the ids of a chunk range that was never allocated in any shard
+                        nextId += (long) CHUNK_SIZE * count;
+                        continue;
+                    }
+                    final AtomicReferenceArray<V> chunk = shards[shard].chunk(slot);
+                    next = chunk == null ? null : chunk.get((int) (slot & CHUNK_MASK));
+                    nextId++;
+                }
+                return next != null;
+            }
+
+            @Override
+            public V next() {
+                if (!hasNext()) { throw new NoSuchElementException(); }
+                final V value = next;
+                next = null;
+                return value;
+            }
+        };
+        return stream(iterator);
+    }
+
+    // values of one shard, in id order
+    public Stream<V> shardValues(final int shard) {
+        final Shard<V> table = shards[shard];
+        final Iterator<V> iterator = new Iterator<>() {
+            private long nextSlot;
+            private V next;
+
+            @Override
+            public boolean hasNext() {
+                final long end = table.end();
+                while (next == null && nextSlot < end) {
+                    final AtomicReferenceArray<V> chunk = table.chunk(nextSlot);
+                    if (chunk == null) {
+                        nextSlot = (nextSlot | CHUNK_MASK) + 1;
+                        continue;
+                    }
+                    next = chunk.get((int) (nextSlot++ & CHUNK_MASK));
+                }
+                return next != null;
+            }
+
+            @Override
+            public V next() {
+                if (!hasNext()) { throw new NoSuchElementException(); }
+                final V value = next;
+                next = null;
+                return value;
+            }
+        };
+        return stream(iterator);
+    }
+
+    private static <V> Stream<V> stream(final Iterator<V> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // Helper: one past the highest id any shard may hold
+    private long end() {
+        long end = 0;
+        for (Shard<V> shard : shards) {
+            end = Math.max(end, shard.end());
+        }
+        return end * shards.length;
+    }
+
+    // Helper: true if no shard allocated the chunk holding the slot
+    private boolean noChunkFor(final long slot) {
+        for (Shard<V> shard : shards) {
+            if (shard.chunk(slot) != null) { return false; }
+        }
+        return true;
+    }
+
+    private int slotInChunk(final long id) {
+        return (int) ((id / shards.length) & CHUNK_MASK);
+    }
+
+    // Helper: the chunk holding the id, null if none was allocated for it
+    private AtomicReferenceArray<V> chunk(final long id) {
+        return id < 0 ? null : shards[shardOf(id)].chunk(id / shards.length);
+    }
+
+    // Helper: allocates the chunk on first use of its range
+    private AtomicReferenceArray<V> chunkFor(final long id) {
+        if (id < 0 || (id / shards.length >>> CHUNK_BITS) >= Integer.MAX_VALUE) { throw new IllegalArgumentException("Id out of range: " + id); }
+        return shards[shardOf(id)].chunkFor(id / shards.length);
+    }
+}
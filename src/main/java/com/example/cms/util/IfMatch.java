@@ -0,0 +1,39 @@
+package com.example.cms.util;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// If-Match header of a conditional blogpost write. Its entity tags name current version numbers: the ETag handed out by
+// GET /blogposts/{id} and the writes ("3-<hash>"), or the version number alone ("3", W/"3" or plain 3); "*" matches any version
+public record IfMatch(boolean any, Set<Integer> versionNumbers) {
+    // what a missing header means: the write is unconditional
+    public static final IfMatch ANY = new IfMatch(true, Set.of());
+
+    private static final Pattern TAG = Pattern.compile("(?:W/)?(\"?)(\\d{1,9})(?:-[0-9a-f]+)?\\1");
+
+    // empty when a tag is none of the above, so a client holding a validator we never hand out gets a 400
+    // instead of a 412 it cannot resolve by reloading
+    public static Optional<IfMatch> parse(final String header) {
+        if (header == null || header.isBlank()) { return Optional.of(ANY); }
+        boolean any = false;
+        final Set<Integer> versionNumbers = new HashSet<>();
+        for (String tag : header.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*")) {
+                any = true;
+                continue;
+            }
+            final Matcher matcher = TAG.matcher(tag);
+            if (!matcher.matches()) { return Optional.empty(); }
+            versionNumbers.add(Integer.parseInt(matcher.group(2)));
+        }
+        return Optional.of(new IfMatch(any, Set.copyOf(versionNumbers)));
+    }
+
+    public boolean matches(final int versionNumber) {
+        return any || versionNumbers.contains(versionNumber);
+    }
+}
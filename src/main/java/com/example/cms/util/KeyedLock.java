@@ -0,0 +1,37 @@
+package com.example.cms.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// One lock per key, created on first use and dropped once no thread holds or waits for it: writers of different keys
+// never share a lock, and idle keys cost nothing
+public class KeyedLock {
+    private static final class Entry {
+        final ReentrantLock lock = new ReentrantLock();
+        // threads holding or waiting for the lock; only changed inside the map's compute for the key
+        int users;
+    }
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    public <T> T withLock(final long key, final Supplier<T> action) {
+        final Entry entry = entries.compute(key, (k, existing) -> {
+            final Entry used = existing == null ? new Entry() : existing;
+            used.users++;
+            return used;
+        });
+        entry.lock.lock();
+        try {
+            return action.get();
+        } finally {
+            entry.lock.unlock();
+            entries.computeIfPresent(key, (k, existing) -> --existing.users == 0 ? null : existing);
+        }
+    }
+
+    // keys currently locked or waited for
+    public int size() {
+        return entries.size();
+    }
+}
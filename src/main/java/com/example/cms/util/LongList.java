@@ -0,0 +1,118 @@
+package com.example.cms.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+// Immutable list of ids backed by a long[]: no Long per element, and getLong/contains(long) never box. It is still a
+// List<Long>, so DTOs and callers that only read it are unaffected.
+// Lists built by appending share one array with spare capacity: the list holds the first size values, and only the
+// first list to append to a given length writes past it, so appending n values one by one copies O(n) values, not O(n²)
+public final class LongList extends AbstractList<Long> implements RandomAccess {
+    public static final LongList EMPTY = new LongList(new long[0]);
+
+    private final long[] values;
+    private final int size;
+    // how much of values some list already uses; null when values has no spare capacity
+    private final AtomicInteger used;
+
+    private LongList(final long[] values) {
+        this(values, values.length, null);
+    }
+
+    private LongList(final long[] values, final int size, final AtomicInteger used) {
+        this.values = values;
+        this.size = size;
+        this.used = used;
+    }
+
+    public static LongList of(final long... values) {
+        return values.length == 0 ? EMPTY : new LongList(values.clone());
+    }
+
+    // like List.copyOf: rejects null elements, and returns the argument itself if it already is a LongList
+    public static LongList copyOf(final Collection<Long> values) {
+        if (values instanceof LongList list) { return list; }
+        if (values.isEmpty()) { return EMPTY; }
+        final long[] copy = new long[values.size()];
+        int i = 0;
+        for (Long value : values) {
+            copy[i++] = value;
+        }
+        return new LongList(copy);
+    }
+
+    // this list with the value appended
+    public LongList with(final long value) {
+        if (size < values.length && used.compareAndSet(size, size + 1)) {
+            values[size] = value;
+            return new LongList(values, size + 1, used);
+        }
+        final long[] grown = Arrays.copyOf(values, Math.max(4, size * 2));
+        grown[size] = value;
+        return new LongList(grown, size + 1, new AtomicInteger(size + 1));
+    }
+
+    // this list with the values appended
+    public LongList withAll(final Collection<Long> added) {
+        if (added.isEmpty()) { return this; }
+        final int count = added.size();
+        final boolean inPlace = values.length - size >= count && used.compareAndSet(size, size + count);
+        final long[] target = inPlace ? values : Arrays.copyOf(values, Math.max(size + count, size * 2));
+        int i = size;
+        for (Long value : added) {
+            target[i++] = value;
+        }
+        return new LongList(target, size + count, inPlace ? used : new AtomicInteger(size + count));
+    }
+
+    // a copy without any occurrence of the value, this list itself if it does not contain it
+    public LongList without(final long value) {
+        if (!contains(value)) { return this; }
+        return new LongList(longStream().filter(existing -> existing != value).toArray());
+    }
+
+    public long getLong(final int index) {
+        Objects.checkIndex(index, size);
+        return values[index];
+    }
+
+    @Override
+    public Long get(final int index) {
+        return getLong(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(final long value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) { return true; }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(final Object value) {
+        return value instanceof Long id && contains(id.longValue());
+    }
+
+    @Override
+    public int indexOf(final Object value) {
+        if (!(value instanceof Long id)) { return -1; }
+        for (int i = 0; i < size; i++) {
+            if (values[i] == id) { return i; }
+        }
+        return -1;
+    }
+
+    public LongStream longStream() {
+        return Arrays.stream(values, 0, size);
+    }
+}
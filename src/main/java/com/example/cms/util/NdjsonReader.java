@@ -0,0 +1,69 @@
+package com.example.cms.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+// Reads newline-delimited JSON one record at a time; a line that does not parse is reported with its error instead of
+// ending the stream, so one broken record does not cost the rest
+@Component
+public class NdjsonReader {
+    private final ObjectMapper objectMapper;
+
+    // value is null if the line could not be parsed, error says why
+    public record Line<T>(long number, T value, String error) {}
+
+    public NdjsonReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    // blank lines are skipped; the caller closes the input
+    public <T> Iterator<Line<T>> read(final InputStream input, final Class<T> type) {
+        final ObjectReader reader = objectMapper.readerFor(type);
+        final BufferedReader lines = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16);
+        return new Iterator<>() {
+            private long number;
+            private String next;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    while (next == null) {
+                        final String line = lines.readLine();
+                        if (line == null) { return false; }
+                        number++;
+                        if (!line.isBlank()) {
+                            next = line;
+                        }
+                    }
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public Line<T> next() {
+                if (!hasNext()) { throw new NoSuchElementException(); }
+                final String line = next;
+                next = null;
+                try {
+                    return new Line<>(number, reader.readValue(line), null);
+                } catch (JsonProcessingException e) {
+                    return new Line<>(number, null, e.getOriginalMessage());
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.cms.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+// Opaque keyset cursor: encodes the id of the last item of a page, the next page starts after it
+public final class PageCursor {
+    public static final int MAX_LIMIT = 1000;
+    private static final String PREFIX = "id:";
+
+    private PageCursor() {}
+
+    public static String encode(final Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // empty if the cursor was not produced by encode: ids are never negative, and no id follows Long.MAX_VALUE
+    public static Optional<Long> decode(final String cursor) {
+        try {
+            final String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIX)) { return Optional.empty(); }
+            final long lastId = Long.parseLong(decoded.substring(PREFIX.length()));
+            return lastId < 0 || lastId == Long.MAX_VALUE ? Optional.empty() : Optional.of(lastId);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    public static boolean validLimit(final int limit) {
+        return limit > 0 && limit <= MAX_LIMIT;
+    }
+}
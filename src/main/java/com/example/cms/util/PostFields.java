@@ -0,0 +1,70 @@
+package com.example.cms.util;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Fields of a PostResponse a listing asks for, from fields=title,status or a predefined view=summary. Unrequested fields
+// are neither resolved (content may have to be rebuilt from diffs or inflated) nor written (see PostProjection)
+public final class PostFields {
+
+    // in PostResponse order, which is also the order they are written in
+    public enum Field {
+        BLOGPOST_ID("blogpostId"),
+        VERSION_NUMBER("versionNumber"),
+        TITLE("title"),
+        AUTHOR("author"),
+        CONTENT("content"),
+        CREATED_AT("createdAt"),
+        STATUS("status"),
+        CATEGORIES("categories");
+
+        private final String jsonName;
+
+        Field(final String jsonName) {
+            this.jsonName = jsonName;
+        }
+
+        public String jsonName() {
+            return jsonName;
+        }
+    }
+
+    public static final PostFields ALL = new PostFields(EnumSet.allOf(Field.class));
+    // what list pages (homepage, sitemap, admin tables) need
+    public static final PostFields SUMMARY = new PostFields(EnumSet.of(Field.BLOGPOST_ID, Field.TITLE, Field.STATUS, Field.CATEGORIES));
+
+    private static final Map<String, PostFields> VIEWS = Map.of("summary", SUMMARY, "full", ALL);
+
+    private final Set<Field> fields;
+
+    private PostFields(final Set<Field> fields) {
+        this.fields = fields;
+    }
+
+    // ALL if neither is given; empty if both are given, the view is unknown, or a field name is unknown or missing
+    public static Optional<PostFields> parse(final String fields, final String view) {
+        if (fields == null) {
+            return view == null ? Optional.of(ALL) : Optional.ofNullable(VIEWS.get(view));
+        }
+        if (view != null) { return Optional.empty(); }
+        final Set<Field> selected = EnumSet.noneOf(Field.class);
+        for (String name : fields.split(",", -1)) {
+            final Optional<Field> field = EnumSet.allOf(Field.class).stream()
+                .filter(candidate -> candidate.jsonName.equals(name.strip()))
+                .findFirst();
+            if (field.isEmpty()) { return Optional.empty(); }
+            selected.add(field.get());
+        }
+        return Optional.of(selected.size() == Field.values().length ? ALL : new PostFields(selected));
+    }
+
+    public boolean has(final Field field) {
+        return fields.contains(field);
+    }
+
+    public boolean isAll() {
+        return this == ALL;
+    }
+}
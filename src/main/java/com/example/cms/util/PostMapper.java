@@ -1,10 +1,9 @@
 package com.example.cms.util;
 
 import com.example.cms.model.BlogpostVersion;
-import com.example.cms.model.Category;
 import com.example.cms.model.Status;
-import com.example.cms.repository.CategoryRepository;
 
+import com.example.cms.dto.PostProjection;
 import com.example.cms.dto.PostRequest;
 import com.example.cms.dto.PostResponse;
 
@@ -14,10 +13,10 @@ import org.springframework.stereotype.Component;
 
 @Component
 public class PostMapper {
-    private final CategoryRepository categoryRepository;
+    private final CategoryNameResolver categoryNameResolver;
 
-    public PostMapper(CategoryRepository categoryRepository) {
-        this.categoryRepository = categoryRepository;
+    public PostMapper(CategoryNameResolver categoryNameResolver) {
+        this.categoryNameResolver = categoryNameResolver;
     }
 
     // DTO -> Entity
@@ -26,6 +25,7 @@ public class PostMapper {
         version.setTitle(request.title());
         version.setAuthor(request.author());
         version.setContent(request.content());
+        // stored as an immutable copy: versions are shared between threads, so categories are replaced rather than edited in place
         version.setCategories(request.categoryIds());
         version.setStatus(Status.DRAFT);
         version.setCreatedAt(LocalDateTime.now());
@@ -34,12 +34,44 @@ public class PostMapper {
 
     // Entity -> DTO
     public PostResponse toResponse(final BlogpostVersion version) {
-        List<String> categoryNames = version.getCategories().stream()
-            .map(id -> categoryRepository.findById(id)   
-                    .map(Category::getName)             
-                    .orElse("[Category not found]")) 
+        return toResponse(version, categoryNames(version, categoryNameResolver.generation()));
+    }
+
+    // Entities -> DTOs, all resolved against the same generation of category names
+    public List<PostResponse> toResponses(final List<BlogpostVersion> versions) {
+        final long generation = categoryNameResolver.generation();
+        return versions.stream()
+            .map(version -> toResponse(version, categoryNames(version, generation)))
+            .toList();
+    }
+
+    // Entities -> projections restricted to fields; category names are only resolved if they are requested
+    public List<PostProjection> toProjections(final List<BlogpostVersion> versions, final PostFields fields) {
+        final long generation = categoryNameResolver.generation();
+        return versions.stream()
+            .map(version -> toProjection(version, fields, generation))
             .toList();
+    }
+
+    public PostProjection toProjection(final BlogpostVersion version, final PostFields fields) {
+        return toProjection(version, fields, categoryNameResolver.generation());
+    }
+
+    private PostProjection toProjection(final BlogpostVersion version, final PostFields fields, final long generation) {
+        return new PostProjection(version, fields, fields.has(PostFields.Field.CATEGORIES) ? categoryNames(version, generation) : null);
+    }
+
+    // Helper: cached names are one array read per id, so the ids are resolved one by one without boxing
+    private List<String> categoryNames(final BlogpostVersion version, final long generation) {
+        final LongList categories = version.getCategories();
+        final String[] names = new String[categories.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = categoryNameResolver.resolve(categories.getLong(i), generation);
+        }
+        return List.of(names);
+    }
 
+    private PostResponse toResponse(final BlogpostVersion version, final List<String> categoryNames) {
         return new PostResponse(
             version.getBlogpostId(),
             version.getVersionNumber(),
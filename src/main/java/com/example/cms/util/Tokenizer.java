@@ -0,0 +1,35 @@
+package com.example.cms.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Splits text into lower-case words: runs of letters and digits, everything else separates
+public final class Tokenizer {
+    // longer runs (base64, hashes) are cut, they are never searched for in full
+    public static final int MAX_TOKEN_LENGTH = 64;
+
+    private Tokenizer() {}
+
+    public static List<String> tokenize(final String text) {
+        final List<String> tokens = new ArrayList<>();
+        if (text == null) { return tokens; }
+        int start = -1;
+        for (int i = 0; i <= text.length(); ) {
+            final int codePoint = i < text.length() ? text.codePointAt(i) : ' ';
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (start < 0) { start = i; }
+            } else if (start >= 0) {
+                int end = Math.min(i, start + MAX_TOKEN_LENGTH);
+                // never between the two halves of a surrogate pair
+                if (end < i && Character.isLowSurrogate(text.charAt(end))) {
+                    end--;
+                }
+                tokens.add(text.substring(start, end).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+            i += i < text.length() ? Character.charCount(codePoint) : 1;
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.cms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.example.cms.logging.AccessLogBuffer;
+import com.example.cms.logging.AccessLogFilter;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+
+public class AccessLogTest {
+
+    private final Logger accessLogger = (Logger) LoggerFactory.getLogger("cms.access");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private AccessLogBuffer buffer;
+
+    @BeforeEach
+    void attach() {
+        appender.start();
+        accessLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void detach() {
+        accessLogger.detachAppender(appender);
+        if (buffer != null) { buffer.close(); }
+    }
+
+    private List<String> lines() {
+        return appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+    }
+
+    @Test
+    void testPublish_oneJsonLinePerRecordInOrder() {
+        buffer = new AccessLogBuffer(new SimpleMeterRegistry(), 16);
+        buffer.publish("GET", "/blogposts/1", null, "/blogposts/{id}", 200, 120, null);
+        buffer.publish("PUT", "/blogposts/\"2\"", "a=b", null, 412, 80, null);
+        buffer.close();
+
+        assertThat(lines()).hasSize(2);
+        assertThat(lines().get(0)).startsWith("{\"time\":\"").contains("\"method\":\"GET\",\"path\":\"/blogposts/1\",\"route\":\"/blogposts/{id}\",\"status\":200,\"durationUs\":120}");
+        assertThat(lines().get(1)).contains("\"path\":\"/blogposts/\\\"2\\\"\",\"query\":\"a=b\",\"status\":412");
+    }
+
+    @Test
+    void testPublish_fullRingDropsInsteadOfBlocking() throws Exception {
+        // the drainer stalls on the first record until released
+        final CountDownLatch release = new CountDownLatch(1);
+        final ListAppender<ILoggingEvent> blocking = new ListAppender<>() {
+            @Override
+            protected void append(final ILoggingEvent event) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        blocking.start();
+        accessLogger.addAppender(blocking);
+        try {
+            buffer = new AccessLogBuffer(new SimpleMeterRegistry(), 4);
+            int accepted = 0;
+            for (int i = 0; i < 20; i++) {
+                if (buffer.publish("GET", "/blogposts/" + i, null, null, 200, 1, null)) { accepted++; }
+            }
+            // one record is being written, at most the 4 slots are taken
+            assertThat(accepted).isBetween(4, 5);
+            assertThat(buffer.dropped()).isEqualTo(20 - accepted);
+        } finally {
+            release.countDown();
+            buffer.close();
+            accessLogger.detachAppender(blocking);
+        }
+    }
+
+    @Test
+    void testFilter_successfulReadsSampledErrorsAlwaysRecorded() throws Exception {
+        buffer = new AccessLogBuffer(new SimpleMeterRegistry(), 64);
+        final AccessLogFilter filter = new AccessLogFilter(buffer, true, 0.0);
+        for (String method : List.of("GET", "PUT")) {
+            filter.doFilter(new MockHttpServletRequest(method, "/blogposts/1"), new MockHttpServletResponse(), new MockFilterChain());
+        }
+        final MockHttpServletResponse notFound = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/blogposts/2"), notFound,
+            (request, response) -> ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_NOT_FOUND));
+        buffer.close();
+
+        assertThat(lines()).hasSize(2);
+        assertThat(lines().get(0)).contains("\"method\":\"PUT\"");
+        assertThat(lines().get(1)).contains("\"path\":\"/blogposts/2\"", "\"status\":404");
+    }
+}
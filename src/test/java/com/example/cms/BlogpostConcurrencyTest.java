@@ -0,0 +1,191 @@
+package com.example.cms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.cms.dto.CategoryRequest;
+import com.example.cms.dto.PostRequest;
+import com.example.cms.dto.PostResponse;
+import com.example.cms.dto.StatusRequest;
+import com.example.cms.model.Blogpost;
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.model.Status;
+import com.example.cms.repository.BlogpostRepository;
+import com.example.cms.repository.BlogpostVersionRepository;
+import com.example.cms.service.BlogpostService;
+import com.example.cms.service.CategoryService;
+import com.example.cms.service.ServiceResult;
+import com.example.cms.util.IfMatch;
+
+@SpringBootTest
+public class BlogpostConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 300;
+
+    @Autowired
+    private BlogpostService blogpostService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private BlogpostRepository blogpostRepository;
+
+    @Autowired
+    private BlogpostVersionRepository versionRepository;
+
+    @Test
+    void testConcurrentCreateUpdateRollback_keepsInvariants() throws Exception {
+        final Set<Long> createdIds = ConcurrentHashMap.newKeySet();
+        final List<Long> sharedIds = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < THREADS; i++) {
+            Long id = blogpostService.createBlogpost(request("Shared " + i)).getData().blogpostId();
+            createdIds.add(id);
+            sharedIds.add(id);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                final ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    final Long target = sharedIds.get(random.nextInt(sharedIds.size()));
+                    switch (random.nextInt(5)) {
+                        case 0 -> {
+                            final ServiceResult<PostResponse> created = blogpostService.createBlogpost(request("New " + i));
+                            assertThat(createdIds.add(created.getData().blogpostId())).isTrue();
+                        }
+                        case 1 -> blogpostService.updateBlogpost(target, request("Updated " + i));
+                        case 2 -> blogpostService.patchBlogpost(target, new PostRequest(null, null, "Patched " + i, null));
+                        case 3 -> blogpostService.updateStatus(target, new StatusRequest(Status.PUBLISHED));
+                        default -> blogpostService.rollbackBlogpost(target, 1 + random.nextInt(3));
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        final Set<Long> allVersionIds = new HashSet<>();
+        for (Long id : createdIds) {
+            final Blogpost post = blogpostRepository.findById(id).orElseThrow();
+            final List<BlogpostVersion> versions = versionRepository.findByBlogpostId(id);
+            final List<Integer> numbers = versions.stream().map(BlogpostVersion::getVersionNumber).sorted().toList();
+
+            // version numbers are unique and contiguous, and the blogpost knows about exactly these versions
+            assertThat(numbers).isEqualTo(IntStream.rangeClosed(1, versions.size()).boxed().toList());
+            assertThat(new HashSet<>(post.getVersionIds()))
+                .isEqualTo(versions.stream().map(BlogpostVersion::getId).collect(Collectors.toSet()));
+            assertThat(post.getVersionIds()).hasSize(versions.size());
+            assertThat(post.getVersionIds()).contains(post.getCurrentVersion());
+            // at most one published version per blogpost
+            assertThat(versions.stream().filter(v -> v.getStatus() == Status.PUBLISHED).count()).isLessThanOrEqualTo(1);
+            for (BlogpostVersion version : versions) {
+                assertThat(allVersionIds.add(version.getId())).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void testConcurrentConditionalUpdates_exactlyOneWinsPerVersion() throws Exception {
+        final Long id = blogpostService.createBlogpost(request("Conditional")).getData().blogpostId();
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<ServiceResult<PostResponse>>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final String title = "Editor " + t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                return blogpostService.updateBlogpost(id, request(title), IfMatch.parse("\"1\"").orElseThrow());
+            }));
+        }
+        start.countDown();
+        final List<ServiceResult.Status> outcomes = new ArrayList<>();
+        for (Future<ServiceResult<PostResponse>> future : futures) {
+            outcomes.add(future.get().getStatus());
+        }
+        executor.shutdown();
+
+        assertThat(outcomes).containsOnlyOnce(ServiceResult.Status.OK);
+        assertThat(outcomes.stream().filter(status -> status == ServiceResult.Status.PRECONDITION_FAILED)).hasSize(THREADS - 1);
+        assertThat(versionRepository.findByBlogpostId(id)).extracting(BlogpostVersion::getVersionNumber).containsExactly(1, 2);
+    }
+
+    @Test
+    void testConcurrentCategoryCreation_uniqueIds() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final List<Future<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS * 50; i++) {
+            final String name = "Category " + i;
+            futures.add(executor.submit(() -> categoryService.createCategory(new CategoryRequest(name, null)).getData().id()));
+        }
+        final Set<Long> ids = new HashSet<>();
+        for (Future<Long> future : futures) {
+            assertThat(ids.add(future.get())).isTrue();
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void testWritesRacingCategoryDelete_leaveNoReferenceToTheDeletedCategory() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final Long id = blogpostService.createBlogpost(request("Umkategorisiert")).getData().blogpostId();
+        final Long rolledBack = blogpostService.createBlogpost(request("Zurückgesetzt")).getData().blogpostId();
+        for (int round = 0; round < 200; round++) {
+            final Long categoryId = categoryService.createCategory(new CategoryRequest("Kurzlebig " + round, null)).getData().id();
+            // version 2 of the second post references the category, version 3 does not; the rollback brings version 2 back
+            blogpostService.updateBlogpost(rolledBack, new PostRequest("Zurückgesetzt", "Frau Müller", "Inhalt", List.of(categoryId)));
+            blogpostService.updateBlogpost(rolledBack, request("Zurückgesetzt"));
+            final int rollbackTo = versionRepository.findMaxVersionNumber(rolledBack) - 1;
+            final List<Long> categories = List.of(categoryId);
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<?>> futures = List.of(
+                executor.submit(() -> { start.await(); return blogpostService.updateBlogpost(id, new PostRequest("Titel", "Frau Müller", "Inhalt", categories)); }),
+                executor.submit(() -> { start.await(); return blogpostService.createBlogpost(new PostRequest("Neu", "Frau Müller", "Inhalt", categories)); }),
+                executor.submit(() -> { start.await(); return blogpostService.rollbackBlogpost(rolledBack, rollbackTo); }),
+                executor.submit(() -> { start.await(); return categoryService.deleteCategory(categoryId); }));
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            // whichever ran first, the deleted category is gone from every version and from the category index
+            assertThat(versionRepository.findIdsByCategory(categoryId)).as("round %d", round).isEmpty();
+            assertThat(blogpostService.getBlogpostsByCategory(List.of(categoryId))).as("round %d", round).isEmpty();
+            for (Long blogpostId : List.of(id, rolledBack)) {
+                final Blogpost post = blogpostRepository.findById(blogpostId).get();
+                assertThat(versionRepository.findById(post.getCurrentVersion()).get().getCategories()).doesNotContain(categoryId);
+            }
+        }
+        executor.shutdown();
+    }
+
+    private PostRequest request(final String title) {
+        return new PostRequest(title, "Frau Müller", "Inhalt", new ArrayList<>());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.cms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import com.example.cms.dto.CategoryRequest;
+import com.example.cms.dto.CategoryResponse;
+import com.example.cms.dto.ImportResponse;
+import com.example.cms.dto.PostResponse;
+import com.example.cms.model.Status;
+
+// small batches, so a single import spans several of them (and its own context, so imported posts stay out of the other tests)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "cms.import.batch-size=2")
+public class BlogpostImportIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private ResponseEntity<ImportResponse> importNdjson(final String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+        return restTemplate.postForEntity("/blogposts/import", new HttpEntity<>(body, headers), ImportResponse.class);
+    }
+
+    @Test
+    void testImportBlogposts_rejectedLinesReported() {
+        Long categoryId = restTemplate.postForEntity("/categories", new CategoryRequest("Import", null), CategoryResponse.class).getBody().id();
+        String ndjson = String.join("\n",
+            "{\"versions\":[{\"title\":\"Alt\",\"author\":\"Frau Müller\",\"content\":\"Erste Fassung\",\"status\":\"ARCHIVED\"},"
+                + "{\"title\":\"Neu\",\"author\":\"Frau Müller\",\"content\":\"Zweite Fassung\",\"status\":\"PUBLISHED\",\"categoryIds\":[" + categoryId + "]}]}",
+            "{\"versions\":[{\"title\":\"Ohne Kategorie\",\"author\":\"Herr Meier\",\"content\":\"Inhalt\",\"categoryIds\":[999999]}]}",
+            "kein JSON",
+            "",
+            "{\"currentVersion\":1,\"versions\":[{\"versionNumber\":2,\"title\":\"B\",\"author\":\"A\",\"content\":\"Zwei\"},"
+                + "{\"versionNumber\":1,\"title\":\"B\",\"author\":\"A\",\"content\":\"Eins\"}]}",
+            "{\"versions\":[]}",
+            "{\"versions\":[{\"title\":\"Drei\",\"author\":\"A\",\"content\":\"Drei\"}]}");
+
+        ResponseEntity<ImportResponse> response = importNdjson(ndjson);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().imported()).isEqualTo(3);
+        assertThat(response.getBody().importedVersions()).isEqualTo(5);
+        assertThat(response.getBody().failed()).isEqualTo(3);
+        assertThat(response.getBody().errors()).extracting(error -> error.line()).containsExactly(2L, 3L, 6L);
+    }
+
+    @Test
+    void testImportBlogpost_versionsAndCurrentVersionKept() {
+        String ndjson = "{\"currentVersion\":1,\"versions\":["
+            + "{\"versionNumber\":2,\"title\":\"Titel\",\"author\":\"Herr Meier\",\"content\":\"Zweite Fassung\"},"
+            + "{\"versionNumber\":1,\"title\":\"Titel\",\"author\":\"Herr Meier\",\"content\":\"Erste Fassung\",\"status\":\"PUBLISHED\"}]}\n";
+        assertThat(importNdjson(ndjson).getBody().imported()).isEqualTo(1);
+
+        ResponseEntity<String> export = restTemplate.getForEntity("/blogposts/export", String.class);
+        String exported = export.getBody().lines().filter(line -> line.contains("Herr Meier")).findFirst().orElseThrow();
+        Long id = Long.valueOf(exported.replaceAll("^\\{\"blogpostId\":(\\d+),.*", "$1"));
+
+        ResponseEntity<PostResponse> current = restTemplate.getForEntity("/blogposts/{id}", PostResponse.class, id);
+        assertThat(current.getBody().versionNumber()).isEqualTo(1);
+        assertThat(current.getBody().content()).isEqualTo("Erste Fassung");
+        assertThat(current.getBody().status()).isEqualTo(Status.PUBLISHED);
+
+        ResponseEntity<List<PostResponse>> versions = restTemplate.exchange("/blogposts/{id}/versions", HttpMethod.GET, null,
+            new ParameterizedTypeReference<List<PostResponse>>() {}, id);
+        assertThat(versions.getBody()).extracting(PostResponse::content).containsExactly("Erste Fassung", "Zweite Fassung");
+    }
+
+    @Test
+    void testExportThenImport_sameHistory() {
+        String ndjson = "{\"versions\":[{\"title\":\"Rundreise\",\"author\":\"A\",\"content\":\"Eins\"},{\"title\":\"Rundreise\",\"author\":\"A\",\"content\":\"Zwei\"}]}\n";
+        importNdjson(ndjson);
+        String exported = restTemplate.getForEntity("/blogposts/export", String.class).getBody().lines()
+            .filter(line -> line.contains("Rundreise"))
+            .findFirst().orElseThrow();
+
+        ResponseEntity<ImportResponse> reimported = importNdjson(exported);
+
+        assertThat(reimported.getBody().imported()).isEqualTo(1);
+        assertThat(reimported.getBody().importedVersions()).isEqualTo(2);
+        assertThat(restTemplate.getForEntity("/blogposts/export", String.class).getBody().lines()
+            .filter(line -> line.contains("Rundreise"))
+            .map(line -> line.replaceAll("^\\{\"blogpostId\":\\d+,", ""))
+            .distinct()).hasSize(1);
+    }
+}
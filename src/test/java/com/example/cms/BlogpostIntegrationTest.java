@@ -4,20 +4,29 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 import com.example.cms.dto.CategoryRequest;
 import com.example.cms.dto.CategoryResponse;
+import com.example.cms.dto.PageResponse;
 import com.example.cms.dto.PostRequest;
 import com.example.cms.dto.PostResponse;
+import com.example.cms.dto.StatusRequest;
+import com.example.cms.dto.SuggestionResponse;
+import com.example.cms.model.Status;
+import com.example.cms.util.PageCursor;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 public class BlogpostIntegrationTest {
@@ -110,6 +119,275 @@ public class BlogpostIntegrationTest {
         assertThat(responseEmpty.getBody()).isNull();
     }
 
+    // GET
+
+    @Test
+    void testGetBlogpostWithMatchingETag_notModified() {
+        PostRequest createRequest = new PostRequest(title, author, content, emptyCategoryIds);
+        Long createdId = restTemplate.postForEntity("/blogposts", createRequest, PostResponse.class).getBody().blogpostId();
+        ResponseEntity<PostResponse> first = restTemplate.getForEntity("/blogposts/{id}", PostResponse.class, createdId);
+        String etag = first.getHeaders().getETag();
+        assertThat(etag).isNotNull();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        ResponseEntity<PostResponse> second = restTemplate.exchange("/blogposts/{id}", HttpMethod.GET, new HttpEntity<>(headers), PostResponse.class, createdId);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        PostRequest update = new PostRequest("Neuer Titel", author, content, emptyCategoryIds);
+        restTemplate.exchange("/blogposts/{id}", HttpMethod.PUT, new HttpEntity<>(update), PostResponse.class, createdId);
+        ResponseEntity<PostResponse> afterUpdate = restTemplate.exchange("/blogposts/{id}", HttpMethod.GET, new HttpEntity<>(headers), PostResponse.class, createdId);
+        assertThat(afterUpdate.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(afterUpdate.getBody().title()).isEqualTo("Neuer Titel");
+        assertThat(afterUpdate.getHeaders().getETag()).isNotEqualTo(etag);
+    }
+
+    @Test
+    void testGetBlogpostAfterStatusChange_notServedFromStaleCache() {
+        PostRequest createRequest = new PostRequest(title, author, content, emptyCategoryIds);
+        Long createdId = restTemplate.postForEntity("/blogposts", createRequest, PostResponse.class).getBody().blogpostId();
+        assertThat(restTemplate.getForEntity("/blogposts/{id}", PostResponse.class, createdId).getBody().status()).isEqualTo(Status.DRAFT);
+
+        restTemplate.exchange("/blogposts/{id}/status", HttpMethod.PUT, new HttpEntity<>(new StatusRequest(Status.PUBLISHED)), PostResponse.class, createdId);
+
+        assertThat(restTemplate.getForEntity("/blogposts/{id}", PostResponse.class, createdId).getBody().status()).isEqualTo(Status.PUBLISHED);
+    }
+
+    @Test
+    void testGetBlogpostsByStatus_publishedVersionStaysListedWhileEditing() {
+        PostRequest createRequest = new PostRequest(title, author, content, emptyCategoryIds);
+        Long createdId = restTemplate.postForEntity("/blogposts", createRequest, PostResponse.class).getBody().blogpostId();
+        restTemplate.exchange("/blogposts/{id}/status", HttpMethod.PUT, new HttpEntity<>(new StatusRequest(Status.PUBLISHED)), PostResponse.class, createdId);
+        restTemplate.exchange("/blogposts/{id}", HttpMethod.PUT, new HttpEntity<>(new PostRequest(title, author, "Neuer Entwurf", emptyCategoryIds)), PostResponse.class, createdId);
+
+        // version 1 stays public while version 2 is a draft
+        assertThat(listByStatus(Status.PUBLISHED, createdId)).extracting(PostResponse::versionNumber).containsExactly(1);
+        assertThat(listByStatus(Status.DRAFT, createdId)).extracting(PostResponse::versionNumber).containsExactly(2);
+
+        // publishing version 2 archives version 1
+        restTemplate.exchange("/blogposts/{id}/status", HttpMethod.PUT, new HttpEntity<>(new StatusRequest(Status.PUBLISHED)), PostResponse.class, createdId);
+        assertThat(listByStatus(Status.PUBLISHED, createdId)).extracting(PostResponse::versionNumber).containsExactly(2);
+        assertThat(listByStatus(Status.DRAFT, createdId)).isEmpty();
+        ResponseEntity<List<PostResponse>> versions = restTemplate.exchange("/blogposts/{id}/versions", HttpMethod.GET, null, new ParameterizedTypeReference<List<PostResponse>>() {}, createdId);
+        assertThat(versions.getBody()).extracting(PostResponse::status).containsExactly(Status.ARCHIVED, Status.PUBLISHED);
+
+        // rolling back unpublishes
+        restTemplate.exchange("/blogposts/{id}/rollback?version=1", HttpMethod.PUT, null, PostResponse.class, createdId);
+        assertThat(listByStatus(Status.PUBLISHED, createdId)).isEmpty();
+        assertThat(listByStatus(Status.DRAFT, createdId)).extracting(PostResponse::versionNumber).containsExactly(1);
+
+        ResponseEntity<PageResponse<PostResponse>> page = restTemplate.exchange("/blogposts?status=DRAFT&limit=1000", HttpMethod.GET, null, new ParameterizedTypeReference<PageResponse<PostResponse>>() {});
+        assertThat(page.getBody().items()).extracting(PostResponse::blogpostId).contains(createdId);
+        assertThat(restTemplate.getForEntity("/blogposts?status=VISIBLE", String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void testGetPublishedBlogpostsByCategory_filtersByPublishedVersion() {
+        Long categoryId = restTemplate.postForEntity("/categories", new CategoryRequest("Veröffentlicht-Filter", null), CategoryResponse.class).getBody().id();
+        // published without the category, a newer draft adds it
+        Long gainsCategory = restTemplate.postForEntity("/blogposts", new PostRequest(title, author, content, emptyCategoryIds), PostResponse.class).getBody().blogpostId();
+        restTemplate.exchange("/blogposts/{id}/status", HttpMethod.PUT, new HttpEntity<>(new StatusRequest(Status.PUBLISHED)), PostResponse.class, gainsCategory);
+        restTemplate.exchange("/blogposts/{id}", HttpMethod.PUT, new HttpEntity<>(new PostRequest(title, author, content, new ArrayList<>(List.of(categoryId)))), PostResponse.class, gainsCategory);
+        // published with the category, a newer draft removes it
+        Long losesCategory = restTemplate.postForEntity("/blogposts", new PostRequest(title, author, content, new ArrayList<>(List.of(categoryId))), PostResponse.class).getBody().blogpostId();
+        restTemplate.exchange("/blogposts/{id}/status", HttpMethod.PUT, new HttpEntity<>(new StatusRequest(Status.PUBLISHED)), PostResponse.class, losesCategory);
+        restTemplate.exchange("/blogposts/{id}", HttpMethod.PUT, new HttpEntity<>(new PostRequest(title, author, content, emptyCategoryIds)), PostResponse.class, losesCategory);
+
+        ResponseEntity<List<PostResponse>> list = restTemplate.exchange("/blogposts?status=PUBLISHED&categoryId={categoryId}", HttpMethod.GET, null, new ParameterizedTypeReference<List<PostResponse>>() {}, categoryId);
+        assertThat(list.getBody()).extracting(PostResponse::blogpostId).containsExactly(losesCategory);
+        assertThat(list.getBody()).extracting(PostResponse::versionNumber).containsExactly(1);
+        ResponseEntity<PageResponse<PostResponse>> page = restTemplate.exchange("/blogposts?status=PUBLISHED&categoryId={categoryId}&limit=10", HttpMethod.GET, null, new ParameterizedTypeReference<PageResponse<PostResponse>>() {}, categoryId);
+        assertThat(page.getBody().items()).extracting(PostResponse::blogpostId).containsExactly(losesCategory);
+        // the drafts are filtered by their own categories
+        ResponseEntity<List<PostResponse>> drafts = restTemplate.exchange("/blogposts?status=DRAFT&categoryId={categoryId}", HttpMethod.GET, null, new ParameterizedTypeReference<List<PostResponse>>() {}, categoryId);
+        assertThat(drafts.getBody()).extracting(PostResponse::blogpostId).containsExactly(gainsCategory);
+
+        restTemplate.delete("/blogposts/{id}", gainsCategory);
+        restTemplate.delete("/blogposts/{id}", losesCategory);
+        restTemplate.delete("/categories/{id}", categoryId);
+    }
+
+    @Test
+    void testGetBlogpostsAsNdjsonByStatus_onlyPublishedVersions() {
+        Long published = restTemplate.postForEntity("/blogposts", new PostRequest(title, author, content, emptyCategoryIds), PostResponse.class).getBody().blogpostId();
+        restTemplate.exchange("/blogposts/{id}/status", HttpMethod.PUT, new HttpEntity<>(new StatusRequest(Status.PUBLISHED)), PostResponse.class, published);
+        restTemplate.exchange("/blogposts/{id}", HttpMethod.PUT, new HttpEntity<>(new PostRequest(title, author, "Neuer Entwurf", emptyCategoryIds)), PostResponse.class, published);
+        Long draft = restTemplate.postForEntity("/blogposts", new PostRequest(title, author, content, emptyCategoryIds), PostResponse.class).getBody().blogpostId();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.parseMediaType("application/x-ndjson")));
+
+        ResponseEntity<String> response = restTemplate.exchange("/blogposts?status=PUBLISHED", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        List<String> lines = response.getBody().lines().toList();
+        assertThat(lines).allMatch(line -> line.contains("\"status\":\"PUBLISHED\""));
+        // the published version 1 is streamed, not the newer draft
+        assertThat(lines).anyMatch(line -> line.contains("\"blogpostId\":" + published + ",\"versionNumber\":1,"));
+        assertThat(lines).noneMatch(line -> line.contains("\"blogpostId\":" + draft + ","));
+        restTemplate.delete("/blogposts/{id}", published);
+        restTemplate.delete("/blogposts/{id}", draft);
+    }
+
+    private List<PostResponse> listByStatus(final Status status, final Long blogpostId) {
+        ResponseEntity<List<PostResponse>> response = restTemplate.exchange("/blogposts?status=" + status, HttpMethod.GET, null, new ParameterizedTypeReference<List<PostResponse>>() {});
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody().stream().filter(post -> post.blogpostId().equals(blogpostId)).toList();
+    }
+
+    @Test
+    void testGetBlogpostsPaged_walksAllPagesInIdOrder() {
+        List<Long> createdIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            PostRequest request = new PostRequest(title, author, content, emptyCategoryIds);
+            createdIds.add(restTemplate.postForEntity("/blogposts", request, PostResponse.class).getBody().blogpostId());
+        }
+
+        List<Long> seenIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            String url = cursor == null ? "/blogposts?limit=2" : "/blogposts?limit=2&cursor=" + cursor;
+            ResponseEntity<PageResponse<PostResponse>> page = restTemplate.exchange(url, HttpMethod.GET, null, new ParameterizedTypeReference<PageResponse<PostResponse>>() {});
+            assertThat(page.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(page.getBody().items().size()).isLessThanOrEqualTo(2);
+            page.getBody().items().forEach(post -> seenIds.add(post.blogpostId()));
+            cursor = page.getBody().next();
+        } while (cursor != null);
+
+        assertThat(seenIds).containsAll(createdIds);
+        assertThat(seenIds).isSorted();
+        assertThat(seenIds).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void testGetBlogpostsPagedAtCursorBoundary_rejectedOrEmptyInsteadOfWrappingAround() {
+        Long categoryId = restTemplate.postForEntity("/categories", new CategoryRequest("Grenzfall", null), CategoryResponse.class).getBody().id();
+        Long createdId = restTemplate.postForEntity("/blogposts", new PostRequest(title, author, content, List.of(categoryId)), PostResponse.class).getBody().blogpostId();
+
+        // afterId + 1 used to overflow and start over at the first page
+        for (String cursor : List.of(PageCursor.encode(Long.MAX_VALUE), PageCursor.encode(-1L))) {
+            assertThat(restTemplate.getForEntity("/blogposts?limit=2&cursor=" + cursor, String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+            assertThat(restTemplate.getForEntity("/blogposts?limit=2&categoryId=" + categoryId + "&cursor=" + cursor, String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        }
+        // past the largest id a bitmap can hold: an empty last page
+        ResponseEntity<PageResponse<PostResponse>> page = restTemplate.exchange("/blogposts?limit=2&categoryId=" + categoryId + "&cursor=" + PageCursor.encode((long) Integer.MAX_VALUE),
+            HttpMethod.GET, null, new ParameterizedTypeReference<PageResponse<PostResponse>>() {});
+        assertThat(page.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(page.getBody().items()).isEmpty();
+        assertThat(page.getBody().next()).isNull();
+
+        restTemplate.delete("/blogposts/{id}", createdId);
+        restTemplate.delete("/categories/{id}", categoryId);
+    }
+
+    @Test
+    void testGetBlogpostsWithSparseFields_onlyRequestedFieldsWritten() {
+        Long categoryId = restTemplate.postForEntity("/categories", new CategoryRequest("Übersicht", null), CategoryResponse.class).getBody().id();
+        Long createdId = restTemplate.postForEntity("/blogposts", new PostRequest(title, author, content, List.of(categoryId)), PostResponse.class).getBody().blogpostId();
+        restTemplate.exchange("/blogposts/{id}", HttpMethod.PUT, new HttpEntity<>(new PostRequest("Zweiter Titel", author, content, List.of(categoryId))), PostResponse.class, createdId);
+
+        ResponseEntity<List<Map<String, Object>>> summary = restTemplate.exchange("/blogposts?view=summary&categoryId=" + categoryId, HttpMethod.GET, null, new ParameterizedTypeReference<List<Map<String, Object>>>() {});
+        assertThat(summary.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(summary.getBody()).hasSize(1);
+        assertThat(summary.getBody().get(0)).containsOnlyKeys("blogpostId", "title", "status", "categories")
+            .containsEntry("title", "Zweiter Titel")
+            .containsEntry("status", "DRAFT")
+            .containsEntry("categories", List.of("Übersicht"));
+
+        ResponseEntity<List<Map<String, Object>>> versions = restTemplate.exchange("/blogposts/{id}/versions?fields=versionNumber, title", HttpMethod.GET, null, new ParameterizedTypeReference<List<Map<String, Object>>>() {}, createdId);
+        assertThat(versions.getBody()).containsExactly(Map.of("versionNumber", 1, "title", title), Map.of("versionNumber", 2, "title", "Zweiter Titel"));
+
+        // every field but categories is written exactly as in the full response
+        ResponseEntity<List<Map<String, Object>>> full = restTemplate.exchange("/blogposts/{id}/versions", HttpMethod.GET, null, new ParameterizedTypeReference<List<Map<String, Object>>>() {}, createdId);
+        ResponseEntity<List<Map<String, Object>>> allButCategories = restTemplate.exchange("/blogposts/{id}/versions?fields=blogpostId,versionNumber,title,author,content,createdAt,status", HttpMethod.GET, null, new ParameterizedTypeReference<List<Map<String, Object>>>() {}, createdId);
+        full.getBody().forEach(version -> version.remove("categories"));
+        assertThat(allButCategories.getBody()).isEqualTo(full.getBody());
+
+        ResponseEntity<String> page = restTemplate.getForEntity("/blogposts?limit=1000&fields=blogpostId", String.class);
+        assertThat(page.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(page.getBody()).contains("{\"blogpostId\":" + createdId + "}").doesNotContain("\"title\"");
+
+        assertThat(restTemplate.getForEntity("/blogposts?fields=title,body", String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(restTemplate.getForEntity("/blogposts?view=compact", String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(restTemplate.getForEntity("/blogposts?view=summary&fields=title", String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        // other tests rely on category ids that do not exist
+        restTemplate.delete("/categories/{id}", categoryId);
+    }
+
+    @Test
+    void testGetBlogpostsAsNdjson_oneRecordPerLine() {
+        PostRequest request = new PostRequest(title, author, content, emptyCategoryIds);
+        Long createdId = restTemplate.postForEntity("/blogposts", request, PostResponse.class).getBody().blogpostId();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.parseMediaType("application/x-ndjson")));
+        ResponseEntity<String> response = restTemplate.exchange("/blogposts", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().toString()).startsWith("application/x-ndjson");
+        assertThat(response.getBody()).endsWith("\n");
+        List<String> lines = response.getBody().lines().toList();
+        assertThat(lines).allMatch(line -> line.startsWith("{") && line.endsWith("}"));
+        assertThat(lines).anyMatch(line -> line.contains("\"blogpostId\":" + createdId + ","));
+    }
+
+    @Test
+    void testGetBlogpostsAsNdjsonByCategory_onlyPostsInCategory() {
+        Long categoryId = restTemplate.postForEntity("/categories", new CategoryRequest("NDJSON-Filter", null), CategoryResponse.class).getBody().id();
+        Long inCategory = restTemplate.postForEntity("/blogposts", new PostRequest(title, author, content, new ArrayList<>(List.of(categoryId))), PostResponse.class).getBody().blogpostId();
+        Long outside = restTemplate.postForEntity("/blogposts", new PostRequest(title, author, content, emptyCategoryIds), PostResponse.class).getBody().blogpostId();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.parseMediaType("application/x-ndjson")));
+
+        ResponseEntity<String> response = restTemplate.exchange("/blogposts?categoryId={categoryId}", HttpMethod.GET, new HttpEntity<>(headers), String.class, categoryId);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().lines().toList()).hasSize(1)
+            .allMatch(line -> line.contains("\"blogpostId\":" + inCategory + ","))
+            .noneMatch(line -> line.contains("\"blogpostId\":" + outside + ","));
+
+        restTemplate.delete("/blogposts/{id}", inCategory);
+        restTemplate.delete("/categories/{id}", categoryId);
+    }
+
+    @Test
+    void testGetBlogpostsWithoutAcceptPreference_stillJsonArray() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.ALL));
+        ResponseEntity<String> response = restTemplate.exchange("/blogposts", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().isCompatibleWith(MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(response.getBody()).startsWith("[");
+    }
+
+    @Test
+    void testGetVersionsAsNdjsonOfNonexistingBlogpost_notFound() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.parseMediaType("application/x-ndjson")));
+        ResponseEntity<String> response = restTemplate.exchange("/blogposts/{id}/versions", HttpMethod.GET, new HttpEntity<>(headers), String.class, 999999L);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void testGetBlogpostsPagedWithInvalidLimit_failure() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/blogposts?limit=0", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void testSuggestBlogposts_followsEditsNewestFirst() {
+        Long firstId = restTemplate.postForEntity("/blogposts", new PostRequest("Vorschlag Apfel", "Vorschlagautor", content, emptyCategoryIds), PostResponse.class).getBody().blogpostId();
+        restTemplate.postForEntity("/blogposts", new PostRequest("Vorschlag Birne", "Vorschlagautor", content, emptyCategoryIds), PostResponse.class);
+        restTemplate.exchange("/blogposts/{id}", HttpMethod.PUT, new HttpEntity<>(new PostRequest("Vorschlag Kirsche", "Vorschlagautor", content, emptyCategoryIds)), PostResponse.class, firstId);
+
+        ResponseEntity<List<SuggestionResponse>> titles = restTemplate.exchange("/blogposts/suggest?prefix=vorschlag", HttpMethod.GET, null, new ParameterizedTypeReference<List<SuggestionResponse>>() {});
+        assertThat(titles.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(titles.getBody()).extracting(SuggestionResponse::text).containsExactly("Vorschlag Kirsche", "Vorschlag Birne");
+
+        ResponseEntity<List<SuggestionResponse>> authors = restTemplate.exchange("/blogposts/suggest?prefix=VORSCHLAGA&field=author", HttpMethod.GET, null, new ParameterizedTypeReference<List<SuggestionResponse>>() {});
+        assertThat(authors.getBody()).extracting(SuggestionResponse::blogpostId).containsExactly(firstId);
+
+        assertThat(restTemplate.getForEntity("/blogposts/suggest?prefix=a&field=content", String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(restTemplate.getForEntity("/blogposts/suggest?prefix=a&limit=11", String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
     // PUT
 
     @Test
@@ -131,6 +409,64 @@ public class BlogpostIntegrationTest {
         assertThat(postAfterUpdate.getBody().versionNumber()).isEqualTo(2);
     }
 
+    @Test
+    void testUpdateBlogpostWithIfMatch_staleVersionRejected() {
+        PostRequest createRequest = new PostRequest(title, author, content, emptyCategoryIds);
+        Long createdId = restTemplate.postForEntity("/blogposts", createRequest, PostResponse.class).getBody().blogpostId();
+        PostRequest updateRequest = new PostRequest(title, author, "Neuer Inhalt", emptyCategoryIds);
+
+        ResponseEntity<PostResponse> first = restTemplate.exchange("/blogposts/{id}", HttpMethod.PUT, new HttpEntity<>(updateRequest, ifMatch("\"1\"")), PostResponse.class, createdId);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getBody().versionNumber()).isEqualTo(2);
+
+        // a second editor still working on version 1 loses
+        ResponseEntity<PostResponse> stale = restTemplate.exchange("/blogposts/{id}", HttpMethod.PUT, new HttpEntity<>(updateRequest, ifMatch("\"1\"")), PostResponse.class, createdId);
+        assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        ResponseEntity<PostResponse> stalePatch = restTemplate.exchange("/blogposts/{id}", HttpMethod.PATCH, new HttpEntity<>(new PostRequest(null, null, "Patch", null), ifMatch("\"1\"")), PostResponse.class, createdId);
+        assertThat(stalePatch.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(restTemplate.getForEntity("/blogposts/{id}", PostResponse.class, createdId).getBody().versionNumber()).isEqualTo(2);
+
+        ResponseEntity<PostResponse> patched = restTemplate.exchange("/blogposts/{id}", HttpMethod.PATCH, new HttpEntity<>(new PostRequest(null, null, "Patch", null), ifMatch("W/\"2\"")), PostResponse.class, createdId);
+        assertThat(patched.getBody().versionNumber()).isEqualTo(3);
+        ResponseEntity<PostResponse> any = restTemplate.exchange("/blogposts/{id}", HttpMethod.PUT, new HttpEntity<>(updateRequest, ifMatch("*")), PostResponse.class, createdId);
+        assertThat(any.getBody().versionNumber()).isEqualTo(4);
+    }
+
+    @Test
+    void testUpdateBlogpostWithIfMatchFromGet_roundTrip() {
+        PostRequest createRequest = new PostRequest(title, author, content, emptyCategoryIds);
+        Long createdId = restTemplate.postForEntity("/blogposts", createRequest, PostResponse.class).getBody().blogpostId();
+        String etag = restTemplate.getForEntity("/blogposts/{id}", PostResponse.class, createdId).getHeaders().getETag();
+        PostRequest updateRequest = new PostRequest(title, author, "Neuer Inhalt", emptyCategoryIds);
+
+        ResponseEntity<PostResponse> updated = restTemplate.exchange("/blogposts/{id}", HttpMethod.PUT, new HttpEntity<>(updateRequest, ifMatch(etag)), PostResponse.class, createdId);
+        assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(updated.getBody().versionNumber()).isEqualTo(2);
+        // the write hands out the ETag a GET of the new version returns
+        String updatedEtag = updated.getHeaders().getETag();
+        assertThat(updatedEtag).isNotNull().isNotEqualTo(etag);
+        assertThat(restTemplate.getForEntity("/blogposts/{id}", PostResponse.class, createdId).getHeaders().getETag()).isEqualTo(updatedEtag);
+
+        ResponseEntity<PostResponse> stale = restTemplate.exchange("/blogposts/{id}", HttpMethod.PUT, new HttpEntity<>(updateRequest, ifMatch(etag)), PostResponse.class, createdId);
+        assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        ResponseEntity<PostResponse> patched = restTemplate.exchange("/blogposts/{id}", HttpMethod.PATCH, new HttpEntity<>(new PostRequest(null, null, "Patch", null), ifMatch(updatedEtag)), PostResponse.class, createdId);
+        assertThat(patched.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(patched.getBody().versionNumber()).isEqualTo(3);
+        assertThat(patched.getHeaders().getETag()).isNotNull();
+
+        // a tag we never hand out is rejected rather than treated as a stale version
+        ResponseEntity<PostResponse> unknown = restTemplate.exchange("/blogposts/{id}", HttpMethod.PUT, new HttpEntity<>(updateRequest, ifMatch("\"d41d8cd98f00b204e9800998ecf8427e\"")), PostResponse.class, createdId);
+        assertThat(unknown.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(restTemplate.getForEntity("/blogposts/{id}", PostResponse.class, createdId).getBody().versionNumber()).isEqualTo(3);
+        restTemplate.delete("/blogposts/{id}", createdId);
+    }
+
+    private HttpHeaders ifMatch(final String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.IF_MATCH, value);
+        return headers;
+    }
+
     @Test
     void testUpdateBlogpostWithInvalidInput_failure() {
         PostRequest createRequest = new PostRequest(title, author, content, emptyCategoryIds);
@@ -144,6 +480,27 @@ public class BlogpostIntegrationTest {
         assertThat(postBeforeUpdate.getBody().title()).isEqualTo(title);
     }
 
+    @Test
+    void testUpdateBlogpostManyTimes_olderVersionsUnchanged() {
+        PostRequest createRequest = new PostRequest(title, author, content, emptyCategoryIds);
+        Long createdId = restTemplate.postForEntity("/blogposts", createRequest, PostResponse.class).getBody().blogpostId();
+        List<String> contents = new ArrayList<>(List.of(content));
+        // more edits than one snapshot interval, with a repeated body in between
+        for (int i = 1; i <= 20; i++) {
+            String next = i == 10 ? content : contents.get(contents.size() - 1) + " Absatz " + i + ".";
+            contents.add(next);
+            HttpEntity<PostRequest> entity = new HttpEntity<>(new PostRequest(title, author, next, emptyCategoryIds));
+            restTemplate.exchange("/blogposts/{id}", HttpMethod.PUT, entity, PostResponse.class, createdId);
+        }
+
+        ResponseEntity<List<PostResponse>> versions = restTemplate.exchange("/blogposts/{id}/versions", HttpMethod.GET, null,
+            new ParameterizedTypeReference<List<PostResponse>>() {}, createdId);
+        assertThat(versions.getBody()).extracting(PostResponse::content).isEqualTo(contents);
+
+        ResponseEntity<PostResponse> rolledBack = restTemplate.exchange("/blogposts/{id}/rollback?version=5", HttpMethod.PUT, null, PostResponse.class, createdId);
+        assertThat(rolledBack.getBody().content()).isEqualTo(contents.get(4));
+    }
+
 
     // DELETE
 
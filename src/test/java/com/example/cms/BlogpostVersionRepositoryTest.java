@@ -0,0 +1,102 @@
+package com.example.cms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.model.Status;
+import com.example.cms.repository.BlogpostVersionRepository;
+
+public class BlogpostVersionRepositoryTest {
+
+    // two shards: blogposts 1 and 3 share one, 2 has the other
+    private final BlogpostVersionRepository versions = new BlogpostVersionRepository(2);
+
+    private static BlogpostVersion version(final long blogpostId, final int versionNumber) {
+        BlogpostVersion version = new BlogpostVersion();
+        version.setBlogpostId(blogpostId);
+        version.setVersionNumber(versionNumber);
+        version.setTitle("Titel " + blogpostId);
+        version.setAuthor("Frau Müller");
+        version.setContent("Inhalt " + blogpostId + "." + versionNumber);
+        version.setStatus(Status.DRAFT);
+        version.setCategories(List.of());
+        return version;
+    }
+
+    @Test
+    void testFindByBlogpostId_orderedByVersionNumberNotById() {
+        final long first = versions.reserveIds(1L, 3);
+        for (int number = 1; number <= 3; number++) {
+            final BlogpostVersion version = version(1L, number);
+            // as when replaying the log: ids already assigned, here the later versions got the lower ones
+            version.setId(first + (long) (3 - number) * versions.shards());
+            versions.save(version);
+        }
+
+        assertThat(versions.findByBlogpostId(1L)).extracting(BlogpostVersion::getVersionNumber).containsExactly(1, 2, 3);
+        assertThat(versions.findByBlogpostId(1L)).extracting(BlogpostVersion::getId).isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(versions.streamByBlogpostId(1L).map(BlogpostVersion::getContent)).containsExactly("Inhalt 1.1", "Inhalt 1.2", "Inhalt 1.3");
+        assertThat(versions.findByBlogpostIdAndVersionNumber(1L, 2)).map(BlogpostVersion::getId).hasValue(first + versions.shards());
+        assertThat(versions.findMaxVersionNumber(1L)).isEqualTo(3);
+    }
+
+    @Test
+    void testFindByBlogpostId_interleavedWrites_eachBlogpostSeesOnlyItsOwn() {
+        for (int number = 1; number <= 4; number++) {
+            for (long blogpostId = 1; blogpostId <= 3; blogpostId++) {
+                versions.save(version(blogpostId, number));
+            }
+        }
+
+        for (long blogpostId = 1; blogpostId <= 3; blogpostId++) {
+            final long id = blogpostId;
+            assertThat(versions.findByBlogpostId(id)).allMatch(version -> version.getBlogpostId() == id)
+                .extracting(BlogpostVersion::getContent)
+                .containsExactly("Inhalt " + id + ".1", "Inhalt " + id + ".2", "Inhalt " + id + ".3", "Inhalt " + id + ".4");
+            assertThat(versions.findMaxVersionNumber(id)).isEqualTo(4);
+        }
+        assertThat(versions.findByBlogpostId(4L)).isEmpty();
+        assertThat(versions.streamByBlogpostId(4L)).isEmpty();
+        assertThat(versions.findByBlogpostIdAndVersionNumber(4L, 1)).isEmpty();
+        assertThat(versions.findByBlogpostIdAndVersionNumber(1L, 5)).isEmpty();
+        assertThat(versions.findMaxVersionNumber(4L)).isZero();
+    }
+
+    @Test
+    void testSaveAndDelete_keepTheIndexConsistent() {
+        final List<BlogpostVersion> saved = new ArrayList<>();
+        for (int number = 1; number <= 3; number++) {
+            saved.add(versions.save(version(1L, number)));
+            versions.save(version(2L, number));
+        }
+        // saving a stored version again (a status change) updates it in place
+        final BlogpostVersion second = saved.get(1);
+        second.setStatus(Status.PUBLISHED);
+        versions.save(second);
+        assertThat(versions.findByBlogpostId(1L)).extracting(BlogpostVersion::getStatus).containsExactly(Status.DRAFT, Status.PUBLISHED, Status.DRAFT);
+
+        // deleting a version leaves a gap, and version numbers are never reused
+        versions.deleteById(second.getId());
+        versions.deleteById(saved.get(2).getId());
+        assertThat(versions.findByBlogpostId(1L)).extracting(BlogpostVersion::getVersionNumber).containsExactly(1);
+        assertThat(versions.findByBlogpostIdAndVersionNumber(1L, 2)).isEmpty();
+        assertThat(versions.findById(second.getId())).isEmpty();
+        assertThat(versions.findMaxVersionNumber(1L)).isEqualTo(3);
+        versions.save(version(1L, 4));
+        assertThat(versions.streamByBlogpostId(1L).map(BlogpostVersion::getContent)).containsExactly("Inhalt 1.1", "Inhalt 1.4");
+
+        // deleting one blogpost's versions leaves the other's alone
+        versions.deleteByBlogpostId(1L);
+        assertThat(versions.findByBlogpostId(1L)).isEmpty();
+        assertThat(versions.findMaxVersionNumber(1L)).isZero();
+        assertThat(saved).allMatch(version -> versions.findById(version.getId()).isEmpty());
+        assertThat(versions.findByBlogpostId(2L)).extracting(BlogpostVersion::getContent).containsExactly("Inhalt 2.1", "Inhalt 2.2", "Inhalt 2.3");
+        assertThat(versions.count()).isEqualTo(3);
+    }
+}
@@ -84,6 +84,14 @@ public class CategoryIntegrationTest {
         assertThat(response.getBody()).isNull();
     }
 
+    // GET
+
+    @Test
+    void testGetCategoriesPagedWithInvalidCursor_badRequest() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/categories?limit=10&cursor=not-a-cursor", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
     // PUT
 
     @Test
@@ -101,6 +109,20 @@ public class CategoryIntegrationTest {
         assertThat(firstResponse.getBody().id()).isEqualTo(secondResponse.getBody().id());
     }
 
+    @Test
+    void testUpdateCategoryName_visibleInBlogpost() {
+        ResponseEntity<CategoryResponse> categoryResponse = restTemplate.postForEntity("/categories", new CategoryRequest("Tech", null), CategoryResponse.class);
+        Long categoryId = categoryResponse.getBody().id();
+        PostRequest blogpostRequest = new PostRequest("Ein Test", "Frau Müller", "Das ist der Inhalt des Testbeitrags", new ArrayList<>(List.of(categoryId)));
+        Long blogpostId = restTemplate.postForEntity("/blogposts", blogpostRequest, PostResponse.class).getBody().blogpostId();
+        assertThat(restTemplate.getForEntity("/blogposts/{id}", PostResponse.class, blogpostId).getBody().categories()).containsExactly("Tech");
+
+        HttpEntity<CategoryRequest> entity = new HttpEntity<>(new CategoryRequest("Technology", null));
+        restTemplate.exchange("/categories/{id}", HttpMethod.PUT, entity, CategoryResponse.class, categoryId);
+
+        assertThat(restTemplate.getForEntity("/blogposts/{id}", PostResponse.class, blogpostId).getBody().categories()).containsExactly("Technology");
+    }
+
     @Test 
     void testUpdateCategoryNameOfNonexistingCategory() {
         CategoryRequest updateRequest = new CategoryRequest("Technology", null);
@@ -164,6 +186,24 @@ public class CategoryIntegrationTest {
         assertThat(getBlogpostResponse.getBody().categories()).isEmpty();
     }
 
+    @Test
+    void testDeleteCategory_alsoDeleteInOlderVersions() {
+        Long categoryId = restTemplate.postForEntity("/categories", new CategoryRequest("Archiv", null), CategoryResponse.class).getBody().id();
+        Long blogpostId = restTemplate.postForEntity("/blogposts",
+            new PostRequest("Ein Test", "Frau Müller", "Erste Fassung", new ArrayList<>(List.of(categoryId))), PostResponse.class).getBody().blogpostId();
+        restTemplate.exchange("/blogposts/{id}", HttpMethod.PUT,
+            new HttpEntity<>(new PostRequest("Ein Test", "Frau Müller", "Zweite Fassung", new ArrayList<>())), PostResponse.class, blogpostId);
+
+        ResponseEntity<Void> deleteResponse = restTemplate.exchange("/categories/{id}/safe", HttpMethod.DELETE, null, Void.class, categoryId);
+        ResponseEntity<PostResponse> rollbackResponse = restTemplate.exchange("/blogposts/{id}/rollback?version=1", HttpMethod.PUT, null,
+            PostResponse.class, blogpostId);
+
+        assertThat(deleteResponse.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(rollbackResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(rollbackResponse.getBody().content()).isEqualTo("Erste Fassung");
+        assertThat(rollbackResponse.getBody().categories()).isEmpty();
+    }
+
     @Test
     void testSafelyDeleteCategoryWithReferenceInBlogpost() {
         CategoryRequest request = new CategoryRequest("Tech", "Tech news");
@@ -0,0 +1,137 @@
+package com.example.cms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.cms.dto.ChangePage;
+import com.example.cms.dto.PostRequest;
+import com.example.cms.dto.PostResponse;
+import com.example.cms.dto.StatusRequest;
+import com.example.cms.model.Change;
+import com.example.cms.model.Status;
+import com.example.cms.repository.ChangeLog;
+import com.example.cms.service.ChangeService;
+import com.example.cms.service.ServiceResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ChangeFeedIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void testGetChanges_catchUpInWriteOrder() {
+        final long since = restTemplate.getForObject("/changes", ChangePage.class).next();
+
+        final Long id = restTemplate.postForObject("/blogposts", new PostRequest("Feed", "Autor", "Eins", List.of()), PostResponse.class).blogpostId();
+        restTemplate.exchange("/blogposts/{id}", HttpMethod.PATCH, new HttpEntity<>(new PostRequest(null, null, "Zwei", null)), PostResponse.class, id);
+        restTemplate.put("/blogposts/{id}/status", new StatusRequest(Status.PUBLISHED), id);
+        restTemplate.delete("/blogposts/{id}", id);
+
+        final ResponseEntity<ChangePage> first = restTemplate.getForEntity("/changes?since={since}&limit=2", ChangePage.class, since);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        final List<Change> changes = new ArrayList<>(first.getBody().changes());
+        final ChangePage rest = restTemplate.getForObject("/changes?since={since}", ChangePage.class, first.getBody().next());
+        changes.addAll(rest.changes());
+
+        assertThat(changes).extracting(Change::type).containsExactly(
+            Change.Type.CREATED, Change.Type.PATCHED, Change.Type.STATUS_CHANGED, Change.Type.DELETED);
+        assertThat(changes).allMatch(change -> change.entity() == Change.Entity.BLOGPOST && change.id() == id);
+        assertThat(changes).extracting(Change::versionNumber).containsExactly(1, 2, 2, null);
+        assertThat(changes.get(0).seq()).isEqualTo(since + 1);
+        assertThat(rest.next()).isEqualTo(changes.get(3).seq());
+        // caught up
+        assertThat(restTemplate.getForObject("/changes?since={since}", ChangePage.class, rest.next()).changes()).isEmpty();
+    }
+
+    @Test
+    void testGetChanges_positionNoLongerRetained_gone() {
+        assertThat(restTemplate.getForEntity("/changes?since=0", String.class).getStatusCode()).isEqualTo(HttpStatus.GONE);
+        assertThat(restTemplate.getForEntity("/changes?since=0&limit=0", String.class).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void testStreamChanges_replaysFromSince() throws IOException {
+        final long since = restTemplate.getForObject("/changes", ChangePage.class).next();
+        final Long id = restTemplate.postForObject("/blogposts", new PostRequest("Strom", "Autor", "Eins", List.of()), PostResponse.class).blogpostId();
+
+        // a plain connection: the stream never ends, and closing it through the rest template would try to drain it
+        final HttpURLConnection connection = (HttpURLConnection) URI.create(restTemplate.getRootUri() + "/changes?since=" + since).toURL().openConnection();
+        connection.setRequestProperty("Accept", MediaType.TEXT_EVENT_STREAM_VALUE);
+        connection.setReadTimeout(10_000);
+        final List<String> lines = new ArrayList<>();
+        try {
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+            // one event: id, event name, data
+            for (String line = reader.readLine(); line != null && lines.size() < 3; line = reader.readLine()) {
+                if (!line.isEmpty()) {
+                    lines.add(line);
+                }
+            }
+        } finally {
+            connection.disconnect();
+        }
+
+        assertThat(lines.get(0)).isEqualTo("id:" + (since + 1));
+        assertThat(lines.get(1)).isEqualTo("event:change");
+        assertThat(lines.get(2)).contains("\"type\":\"CREATED\"").contains("\"id\":" + id);
+        restTemplate.delete("/blogposts/{id}", id);
+    }
+
+    @Test
+    void testSubscribe_concurrently_neverMoreThanTheCap() throws Exception {
+        final ChangeService service = new ChangeService(new ChangeLog(100), new SimpleMeterRegistry(), 2);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Optional<ServiceResult<SseEmitter>>>> attempts = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    return service.trySubscribe(null);
+                }));
+            }
+            start.countDown();
+            int subscribed = 0;
+            for (Future<Optional<ServiceResult<SseEmitter>>> attempt : attempts) {
+                subscribed += attempt.get().isPresent() ? 1 : 0;
+            }
+            assertThat(subscribed).isEqualTo(2);
+        } finally {
+            executor.shutdownNow();
+        }
+        // a refused position and closed streams give their slots back
+        service.close();
+        assertThat(service.trySubscribe(99L)).hasValueSatisfying(result -> assertThat(result.getStatus()).isEqualTo(ServiceResult.Status.NOT_FOUND));
+        assertThat(service.trySubscribe(null)).isPresent();
+        assertThat(service.trySubscribe(null)).isPresent();
+        assertThat(service.trySubscribe(null)).isEmpty();
+        service.close();
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.cms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.model.Status;
+import com.example.cms.model.VersionText;
+import com.example.cms.persistence.ColdTier;
+import com.example.cms.repository.BlogpostRepository;
+import com.example.cms.repository.BlogpostVersionRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ColdTierTest {
+
+    @TempDir
+    Path directory;
+
+    private final BlogpostVersionRepository versions = new BlogpostVersionRepository();
+    private ColdTier coldTier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // small segments, so the history below spans several of them
+        coldTier = new ColdTier(new BlogpostRepository(), versions, new SimpleMeterRegistry(), directory.toString(), Duration.ofDays(1), 60_000, 4096);
+        coldTier.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        coldTier.close();
+    }
+
+    private BlogpostVersion save(final long blogpostId, final int versionNumber, final String content, final Status status, final LocalDateTime createdAt) {
+        BlogpostVersion version = new BlogpostVersion();
+        version.setBlogpostId(blogpostId);
+        version.setVersionNumber(versionNumber);
+        version.setTitle("Titel");
+        version.setAuthor("Frau Müller");
+        version.setContent(content);
+        version.setStatus(status);
+        version.setCategories(List.of());
+        version.setCreatedAt(createdAt);
+        return versions.save(version);
+    }
+
+    @Test
+    void testSweep_movesOldArchivedVersionsAndReadsThemBack() {
+        final SplittableRandom random = new SplittableRandom(3);
+        final LocalDateTime old = LocalDateTime.now().minusDays(2);
+        final List<BlogpostVersion> saved = new ArrayList<>();
+        final List<String> contents = new ArrayList<>();
+        StringBuilder text = new StringBuilder("Größe und Übermaß: ");
+        for (int versionNumber = 1; versionNumber <= 40; versionNumber++) {
+            // small edits become diffs against the next version, so cold bodies are also the base of warm diffs
+            text.append("Satz ").append(random.nextInt(1_000_000)).append(" über Äpfel. ");
+            contents.add(text.toString());
+            saved.add(save(1L, versionNumber, text.toString(), versionNumber < 40 ? Status.ARCHIVED : Status.DRAFT, old));
+        }
+        BlogpostVersion recent = save(2L, 1, "Neu archiviert", Status.ARCHIVED, LocalDateTime.now());
+        save(2L, 2, "Aktuell", Status.DRAFT, LocalDateTime.now());
+
+        assertThat(coldTier.sweep()).isEqualTo(39);
+        assertThat(coldTier.sweep()).isZero();
+
+        assertThat(saved.subList(0, 39)).allMatch(version -> version.getBody() instanceof VersionText.Cold);
+        // the latest version and everything too young or not archived stays
+        assertThat(saved.get(39).getBody()).isInstanceOf(VersionText.Snapshot.class);
+        assertThat(recent.getBody()).isInstanceOf(VersionText.Snapshot.class);
+        assertThat(versions.findByBlogpostId(1L)).extracting(BlogpostVersion::getContent).containsExactlyElementsOf(contents);
+    }
+
+    @Test
+    void testRollbackToColdVersion_bringsBodyBackToHeap() {
+        final LocalDateTime old = LocalDateTime.now().minusDays(2);
+        BlogpostVersion first = save(1L, 1, "Erste Fassung", Status.ARCHIVED, old);
+        BlogpostVersion second = save(1L, 2, "Zweite Fassung", Status.DRAFT, old);
+        coldTier.sweep();
+        assertThat(first.getBody()).isInstanceOf(VersionText.Cold.class);
+
+        // what BlogpostService.rollbackBlogpost saves
+        first.setStatus(Status.DRAFT);
+        second.setStatus(Status.ARCHIVED);
+        versions.save(second);
+        versions.save(first);
+
+        assertThat(first.getBody()).isInstanceOf(VersionText.Snapshot.class);
+        assertThat(first.getContent()).isEqualTo("Erste Fassung");
+        // still the latest version, so it stays on the heap although it is archived now
+        coldTier.sweep();
+        assertThat(second.getBody()).isNotInstanceOf(VersionText.Cold.class);
+    }
+}
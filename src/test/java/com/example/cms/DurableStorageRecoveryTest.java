@@ -0,0 +1,192 @@
+package com.example.cms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.cms.model.Blogpost;
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.model.Category;
+import com.example.cms.model.Status;
+import com.example.cms.persistence.DurabilityMode;
+import com.example.cms.persistence.DurableStorage;
+import com.example.cms.repository.BlogpostRepository;
+import com.example.cms.repository.BlogpostVersionRepository;
+import com.example.cms.repository.CategoryIndex;
+import com.example.cms.repository.CategoryRepository;
+import com.example.cms.repository.StatusIndex;
+
+public class DurableStorageRecoveryTest {
+
+    @TempDir
+    Path directory;
+
+    // fresh repositories opened on a data directory, as on application startup
+    private record Store(BlogpostRepository blogposts, BlogpostVersionRepository versions, CategoryRepository categories,
+                         CategoryIndex categoryIndex, StatusIndex statusIndex, DurableStorage storage) {
+
+        static Store open(final Path directory, final DurabilityMode durability, final long segmentBytes, final long snapshotInterval) throws IOException {
+            return open(directory, durability, segmentBytes, snapshotInterval, 1);
+        }
+
+        static Store open(final Path directory, final DurabilityMode durability, final long segmentBytes, final long snapshotInterval,
+                          final int shards) throws IOException {
+            final BlogpostRepository blogposts = new BlogpostRepository(shards, 1);
+            final Store store = new Store(blogposts, new BlogpostVersionRepository(shards), new CategoryRepository(), new CategoryIndex(), new StatusIndex(blogposts), null);
+            final DurableStorage storage = new DurableStorage(store.blogposts(), store.versions(), store.categories(), List.of(store.categoryIndex(), store.statusIndex()),
+                directory.toString(), durability, segmentBytes, snapshotInterval, 50, false);
+            storage.start();
+            return new Store(store.blogposts(), store.versions(), store.categories(), store.categoryIndex(), store.statusIndex(), storage);
+        }
+
+        // the same writes BlogpostService.createBlogpost makes
+        Long createBlogpost(final String content, final List<Long> categoryIds) {
+            final Blogpost blogpost = new Blogpost();
+            blogpost.setId(blogposts.nextId());
+            final BlogpostVersion version = new BlogpostVersion();
+            version.setBlogpostId(blogpost.getId());
+            version.setVersionNumber(1);
+            version.setTitle("Titel " + blogpost.getId());
+            version.setAuthor("Frau Müller");
+            version.setContent(content);
+            version.setStatus(Status.DRAFT);
+            version.setCategories(List.copyOf(categoryIds));
+            version.setCreatedAt(LocalDateTime.now());
+            versions.save(version);
+            blogpost.setCurrentVersion(version.getId());
+            blogpost.addVersionId(version.getId());
+            blogposts.save(blogpost);
+            return blogpost.getId();
+        }
+    }
+
+    // Runs in a separate JVM: writes blogposts until it is killed, printing each id once its records are durable
+    public static class CrashingWriter {
+        public static void main(final String[] args) throws IOException {
+            final Store store = Store.open(Path.of(args[0]), DurabilityMode.FSYNC_PER_WRITE, 16 * 1024, 200);
+            for (int i = 0; ; i++) {
+                System.out.println("ack " + store.createBlogpost("Inhalt " + i + " ".repeat(i % 500), List.of()));
+                System.out.flush();
+            }
+        }
+    }
+
+    @Test
+    void testWriterKilledMidSegment_everyAcknowledgedWriteRecovered() throws Exception {
+        final Process writer = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), CrashingWriter.class.getName(), directory.toString())
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        final List<Long> acknowledged = new ArrayList<>();
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(writer.getInputStream()))) {
+            String line;
+            while (acknowledged.size() < 1000 && (line = out.readLine()) != null) {
+                // anything else on stdout is log output
+                if (line.startsWith("ack ")) {
+                    acknowledged.add(Long.parseLong(line.substring(4)));
+                }
+            }
+            // SIGKILL: no shutdown hooks, no final snapshot, possibly in the middle of a record
+            writer.destroyForcibly().waitFor();
+        }
+        assertThat(acknowledged).hasSize(1000);
+
+        final Store recovered = Store.open(directory, DurabilityMode.FSYNC_PER_WRITE, 16 * 1024, 200);
+        for (Long id : acknowledged) {
+            final Blogpost blogpost = recovered.blogposts().findById(id).orElseThrow();
+            final BlogpostVersion current = recovered.versions().findById(blogpost.getCurrentVersion()).orElseThrow();
+            assertThat(current.getBlogpostId()).isEqualTo(id);
+            assertThat(current.getTitle()).isEqualTo("Titel " + id);
+        }
+        // ids are never handed out twice, even for writes that were lost
+        assertThat(recovered.createBlogpost("Nach dem Absturz", List.of())).isGreaterThan(acknowledged.get(acknowledged.size() - 1));
+        recovered.storage().close();
+    }
+
+    @Test
+    void testSegmentCutMidRecord_tornTailDroppedAndLogUsableAgain() throws Exception {
+        final Store store = Store.open(directory, DurabilityMode.BATCHED, 1 << 20, 1_000_000);
+        final Long categoryId = store.categories().save(new Category(null, "Tech", null)).getId();
+        final List<Long> ids = new ArrayList<>();
+        ids.add(store.createBlogpost("Inhalt 0", List.of(categoryId)));
+        final BlogpostVersion published = store.versions().findById(store.blogposts().findById(ids.get(0)).orElseThrow().getCurrentVersion()).orElseThrow();
+        published.setStatus(Status.PUBLISHED);
+        store.versions().save(published);
+        for (int i = 1; i < 50; i++) {
+            ids.add(store.createBlogpost("Inhalt " + i, List.of(categoryId)));
+        }
+        // crash without close(): cut the last record (the save of the last blogpost) in half
+        final Path segment = segments().get(segments().size() - 1);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+
+        final Store recovered = Store.open(directory, DurabilityMode.BATCHED, 1 << 20, 1_000_000);
+        final Long torn = ids.remove(ids.size() - 1);
+        assertThat(recovered.blogposts().findById(torn)).isEmpty();
+        for (Long id : ids) {
+            assertThat(recovered.blogposts().findById(id)).isPresent();
+        }
+        // derived indexes are rebuilt from the restored state
+        assertThat(recovered.categoryIndex().findBlogpostIds(List.of(categoryId)).getCardinality()).isEqualTo(ids.size());
+        assertThat(recovered.blogposts().findById(ids.get(0)).orElseThrow().getPublishedVersion()).isEqualTo(published.getId());
+        assertThat(recovered.statusIndex().countBlogposts(Status.PUBLISHED)).isEqualTo(1);
+        assertThat(recovered.statusIndex().countBlogposts(Status.DRAFT)).isEqualTo(ids.size() - 1);
+
+        // the log accepts writes after the cut, and a clean restart (snapshot, empty log tail) sees them
+        final Long afterRecovery = recovered.createBlogpost("Nach der Wiederherstellung", List.of());
+        recovered.storage().close();
+        final Store restarted = Store.open(directory, DurabilityMode.BATCHED, 1 << 20, 1_000_000);
+        assertThat(restarted.blogposts().findById(afterRecovery)).isPresent();
+        assertThat(restarted.blogposts().findAll()).hasSize(ids.size() + 1);
+        restarted.storage().close();
+    }
+
+    @Test
+    void testDifferentShardCount_refusedForLogAndSnapshot() throws Exception {
+        final Store store = Store.open(directory, DurabilityMode.BATCHED, 1 << 20, 1_000_000, 4);
+        final List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(store.createBlogpost("Inhalt " + i, List.of()));
+        }
+        // version ids are placed by the shard count, so neither the log nor the snapshot may be read with another one
+        assertThatThrownBy(() -> Store.open(directory, DurabilityMode.BATCHED, 1 << 20, 1_000_000, 2))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("written with 4 shards");
+        store.storage().close();
+        assertThatThrownBy(() -> Store.open(directory, DurabilityMode.BATCHED, 1 << 20, 1_000_000, 2))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("Snapshot")
+            .hasMessageContaining("cms.repository.shards=4");
+
+        final Store restarted = Store.open(directory, DurabilityMode.BATCHED, 1 << 20, 1_000_000, 4);
+        for (Long id : ids) {
+            final Blogpost blogpost = restarted.blogposts().findById(id).orElseThrow();
+            assertThat(restarted.versions().findByBlogpostId(id)).extracting(BlogpostVersion::getId).containsExactly(blogpost.getCurrentVersion());
+        }
+        restarted.storage().close();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("wal-"))
+                .sorted(Comparator.comparing(path -> path.getFileName().toString()))
+                .toList();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.cms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.cms.util.IdTable;
+import com.example.cms.util.LongList;
+
+public class IdTableTest {
+
+    private final IdTable<String> table = new IdTable<>();
+
+    @Test
+    void testIdTable_putGetRemove_acrossChunks() {
+        assertThat(table.put(1L, "a")).isNull();
+        assertThat(table.put(5_000L, "b")).isNull();
+        assertThat(table.put(1_000_000L, "c")).isNull();
+        assertThat(table.put(1L, "a2")).isEqualTo("a");
+
+        assertThat(table.get(1L)).isEqualTo("a2");
+        assertThat(table.get(2L)).isNull();
+        assertThat(table.get(-1L)).isNull();
+        assertThat(table.get(Long.MAX_VALUE)).isNull();
+        assertThat(table.size()).isEqualTo(3);
+
+        assertThat(table.remove(5_000L)).isEqualTo("b");
+        assertThat(table.remove(5_000L)).isNull();
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.computeIfAbsent(7L, id -> "g" + id)).isEqualTo("g7");
+        assertThat(table.computeIfAbsent(7L, id -> "other")).isEqualTo("g7");
+    }
+
+    @Test
+    void testIdTable_valuesInIdOrder() {
+        for (long id : new long[] {9_000, 3, 70_000, 4_096, 4_095}) {
+            table.put(id, "v" + id);
+        }
+
+        assertThat(table.values().toList()).containsExactly("v3", "v4095", "v4096", "v9000", "v70000");
+        assertThat(table.valuesAfter(4_095).limit(2).toList()).containsExactly("v4096", "v9000");
+        assertThat(table.valuesAfter(70_000).toList()).isEmpty();
+        // the cursor boundaries: no overflow back to the first id
+        assertThat(table.valuesAfter(Long.MAX_VALUE).toList()).isEmpty();
+        assertThat(table.valuesAfter(Long.MIN_VALUE).limit(1).toList()).containsExactly("v3");
+    }
+
+    @Test
+    void testIdTable_sharded_valuesInIdOrderAcrossShards() {
+        final IdTable<String> sharded = new IdTable<>(3);
+        for (long id : new long[] {9_000, 3, 70_000, 4_096, 4_095, 1, 2}) {
+            sharded.put(id, "v" + id);
+        }
+
+        assertThat(sharded.values().toList()).containsExactly("v1", "v2", "v3", "v4095", "v4096", "v9000", "v70000");
+        assertThat(sharded.valuesAfter(3).limit(2).toList()).containsExactly("v4095", "v4096");
+        // ids 3, 4095 and 9000 are multiples of 3
+        assertThat(sharded.shardValues(0).toList()).containsExactly("v3", "v4095", "v9000");
+        assertThat(sharded.size()).isEqualTo(7);
+        assertThat(sharded.remove(4_096L)).isEqualTo("v4096");
+        assertThat(sharded.get(4_096L)).isNull();
+        assertThat(sharded.size()).isEqualTo(6);
+    }
+
+    @Test
+    void testLongList_behavesLikeList() {
+        final LongList ids = LongList.copyOf(List.of(3L, 1L, 3L));
+
+        assertThat(ids).isEqualTo(List.of(3L, 1L, 3L));
+        assertThat(ids.hashCode()).isEqualTo(List.of(3L, 1L, 3L).hashCode());
+        assertThat(ids.contains(1L)).isTrue();
+        assertThat(ids.contains((Object) 1)).isFalse();
+        assertThat(ids.without(3L)).containsExactly(1L);
+        assertThat(ids.with(8L).getLong(3)).isEqualTo(8L);
+        assertThat(LongList.copyOf(ids)).isSameAs(ids);
+        assertThat(LongList.copyOf(List.of())).isSameAs(LongList.EMPTY);
+    }
+
+    @Test
+    void testLongList_appendsShareSpareCapacityWithoutChangingEarlierLists() {
+        LongList appended = LongList.EMPTY;
+        for (long id = 0; id < 100; id++) {
+            appended = appended.with(id);
+        }
+        final LongList prefix = appended.withAll(List.of(100L, 101L));
+
+        // both extend prefix: the first writes into the shared array, the second gets a copy
+        final LongList first = prefix.with(1L);
+        final LongList second = prefix.with(2L);
+        assertThat(prefix).hasSize(102).endsWith(100L, 101L);
+        assertThat(first).hasSize(103).endsWith(101L, 1L);
+        assertThat(second).hasSize(103).endsWith(101L, 2L);
+        assertThat(prefix.contains(1L)).isTrue();
+        assertThat(prefix.indexOf(2L)).isEqualTo(2);
+        assertThat(prefix.longStream().count()).isEqualTo(102);
+        assertThatThrownBy(() -> prefix.getLong(102)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.cms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.example.cms.dto.PostRequest;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+public class MetricsIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void testPrometheusEndpoint_exposesRequestServiceAndRepositoryMetrics() {
+        restTemplate.getForEntity("/blogposts", String.class);
+        restTemplate.getForEntity("/blogposts?limit=0", String.class);
+        PostRequest update = new PostRequest("Titel", "Frau Müller", "Inhalt", new ArrayList<>());
+        restTemplate.exchange("/blogposts/{id}", HttpMethod.PUT, new HttpEntity<>(update), String.class, 999_999L);
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/actuator/prometheus", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String metrics = response.getBody();
+        assertThat(metrics).contains("http_server_requests_seconds_bucket");
+        assertThat(metrics).contains("cms_service_calls_seconds_bucket");
+        assertThat(metrics).containsPattern("cms_service_results_total\\{[^}]*method=\"getBlogpostPage\",outcome=\"INVALID_INPUT\"");
+        assertThat(metrics).containsPattern("cms_service_results_total\\{[^}]*method=\"updateBlogpost\",outcome=\"NOT_FOUND\"");
+        assertThat(metrics).containsPattern("cms_repository_size\\{[^}]*repository=\"blogposts\"");
+        // GET /blogposts walks every blogpost once
+        assertThat(metrics).containsPattern("cms_request_scans_sum\\{[^}]*method=\"GET\",uri=\"/blogposts\"} [1-9]");
+        assertThat(metrics).containsPattern("cms_repository_scans_total\\{[^}]*method=\"mapShards\",repository=\"BlogpostRepository\"");
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.cms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.cms.dto.CategoryRequest;
+import com.example.cms.dto.PostRequest;
+import com.example.cms.dto.StatusRequest;
+import com.example.cms.model.Change;
+import com.example.cms.model.Status;
+import com.example.cms.persistence.ReplicationFollower;
+import com.example.cms.persistence.ReplicationLeader;
+import com.example.cms.repository.BlogpostRepository;
+import com.example.cms.repository.BlogpostVersionRepository;
+import com.example.cms.repository.CategoryIndex;
+import com.example.cms.repository.CategoryRepository;
+import com.example.cms.repository.ChangeLog;
+import com.example.cms.repository.SearchIndex;
+import com.example.cms.repository.StatusIndex;
+import com.example.cms.repository.SuggestIndex;
+import com.example.cms.service.BlogpostService;
+import com.example.cms.service.CategoryService;
+import com.example.cms.util.CategoryMapper;
+import com.example.cms.util.CategoryNameResolver;
+import com.example.cms.util.EncodedPostCache;
+import com.example.cms.util.PostMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ReplicationTest {
+
+    private ReplicationLeader leader;
+    private final List<ReplicationFollower> followers = new ArrayList<>();
+
+    // repositories, indexes and services of one instance, wired as the Spring context wires them
+    private record Node(BlogpostRepository blogposts, BlogpostVersionRepository versions, CategoryRepository categories,
+                        CategoryIndex categoryIndex, SearchIndex searchIndex, StatusIndex statusIndex, SuggestIndex suggestIndex,
+                        CategoryNameResolver categoryNameResolver, EncodedPostCache encodedPostCache, ChangeLog changeLog,
+                        BlogpostService blogpostService, CategoryService categoryService) {
+
+        static Node create() {
+            return create(1);
+        }
+
+        static Node create(final int shards) {
+            final BlogpostRepository blogposts = new BlogpostRepository(shards, 1);
+            final BlogpostVersionRepository versions = new BlogpostVersionRepository(shards);
+            final CategoryRepository categories = new CategoryRepository();
+            final CategoryIndex categoryIndex = new CategoryIndex();
+            final SearchIndex searchIndex = new SearchIndex();
+            final StatusIndex statusIndex = new StatusIndex(blogposts);
+            final SuggestIndex suggestIndex = new SuggestIndex();
+            final CategoryNameResolver categoryNameResolver = new CategoryNameResolver(categories);
+            final EncodedPostCache encodedPostCache = new EncodedPostCache(new ObjectMapper().findAndRegisterModules(), categoryNameResolver,
+                new SimpleMeterRegistry(), 1000);
+            final ChangeLog changeLog = new ChangeLog(1000);
+            final BlogpostService blogpostService = new BlogpostService(blogposts, versions, categories, new PostMapper(categoryNameResolver), categoryIndex,
+                List.of(categoryIndex, searchIndex, statusIndex, suggestIndex), encodedPostCache, searchIndex, statusIndex, suggestIndex, changeLog);
+            final CategoryService categoryService = new CategoryService(categories, blogposts, versions, new CategoryMapper(), categoryIndex,
+                categoryNameResolver, changeLog);
+            return new Node(blogposts, versions, categories, categoryIndex, searchIndex, statusIndex, suggestIndex, categoryNameResolver,
+                encodedPostCache, changeLog, blogpostService, categoryService);
+        }
+
+        ReplicationLeader lead(final int logRecords) throws IOException {
+            final ReplicationLeader leader = new ReplicationLeader(blogposts, versions, categories, Optional.empty(), new SimpleMeterRegistry(),
+                "127.0.0.1", 0, logRecords, 1 << 20, 100);
+            leader.start();
+            return leader;
+        }
+
+        ReplicationFollower follow(final ReplicationLeader leader) {
+            final ReplicationFollower follower = new ReplicationFollower(blogposts, versions, categories,
+                List.of(categoryIndex, searchIndex, statusIndex, suggestIndex), categoryIndex, statusIndex, encodedPostCache, categoryNameResolver,
+                changeLog, new SimpleMeterRegistry(), "127.0.0.1:" + leader.port(), 100);
+            follower.start();
+            return follower;
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (ReplicationFollower follower : followers) {
+            follower.close();
+        }
+        if (leader != null) {
+            leader.close();
+        }
+    }
+
+    @Test
+    void testFollowers_serveLeaderWrites() throws IOException, InterruptedException {
+        final Node primary = Node.create();
+        leader = primary.lead(1000);
+        final Node first = Node.create();
+        final Node second = Node.create();
+        followers.add(first.follow(leader));
+        // joins before any write, so it starts from an empty snapshot and then follows the log
+        awaitTrue(() -> followers.get(0).isConnected());
+
+        final Long tech = primary.categoryService().createCategory(new CategoryRequest("Tech", null)).getData().id();
+        final Long sport = primary.categoryService().createCategory(new CategoryRequest("Sport", null)).getData().id();
+        final Long kept = primary.blogpostService().createBlogpost(new PostRequest("Replikation", "Alice", "Eins", List.of(tech, sport))).getData().blogpostId();
+        final Long deleted = primary.blogpostService().createBlogpost(new PostRequest("Weg", "Bob", "Zwei", List.of(tech))).getData().blogpostId();
+        primary.blogpostService().updateStatus(kept, new StatusRequest(Status.PUBLISHED));
+        primary.blogpostService().patchBlogpost(kept, new PostRequest(null, null, "Drei", List.of(tech)));
+        primary.blogpostService().deleteBlogpost(deleted);
+        primary.categoryService().updateCategory(tech, new CategoryRequest("Technik", null));
+        // joins late, so everything so far arrives in its snapshot
+        followers.add(second.follow(leader));
+
+        for (int i = 0; i < followers.size(); i++) {
+            final ReplicationFollower follower = followers.get(i);
+            final Node replica = i == 0 ? first : second;
+            awaitTrue(() -> follower.appliedSeq() == leader.lastSeq());
+
+            assertThat(replica.blogpostService().getAllBlogposts()).isEqualTo(primary.blogpostService().getAllBlogposts());
+            assertThat(replica.blogpostService().getBlogpost(kept).get().content()).isEqualTo("Drei");
+            assertThat(replica.blogpostService().getBlogpost(kept).get().categories()).containsExactly("Technik");
+            assertThat(replica.blogpostService().getBlogpost(deleted)).isEmpty();
+            assertThat(replica.blogpostService().getBlogpostsByCategory(List.of(tech))).hasSize(1);
+            assertThat(replica.blogpostService().getBlogpostsByCategory(List.of(sport))).isEmpty();
+            // the published version 1 stays listed while version 2 is a draft
+            assertThat(replica.blogpostService().getBlogpostsByStatus(Status.PUBLISHED, List.of())).extracting(post -> post.versionNumber()).containsExactly(1);
+            assertThat(replica.blogpostService().searchBlogposts("drei", 10).getData()).hasSize(1);
+            assertThat(follower.lagRecords()).isZero();
+            assertThat(follower.lagMillis()).isZero();
+        }
+
+        // the first follower records the writes it applied, as the leader does (the patch as an update)
+        final List<Change> changes = first.changeLog().findAfter(first.changeLog().lastSeq() - 8, 100).get();
+        assertThat(changes).extracting(Change::type).containsExactly(Change.Type.CREATED, Change.Type.CREATED, Change.Type.CREATED,
+            Change.Type.CREATED, Change.Type.STATUS_CHANGED, Change.Type.UPDATED, Change.Type.DELETED, Change.Type.UPDATED);
+        assertThat(changes.get(5).id()).isEqualTo(kept);
+        assertThat(changes.get(5).versionNumber()).isEqualTo(2);
+        // the second one got everything in its snapshot: no changes, and positions from before it are gone
+        assertThat(second.changeLog().findAfter(second.changeLog().lastSeq(), 100)).hasValue(List.of());
+        assertThat(second.changeLog().findAfter(second.changeLog().lastSeq() - 1, 100)).isEmpty();
+    }
+
+    @Test
+    void testFollower_fallenBehind_catchesUpFromSnapshot() throws IOException, InterruptedException {
+        final Node primary = Node.create();
+        leader = primary.lead(8);
+        final Node replica = Node.create();
+        final Long removed = primary.blogpostService().createBlogpost(new PostRequest("Alt", "Alice", "Eins", List.of())).getData().blogpostId();
+        final ReplicationFollower disconnected = replica.follow(leader);
+        awaitTrue(() -> disconnected.appliedSeq() == leader.lastSeq());
+        assertThat(replica.blogpostService().getBlogpost(removed)).isPresent();
+        disconnected.close();
+
+        // far more records than the leader keeps while the follower is away
+        primary.blogpostService().deleteBlogpost(removed);
+        for (int i = 0; i < 10; i++) {
+            primary.blogpostService().createBlogpost(new PostRequest("Neu " + i, "Bob", "Inhalt " + i, List.of()));
+        }
+        followers.add(replica.follow(leader));
+        awaitTrue(() -> followers.get(0).appliedSeq() == leader.lastSeq());
+
+        assertThat(replica.blogpostService().getBlogpost(removed)).isEmpty();
+        assertThat(replica.blogpostService().getAllBlogposts()).isEqualTo(primary.blogpostService().getAllBlogposts());
+        assertThat(replica.blogpostService().searchBlogposts("alt", 10).getData()).isEmpty();
+        assertThat(replica.statusIndex().countBlogposts(Status.DRAFT)).isEqualTo(10);
+    }
+
+    @Test
+    void testFollower_differentShardCount_rejected() throws IOException, InterruptedException {
+        final Node primary = Node.create(4);
+        leader = primary.lead(1000);
+        primary.blogpostService().createBlogpost(new PostRequest("Geteilt", "Alice", "Eins", List.of()));
+        final Node replica = Node.create(2);
+        followers.add(replica.follow(leader));
+
+        // version ids are placed by the shard count, so the follower stops instead of applying state it would misplace
+        awaitTrue(() -> !followers.get(0).isFollowing());
+        assertThat(followers.get(0).appliedSeq()).isZero();
+        assertThat(replica.blogposts().findAll()).isEmpty();
+    }
+
+    // Helper: replication is asynchronous
+    private static void awaitTrue(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("replication did not catch up in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
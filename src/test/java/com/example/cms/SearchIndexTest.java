@@ -0,0 +1,114 @@
+package com.example.cms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.repository.SearchIndex;
+import com.example.cms.util.Tokenizer;
+
+public class SearchIndexTest {
+
+    private final SearchIndex index = new SearchIndex();
+
+    private BlogpostVersion version(final String title, final String author, final String content) {
+        BlogpostVersion version = new BlogpostVersion();
+        version.setTitle(title);
+        version.setAuthor(author);
+        version.setContent(content);
+        return version;
+    }
+
+    private List<Long> search(final String query) {
+        return index.search(query, 20).stream().map(SearchIndex.Hit::blogpostId).toList();
+    }
+
+    @Test
+    void testSearch_everyWordRequired_titleRanksFirst() {
+        index.onCurrentVersionChanged(1L, null, version("Gartenarbeit im Herbst", "Frau Müller", "Laub rechen und Beete abdecken"));
+        index.onCurrentVersionChanged(2L, null, version("Rezepte", "Herr Meier", "Kürbissuppe im Herbst, danach Gartenarbeit"));
+        index.onCurrentVersionChanged(3L, null, version("Herbst", "Herr Meier", "Nur Wetter"));
+
+        assertThat(search("Herbst Gartenarbeit")).containsExactly(1L, 2L);
+        assertThat(search("meier")).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(search("Winter")).isEmpty();
+        assertThat(search("  ")).isEmpty();
+    }
+
+    @Test
+    void testSearch_prefixAndPhrase() {
+        index.onCurrentVersionChanged(1L, null, version("Titel", "A", "der schnelle braune Fuchs"));
+        index.onCurrentVersionChanged(2L, null, version("Titel", "A", "der braune schnelle Fuchs"));
+        index.onCurrentVersionChanged(3L, null, version("Titel", "A", "Schneeflocken"));
+
+        assertThat(search("schne*")).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(search("\"schnelle braune\"")).containsExactly(1L);
+        assertThat(search("\"schnelle Fuchs\" braun*")).containsExactly(2L);
+        // phrases do not run from one field into the next
+        assertThat(search("\"a der\"")).isEmpty();
+    }
+
+    @Test
+    void testSearch_followsCurrentVersion() {
+        BlogpostVersion first = version("Alter Titel", "A", "alter Inhalt");
+        BlogpostVersion second = version("Neuer Titel", "A", "neuer Inhalt");
+        index.onCurrentVersionChanged(1L, null, first);
+        index.onCurrentVersionChanged(1L, first, second);
+
+        assertThat(search("alter")).isEmpty();
+        assertThat(search("neuer inhalt")).containsExactly(1L);
+
+        // rollback
+        index.onCurrentVersionChanged(1L, second, first);
+        assertThat(search("alter")).containsExactly(1L);
+        assertThat(search("neuer")).isEmpty();
+
+        index.onCurrentVersionChanged(1L, first, null);
+        assertThat(search("titel")).isEmpty();
+    }
+
+    @Test
+    void testSearch_limitKeepsBestMatches() {
+        for (long id = 1; id <= 50; id++) {
+            index.onCurrentVersionChanged(id, null, version("Titel " + id, "A", "wort ".repeat((int) id % 5 + 1) + "füllwort ".repeat(20)));
+        }
+
+        List<SearchIndex.Hit> hits = index.search("wort", 5);
+
+        assertThat(hits).hasSize(5);
+        assertThat(hits).extracting(SearchIndex.Hit::blogpostId).containsExactly(4L, 9L, 14L, 19L, 24L);
+    }
+
+    @Test
+    void testSearch_wordsGainedInTheMiddle_stillRankedByBlock() {
+        for (long id = 1; id <= 1000; id++) {
+            index.onCurrentVersionChanged(id, null, version("Titel", "A", id % 2 == 0 ? "gemeinsam" : "anders"));
+        }
+        // every odd blogpost gains the word, each an insert in the middle of its postings that shifts all blocks after it
+        for (long id = 999; id > 0; id -= 2) {
+            index.onCurrentVersionChanged(id, null, version("Titel", "A", id == 501 ? "gemeinsam gemeinsam gemeinsam" : "gemeinsam"));
+        }
+
+        assertThat(index.search("gemeinsam", 1)).extracting(SearchIndex.Hit::blogpostId).containsExactly(501L);
+        assertThat(index.search("titel gemeinsam", 1)).extracting(SearchIndex.Hit::blogpostId).containsExactly(501L);
+        assertThat(index.search("gemeinsam", 1000)).hasSize(1000);
+        // a word in only one of them, found where the others' stale blocks would hide it
+        index.onCurrentVersionChanged(2L, null, version("Titel", "A", "gemeinsam einzeln einzeln"));
+        assertThat(index.search("gemeinsam einzeln", 3)).extracting(SearchIndex.Hit::blogpostId).containsExactly(2L);
+        assertThat(index.search("einzeln", 1)).extracting(SearchIndex.Hit::blogpostId).containsExactly(2L);
+    }
+
+    @Test
+    void testTokenize_longWordCutBeforeSurrogatePair() {
+        // U+1D538, a letter outside the BMP, straddles the cut after MAX_TOKEN_LENGTH chars
+        String word = "a".repeat(Tokenizer.MAX_TOKEN_LENGTH - 1) + "\uD835\uDD38" + "b";
+
+        assertThat(Tokenizer.tokenize(word)).containsExactly("a".repeat(Tokenizer.MAX_TOKEN_LENGTH - 1));
+        // a pair ending right at the cut is kept whole
+        assertThat(Tokenizer.tokenize("a".repeat(Tokenizer.MAX_TOKEN_LENGTH - 2) + "\uD835\uDD38\uD835\uDD38"))
+            .containsExactly("a".repeat(Tokenizer.MAX_TOKEN_LENGTH - 2) + "\uD835\uDD38");
+    }
+}
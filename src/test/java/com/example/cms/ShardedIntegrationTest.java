@@ -0,0 +1,70 @@
+package com.example.cms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.example.cms.dto.CategoryRequest;
+import com.example.cms.dto.PostProjection;
+import com.example.cms.dto.PostRequest;
+import com.example.cms.dto.PostResponse;
+import com.example.cms.repository.BlogpostRepository;
+import com.example.cms.service.BlogpostService;
+import com.example.cms.service.CategoryService;
+import com.example.cms.util.PostFields;
+
+// sharded even on a single core, so listings, category filters and the category cleanup go through the fan-out
+@SpringBootTest(properties = {"cms.repository.shards=4", "cms.repository.fan-out-parallelism=4"})
+public class ShardedIntegrationTest {
+
+    @Autowired
+    private BlogpostService blogpostService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private BlogpostRepository blogpostRepository;
+
+    @Test
+    void testListingsAndCategoryCleanup_acrossShards() {
+        assertThat(blogpostRepository.shards()).isEqualTo(4);
+        Long tech = categoryService.createCategory(new CategoryRequest("Tech", null)).getData().id();
+        Long sport = categoryService.createCategory(new CategoryRequest("Sport", null)).getData().id();
+        // more posts than a category filter keeps on the caller's thread
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            List<Long> categories = i % 3 == 0 ? List.of(tech, sport) : List.of(tech);
+            ids.add(blogpostService.createBlogpost(new PostRequest("Beitrag " + i, "Frau Müller", "Inhalt " + i, categories)).getData().blogpostId());
+        }
+        // a newer version in one shard only moves its post out of one category
+        Long moved = ids.get(1);
+        blogpostService.updateBlogpost(moved, new PostRequest("Verschoben", "Frau Müller", "Neuer Inhalt", List.of(sport)));
+
+        // the shards' results come back merged in id order
+        List<PostResponse> all = blogpostService.getAllBlogposts();
+        assertThat(all).extracting(PostResponse::blogpostId).containsAll(ids).isSortedAccordingTo(Comparator.naturalOrder());
+        assertThat(all).filteredOn(post -> post.blogpostId().equals(moved)).extracting(PostResponse::versionNumber).containsExactly(2);
+        List<PostProjection> summaries = blogpostService.getAllBlogposts(PostFields.SUMMARY);
+        assertThat(summaries).extracting(summary -> summary.version().getBlogpostId()).containsExactlyElementsOf(all.stream().map(PostResponse::blogpostId).toList());
+
+        List<PostResponse> inTech = blogpostService.getBlogpostsByCategory(List.of(tech));
+        assertThat(inTech).hasSize(1199).extracting(PostResponse::blogpostId).doesNotContain(moved).isSortedAccordingTo(Comparator.naturalOrder());
+        assertThat(blogpostService.getBlogpostsByCategory(List.of(tech, sport))).hasSize(400);
+
+        // the cleanup removes the category from every version in every shard, the moved post's history included
+        assertThat(categoryService.deleteCategory(sport)).isTrue();
+        assertThat(blogpostService.getBlogpostsByCategory(List.of(sport))).isEmpty();
+        assertThat(blogpostService.getBlogpost(ids.get(0)).get().categories()).containsExactly("Tech");
+        assertThat(blogpostService.getAllVersionsOfBlogpost(moved).get()).allMatch(version -> !version.categories().contains("Sport"));
+
+        ids.forEach(blogpostService::deleteBlogpost);
+        categoryService.deleteCategory(tech);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.cms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.model.Status;
+import com.example.cms.repository.BlogpostVersionRepository;
+import com.example.cms.util.FanOut;
+
+public class ShardingTest {
+
+    private static BlogpostVersion version(final long blogpostId, final int versionNumber, final List<Long> categories) {
+        BlogpostVersion version = new BlogpostVersion();
+        version.setBlogpostId(blogpostId);
+        version.setVersionNumber(versionNumber);
+        version.setTitle("Titel");
+        version.setAuthor("Frau Müller");
+        version.setContent("Inhalt " + versionNumber);
+        version.setStatus(Status.DRAFT);
+        version.setCategories(categories);
+        return version;
+    }
+
+    @Test
+    void testVersionRepository_handsOutIdsInTheBlogpostsShard() {
+        final BlogpostVersionRepository versions = new BlogpostVersionRepository(4);
+        for (long blogpostId = 1; blogpostId <= 6; blogpostId++) {
+            for (int number = 1; number <= 3; number++) {
+                final BlogpostVersion saved = versions.save(version(blogpostId, number, List.of(7L)));
+                assertThat(saved.getId() % 4).isEqualTo(blogpostId % 4);
+            }
+        }
+
+        assertThat(versions.findIdsByCategory(7L)).hasSize(18).isSorted();
+        assertThat(versions.findIdsByCategory(7L, 1)).hasSize(6).allMatch(id -> id % 4 == 1);
+        assertThat(versions.findByBlogpostId(5L)).extracting(BlogpostVersion::getVersionNumber).containsExactly(1, 2, 3);
+
+        // restoring a watermark keeps every shard from reusing ids below it
+        final BlogpostVersionRepository restored = new BlogpostVersionRepository(4);
+        restored.reserveIdsBelow(versions.idWatermark());
+        for (long blogpostId = 1; blogpostId <= 4; blogpostId++) {
+            assertThat(restored.save(version(blogpostId, 1, List.of())).getId()).isGreaterThanOrEqualTo(versions.idWatermark());
+        }
+    }
+
+    @Test
+    void testFanOut_mergesShardResultsInIdOrder() {
+        try (FanOut fanOut = new FanOut(3, 3)) {
+            final List<String> mapped = fanOut.map(
+                shard -> LongStream.rangeClosed(1, 20).filter(id -> id % 3 == shard).boxed().toList(),
+                Long::longValue,
+                ids -> ids.stream().map(id -> "post " + id + " on " + Thread.currentThread().getName().startsWith("fan-out")).toList());
+
+            assertThat(mapped).hasSize(20);
+            assertThat(mapped.get(0)).startsWith("post 1 ");
+            assertThat(mapped.get(19)).startsWith("post 20 ");
+            // shard 0 (ids 3, 6, ...) runs on the caller, the others on the pool
+            assertThat(mapped.get(2)).isEqualTo("post 3 on false");
+            assertThat(mapped.get(0)).isEqualTo("post 1 on true");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.cms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.repository.SuggestIndex;
+import com.example.cms.repository.SuggestIndex.Field;
+
+public class SuggestIndexTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final SuggestIndex index = new SuggestIndex();
+
+    private BlogpostVersion version(final String title, final String author, final int minute) {
+        BlogpostVersion version = new BlogpostVersion();
+        version.setTitle(title);
+        version.setAuthor(author);
+        version.setCreatedAt(START.plusMinutes(minute));
+        return version;
+    }
+
+    private List<String> suggest(final Field field, final String prefix) {
+        return index.suggest(field, prefix, SuggestIndex.TOP_K).stream().map(SuggestIndex.Suggestion::text).toList();
+    }
+
+    @Test
+    void testSuggest_prefixIgnoresCase_newestFirst() {
+        index.onCurrentVersionChanged(1L, null, version("Gartenarbeit im Herbst", "Frau Müller", 1));
+        index.onCurrentVersionChanged(2L, null, version("Garten im Winter", "Herr Meier", 2));
+        index.onCurrentVersionChanged(3L, null, version("Gästebuch", "Frau Müller", 3));
+
+        assertThat(suggest(Field.TITLE, "gar")).containsExactly("Garten im Winter", "Gartenarbeit im Herbst");
+        assertThat(suggest(Field.TITLE, "G")).containsExactly("Gästebuch", "Garten im Winter", "Gartenarbeit im Herbst");
+        assertThat(suggest(Field.TITLE, "Gartenarbeit im Herbst und mehr")).isEmpty();
+        assertThat(suggest(Field.TITLE, "x")).isEmpty();
+        // one suggestion per distinct value, pointing at its newest use
+        assertThat(index.suggest(Field.AUTHOR, "frau", 10))
+            .containsExactly(new SuggestIndex.Suggestion("Frau Müller", 3L, START.plusMinutes(3)));
+    }
+
+    @Test
+    void testSuggest_followsCurrentVersion() {
+        BlogpostVersion first = version("Alter Titel", "A", 1);
+        BlogpostVersion second = version("Neuer Titel", "A", 2);
+        index.onCurrentVersionChanged(1L, null, first);
+        index.onCurrentVersionChanged(2L, null, version("Alter Titel", "B", 3));
+        index.onCurrentVersionChanged(1L, first, second);
+
+        assertThat(index.suggest(Field.TITLE, "alt", 10)).extracting(SuggestIndex.Suggestion::blogpostId).containsExactly(2L);
+        assertThat(suggest(Field.TITLE, "neu")).containsExactly("Neuer Titel");
+
+        index.onCurrentVersionChanged(1L, second, null);
+        assertThat(suggest(Field.TITLE, "neu")).isEmpty();
+        assertThat(index.countValues(Field.TITLE)).isEqualTo(1);
+    }
+
+    @Test
+    void testSuggest_randomWritesMatchFullScan() {
+        // enough values under one prefix that the cached top lists are built, updated and dropped again;
+        // creation times are distinct but arrive out of order
+        final SplittableRandom random = new SplittableRandom(7);
+        final Map<Long, BlogpostVersion> current = new HashMap<>();
+        for (int step = 0; step < 5_000; step++) {
+            final long id = random.nextInt(300);
+            final BlogpostVersion previous = current.get(id);
+            final BlogpostVersion next = random.nextInt(10) == 0 ? null
+                : version("t" + Integer.toString(random.nextInt(400), 3), "a" + random.nextInt(5),
+                    random.nextInt(1_000) * 10_000 + step);
+            if (next == null) {
+                current.remove(id);
+            } else {
+                current.put(id, next);
+            }
+            index.onCurrentVersionChanged(id, previous, next);
+
+            if (step % 50 == 0) {
+                for (String prefix : List.of("t", "t1", "t12", "t2", "t10", "a")) {
+                    final Field field = prefix.startsWith("a") ? Field.AUTHOR : Field.TITLE;
+                    assertThat(index.suggest(field, prefix, SuggestIndex.TOP_K)).as("prefix %s at step %d", prefix, step)
+                        .isEqualTo(expected(current, field, prefix));
+                }
+            }
+        }
+    }
+
+    // the same answer from all current versions
+    private static List<SuggestIndex.Suggestion> expected(final Map<Long, BlogpostVersion> current, final Field field, final String prefix) {
+        final Map<String, SuggestIndex.Suggestion> newest = new HashMap<>();
+        current.forEach((id, version) -> {
+            final String text = field == Field.TITLE ? version.getTitle() : version.getAuthor();
+            if (text.toLowerCase(Locale.ROOT).startsWith(prefix)) {
+                newest.merge(text, new SuggestIndex.Suggestion(text, id, version.getCreatedAt()),
+                    (a, b) -> a.updatedAt().isBefore(b.updatedAt()) ? b : a);
+            }
+        });
+        return newest.values().stream()
+            .sorted(Comparator.comparing(SuggestIndex.Suggestion::updatedAt).reversed().thenComparing(SuggestIndex.Suggestion::text))
+            .limit(SuggestIndex.TOP_K)
+            .toList();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.cms.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import com.example.cms.logging.AccessLogBuffer;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.FileAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// CPU per request spent on logging, written to a file with Spring Boot's default pattern: the per-call log lines a
+// filtered GET /blogposts used to produce (controller and service) vs. one access-log record, including the time the
+// background thread needs to write it
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(AccessLogBenchmark.REQUESTS)
+@Warmup(iterations = 3, batchSize = 1)
+@Measurement(iterations = 5, batchSize = 1)
+@Fork(1)
+public class AccessLogBenchmark {
+    static final int REQUESTS = 100_000;
+    private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %pid --- [%15.15t] %-40.40logger{39} : %m%n";
+
+    private final List<Long> categoryIds = List.of(1L, 2L);
+    private Path directory;
+    private Logger controllerLog;
+    private Logger serviceLog;
+    private AccessLogBuffer buffer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("cms-access-log");
+        controllerLog = fileLogger("com.example.cms.controller.BlogpostController", "requests.log");
+        serviceLog = fileLogger("com.example.cms.service.BlogpostService", "requests.log");
+        fileLogger("cms.access", "access.log");
+        buffer = new AccessLogBuffer(new SimpleMeterRegistry(), 1 << 17);
+    }
+
+    private Logger fileLogger(final String name, final String file) {
+        final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        final PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        final FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setFile(directory.resolve(file).toString());
+        appender.setEncoder(encoder);
+        appender.start();
+        final Logger logger = (Logger) LoggerFactory.getLogger(name);
+        logger.detachAndStopAllAppenders();
+        logger.addAppender(appender);
+        logger.setAdditive(false);
+        logger.setLevel(ch.qos.logback.classic.Level.INFO);
+        return logger;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        buffer.close();
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void perCallLogging() {
+        for (int i = 0; i < REQUESTS; i++) {
+            String logMessage = "Received request: GET /blogposts";
+            logMessage += String.format(" with filter by categories %s", categoryIds);
+            controllerLog.info(logMessage);
+            serviceLog.info("Filter blogposts by categories {}", categoryIds);
+            serviceLog.info("Successfully fetched {} current versions for each blogpost", 20);
+        }
+    }
+
+    @Benchmark
+    public long accessLog() {
+        for (int i = 0; i < REQUESTS; i++) {
+            buffer.publish("GET", "/blogposts", "categoryId=1&categoryId=2", "/blogposts", 200, 250, null);
+        }
+        while (buffer.pending() > 0) {
+            LockSupport.parkNanos(100_000);
+        }
+        return buffer.dropped();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.cms.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.slf4j.LoggerFactory;
+
+import com.example.cms.dto.CategoryRequest;
+import com.example.cms.dto.PostRequest;
+import com.example.cms.repository.BlogpostRepository;
+import com.example.cms.repository.BlogpostVersionRepository;
+import com.example.cms.repository.CategoryIndex;
+import com.example.cms.repository.CategoryRepository;
+import com.example.cms.repository.ChangeLog;
+import com.example.cms.repository.SearchIndex;
+import com.example.cms.repository.StatusIndex;
+import com.example.cms.repository.SuggestIndex;
+import com.example.cms.service.BlogpostService;
+import com.example.cms.service.CategoryService;
+import com.example.cms.util.CategoryMapper;
+import com.example.cms.util.CategoryNameResolver;
+import com.example.cms.util.EncodedPostCache;
+import com.example.cms.util.PostMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Services wired the way the Spring context wires them, filled through the services with a generated dataset
+final class BenchmarkData {
+    static final int CATEGORIES = 50;
+
+    final BlogpostRepository blogpostRepository;
+    final BlogpostVersionRepository versionRepository;
+    final CategoryRepository categoryRepository = new CategoryRepository();
+    final CategoryIndex categoryIndex = new CategoryIndex();
+    final SearchIndex searchIndex = new SearchIndex();
+    final StatusIndex statusIndex;
+    final SuggestIndex suggestIndex = new SuggestIndex();
+    final ChangeLog changeLog = new ChangeLog(100_000);
+    final CategoryNameResolver categoryNameResolver = new CategoryNameResolver(categoryRepository);
+    final PostMapper postMapper = new PostMapper(categoryNameResolver);
+    final BlogpostService blogpostService;
+    final CategoryService categoryService;
+
+    final List<Long> blogpostIds = new ArrayList<>();
+    final List<Long> categoryIds = new ArrayList<>();
+
+    BenchmarkData(final int posts, final int versionsPerPost, final int categoriesPerPost) {
+        this(posts, versionsPerPost, categoriesPerPost, 1, 1);
+    }
+
+    // repositories split into shards, scanned by up to parallelism threads
+    BenchmarkData(final int posts, final int versionsPerPost, final int categoriesPerPost, final int shards, final int parallelism) {
+        blogpostRepository = new BlogpostRepository(shards, parallelism);
+        versionRepository = new BlogpostVersionRepository(shards);
+        statusIndex = new StatusIndex(blogpostRepository);
+        // the services log every call at INFO; console output would dominate what is measured
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        final EncodedPostCache encodedPostCache = new EncodedPostCache(new ObjectMapper().findAndRegisterModules(), categoryNameResolver,
+            new SimpleMeterRegistry(), 10_000);
+        blogpostService = new BlogpostService(blogpostRepository, versionRepository, categoryRepository, postMapper, categoryIndex,
+            List.of(categoryIndex, searchIndex, statusIndex, suggestIndex), encodedPostCache, searchIndex, statusIndex, suggestIndex, changeLog);
+        categoryService = new CategoryService(categoryRepository, blogpostRepository, versionRepository, new CategoryMapper(), categoryIndex,
+            categoryNameResolver, changeLog);
+
+        for (int i = 0; i < CATEGORIES; i++) {
+            categoryIds.add(categoryService.createCategory(new CategoryRequest("Kategorie " + i, "Beschreibung " + i)).getData().id());
+        }
+        final SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < posts; i++) {
+            final List<Long> categories = categories(random, categoriesPerPost);
+            final String content = "Inhalt des Beitrags " + i + ". ".repeat(100);
+            final Long id = blogpostService.createBlogpost(new PostRequest("Titel " + i, "Autor " + (i % 100), content, categories))
+                .getData().blogpostId();
+            for (int version = 2; version <= versionsPerPost; version++) {
+                blogpostService.updateBlogpost(id, new PostRequest("Titel " + i, "Autor " + (i % 100), content + " Überarbeitung " + version, categories));
+            }
+            blogpostIds.add(id);
+        }
+    }
+
+    // distinct random category ids
+    List<Long> categories(final SplittableRandom random, final int count) {
+        final List<Long> categories = new ArrayList<>(count);
+        while (categories.size() < Math.min(count, CATEGORIES)) {
+            final Long categoryId = categoryIds.get(random.nextInt(CATEGORIES));
+            if (!categories.contains(categoryId)) {
+                categories.add(categoryId);
+            }
+        }
+        return categories;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.cms.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.cms.dto.PostRequest;
+import com.example.cms.dto.PostResponse;
+import com.example.cms.service.ServiceResult;
+
+// Hot paths of BlogpostService and PostMapper; the dataset is rebuilt every iteration so writes do not pile up across iterations
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BlogpostServiceBenchmark {
+
+    @Param({"1000", "10000"})
+    public int posts;
+
+    @Param({"1", "10"})
+    public int versionsPerPost;
+
+    @Param({"1", "5"})
+    public int categoriesPerPost;
+
+    private BenchmarkData data;
+    private List<Long> filter;
+    private PostRequest update;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        data = new BenchmarkData(posts, versionsPerPost, categoriesPerPost);
+        filter = List.of(data.categoryIds.get(0));
+        update = new PostRequest("Neuer Titel", "Autor", "Neuer Inhalt des Beitrags", List.of(data.categoryIds.get(1)));
+    }
+
+    @Benchmark
+    public List<PostResponse> getAllBlogposts() {
+        return data.blogpostService.getAllBlogposts();
+    }
+
+    @Benchmark
+    public List<PostResponse> getBlogpostsByCategory() {
+        return data.blogpostService.getBlogpostsByCategory(filter);
+    }
+
+    @Benchmark
+    public ServiceResult<PostResponse> updateBlogpost() {
+        return data.blogpostService.updateBlogpost(randomBlogpostId(), update);
+    }
+
+    @Benchmark
+    public ServiceResult<PostResponse> rollbackBlogpost() {
+        return data.blogpostService.rollbackBlogpost(randomBlogpostId(), 1 + ThreadLocalRandom.current().nextInt(versionsPerPost));
+    }
+
+    @Benchmark
+    public PostResponse postMapperToResponse() {
+        final Long currentVersion = data.blogpostRepository.findById(randomBlogpostId()).orElseThrow().getCurrentVersion();
+        return data.postMapper.toResponse(data.versionRepository.findById(currentVersion).orElseThrow());
+    }
+
+    private Long randomBlogpostId() {
+        return data.blogpostIds.get(ThreadLocalRandom.current().nextInt(data.blogpostIds.size()));
+    }
+}
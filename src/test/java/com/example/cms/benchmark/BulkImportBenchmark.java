@@ -0,0 +1,118 @@
+package com.example.cms.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import com.example.cms.dto.BulkPost;
+import com.example.cms.dto.ImportResponse;
+import com.example.cms.persistence.DurabilityMode;
+import com.example.cms.persistence.DurableStorage;
+import com.example.cms.repository.BlogpostRepository;
+import com.example.cms.repository.BlogpostVersionRepository;
+import com.example.cms.repository.CategoryIndex;
+import com.example.cms.repository.CategoryRepository;
+import com.example.cms.repository.ChangeLog;
+import com.example.cms.model.Category;
+import com.example.cms.service.BlogpostBulkService;
+import com.example.cms.util.NdjsonReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.qos.logback.classic.Logger;
+
+// POST /blogposts/import without HTTP: parsing, validation and insertion of 10,000 blogposts with 10 versions each,
+// reported in versions per second, in memory only and with durable storage (group commit)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(BulkImportBenchmark.POSTS * BulkImportBenchmark.VERSIONS)
+@Warmup(iterations = 3, batchSize = 1)
+@Measurement(iterations = 5, batchSize = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BulkImportBenchmark {
+    static final int POSTS = 10_000;
+    static final int VERSIONS = 10;
+
+    @Param({"false", "true"})
+    public boolean durable;
+
+    private final NdjsonReader ndjsonReader = new NdjsonReader(new ObjectMapper().findAndRegisterModules());
+    private byte[] ndjson;
+    private BlogpostBulkService bulkService;
+    private DurableStorage storage;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.WARN);
+        final StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < POSTS; i++) {
+            lines.append("{\"versions\":[");
+            for (int version = 1; version <= VERSIONS; version++) {
+                lines.append(version == 1 ? "" : ",")
+                    .append("{\"title\":\"Titel ").append(i).append("\",\"author\":\"Autor ").append(i % 100)
+                    .append("\",\"content\":\"Inhalt des Beitrags ").append(i).append(". ".repeat(100)).append(" Überarbeitung ").append(version)
+                    .append("\",\"categoryIds\":[").append(1 + i % BenchmarkData.CATEGORIES).append("]}");
+            }
+            lines.append("]}\n");
+        }
+        ndjson = lines.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() throws IOException {
+        final BlogpostRepository blogpostRepository = new BlogpostRepository();
+        final BlogpostVersionRepository versionRepository = new BlogpostVersionRepository();
+        final CategoryRepository categoryRepository = new CategoryRepository();
+        final CategoryIndex categoryIndex = new CategoryIndex();
+        for (int i = 0; i < BenchmarkData.CATEGORIES; i++) {
+            categoryRepository.save(new Category(null, "Kategorie " + i, null));
+        }
+        if (durable) {
+            directory = Files.createTempDirectory("cms-import");
+            storage = new DurableStorage(blogpostRepository, versionRepository, categoryRepository, List.of(categoryIndex),
+                directory.toString(), DurabilityMode.BATCHED, 64L << 20, Long.MAX_VALUE, 200, false);
+            storage.start();
+        }
+        bulkService = new BlogpostBulkService(blogpostRepository, versionRepository, categoryRepository, List.of(categoryIndex), new ChangeLog(100_000), 1000);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws IOException {
+        if (storage == null) { return; }
+        storage.close();
+        storage = null;
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public ImportResponse importBlogposts() {
+        return bulkService.importBlogposts(ndjsonReader.read(new ByteArrayInputStream(ndjson), BulkPost.class));
+    }
+}
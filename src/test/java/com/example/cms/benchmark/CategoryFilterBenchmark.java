@@ -0,0 +1,103 @@
+package com.example.cms.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.cms.model.Blogpost;
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.model.Status;
+import com.example.cms.repository.BlogpostRepository;
+import com.example.cms.repository.BlogpostVersionRepository;
+import com.example.cms.repository.CategoryIndex;
+
+// Compares the full-scan category filter with the bitmap index lookup used by BlogpostService.getBlogpostsByCategory
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CategoryFilterBenchmark {
+
+    private static final int CATEGORIES = 50;
+
+    @Param({"100000", "1000000"})
+    public int posts;
+
+    private BlogpostRepository repository;
+    private BlogpostVersionRepository versionRepository;
+    private CategoryIndex categoryIndex;
+    private final List<Long> filter = List.of(3L, 7L);
+
+    @Setup
+    public void setUp() {
+        repository = new BlogpostRepository();
+        versionRepository = new BlogpostVersionRepository();
+        categoryIndex = new CategoryIndex();
+        final SplittableRandom random = new SplittableRandom(42);
+        final LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < posts; i++) {
+            final List<Long> categories = new ArrayList<>();
+            final int count = 1 + random.nextInt(5);
+            while (categories.size() < count) {
+                final long categoryId = 1 + random.nextInt(CATEGORIES);
+                if (!categories.contains(categoryId)) {
+                    categories.add(categoryId);
+                }
+            }
+            final Blogpost post = new Blogpost();
+            post.setId(repository.nextId());
+            final BlogpostVersion version = new BlogpostVersion();
+            version.setBlogpostId(post.getId());
+            version.setVersionNumber(1);
+            version.setTitle("Title");
+            version.setAuthor("Author");
+            version.setContent("Content");
+            version.setStatus(Status.DRAFT);
+            version.setCreatedAt(now);
+            version.setCategories(List.copyOf(categories));
+            versionRepository.save(version);
+            post.setCurrentVersion(version.getId());
+            post.addVersionId(version.getId());
+            repository.save(post);
+            categoryIndex.onCurrentVersionChanged(post.getId(), null, version);
+        }
+    }
+
+    @Benchmark
+    public List<BlogpostVersion> scan() {
+        return repository.findAll().stream()
+            .map(Blogpost::getCurrentVersion)
+            .map(versionRepository::findById)
+            .flatMap(Optional::stream)
+            .filter(version -> version.getCategories().containsAll(filter))
+            .toList();
+    }
+
+    @Benchmark
+    public List<BlogpostVersion> index() {
+        final List<BlogpostVersion> versions = new ArrayList<>();
+        categoryIndex.findBlogpostIds(filter).forEach((int blogpostId) ->
+            repository.findById((long) blogpostId)
+                .map(Blogpost::getCurrentVersion)
+                .flatMap(versionRepository::findById)
+                .ifPresent(versions::add));
+        return versions;
+    }
+}
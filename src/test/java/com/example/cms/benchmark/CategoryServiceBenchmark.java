@@ -0,0 +1,58 @@
+package com.example.cms.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// CategoryService.deleteCategory looks up the versions referencing the category (current or not) in the repository's
+// reverse index and removes it from them in removeFromVersions: one task per shard, each taking the blogpost lock once per
+// blogpost for all of its versions. deleteCategorySafely checks the category index first. Deleting is destructive,
+// so each iteration deletes all categories of a freshly built dataset once: the score is the time for that whole batch.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = BenchmarkData.CATEGORIES)
+@Measurement(iterations = 5, batchSize = BenchmarkData.CATEGORIES)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CategoryServiceBenchmark {
+
+    @Param({"1000", "10000"})
+    public int posts;
+
+    @Param({"1", "10"})
+    public int versionsPerPost;
+
+    @Param({"1", "5"})
+    public int categoriesPerPost;
+
+    private BenchmarkData data;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        data = new BenchmarkData(posts, versionsPerPost, categoriesPerPost);
+        next = 0;
+    }
+
+    @Benchmark
+    public boolean deleteCategory() {
+        return data.categoryService.deleteCategory(data.categoryIds.get(next++));
+    }
+
+    // with a category on every post the check fails, so this measures the reference check alone
+    @Benchmark
+    public boolean deleteCategorySafely() {
+        return data.categoryService.deleteCategorySafely(data.categoryIds.get(next++));
+    }
+}
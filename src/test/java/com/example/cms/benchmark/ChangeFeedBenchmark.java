@@ -0,0 +1,79 @@
+package com.example.cms.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.cms.dto.ChangePage;
+import com.example.cms.dto.PostRequest;
+import com.example.cms.dto.PostResponse;
+import com.example.cms.model.Change;
+import com.example.cms.service.ChangeService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// One poll of a consumer that syncs every few seconds, after `changed` posts were updated: re-reading GET /blogposts
+// in full vs. reading GET /changes?since= and fetching only the changed posts
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ChangeFeedBenchmark {
+
+    @Param({"1000", "10000"})
+    public int posts;
+
+    @Param({"10"})
+    public int changed;
+
+    private BenchmarkData data;
+    private ChangeService changeService;
+    private long since;
+    // configured like Spring Boot's
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Setup
+    public void setUp() {
+        data = new BenchmarkData(posts, 1, 3);
+        changeService = new ChangeService(data.changeLog, new SimpleMeterRegistry(), 1);
+        since = data.changeLog.lastSeq();
+        final SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < changed; i++) {
+            final Long id = data.blogpostIds.get(random.nextInt(posts));
+            data.blogpostService.updateBlogpost(id, new PostRequest("Titel " + id, "Autor", "Geändert " + i, data.categories(random, 3)));
+        }
+    }
+
+    @Benchmark
+    public byte[] fullScan() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(data.blogpostService.getAllBlogposts());
+    }
+
+    @Benchmark
+    public byte[] changesSince() throws JsonProcessingException {
+        final ChangePage page = changeService.getChanges(since, 1000).getData();
+        final List<PostResponse> changedPosts = new ArrayList<>(page.changes().size());
+        for (Change change : page.changes()) {
+            data.blogpostService.getBlogpost(change.id()).ifPresent(changedPosts::add);
+        }
+        return objectMapper.writeValueAsBytes(changedPosts);
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.cms.benchmark;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.model.Status;
+import com.example.cms.persistence.ColdTier;
+import com.example.cms.repository.BlogpostRepository;
+import com.example.cms.repository.BlogpostVersionRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Heap retained by a history of archived versions with and without the cold tier, the duration of a full GC over it, and
+// the cost of reading an archived version from the heap versus from a cold segment. "sentence" revisions rewrite one
+// sentence (the history is mostly small diffs), "rewrite" revisions replace the whole body (a snapshot per version)
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ColdTierBenchmark {
+
+    private static final int POSTS = 200;
+    private static final int REVISIONS = 100;
+    private static final int CONTENT_LENGTH = 4000;
+
+    @Param({"sentence", "rewrite"})
+    public String edits;
+
+    private BlogpostVersionRepository warm;
+    private BlogpostVersionRepository cold;
+    private ColdTier coldTier;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedKilobytes;
+        public long segmentKilobytes;
+        public long fullGcMillis;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        warm = fill();
+        cold = fill();
+        coldTier = coldTier(cold, new SimpleMeterRegistry());
+        coldTier.sweep();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        coldTier.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public Object retainedOnHeap(final Footprint footprint) {
+        final long before = usedHeap();
+        final BlogpostVersionRepository repository = fill();
+        footprint.retainedKilobytes = (usedHeap() - before) / 1024;
+        footprint.fullGcMillis = fullGcMillis();
+        return repository;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public Object retainedWithColdTier(final Footprint footprint) throws IOException {
+        final long before = usedHeap();
+        final BlogpostVersionRepository repository = fill();
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final ColdTier tier = coldTier(repository, registry);
+        tier.sweep();
+        tier.close();
+        footprint.retainedKilobytes = (usedHeap() - before) / 1024;
+        footprint.segmentKilobytes = (long) registry.get("cms.cold.tier.bytes").gauge().value() / 1024;
+        footprint.fullGcMillis = fullGcMillis();
+        return repository;
+    }
+
+    // the oldest version, at the end of the diff chain in "sentence"
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public String readArchivedOnHeap() {
+        return warm.findByBlogpostIdAndVersionNumber(1L, 1).orElseThrow().getContent();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public String readArchivedCold() {
+        return cold.findByBlogpostIdAndVersionNumber(1L, 1).orElseThrow().getContent();
+    }
+
+    // moves every archived version on sweep(), no background sweeps
+    private static ColdTier coldTier(final BlogpostVersionRepository repository, final SimpleMeterRegistry registry) throws IOException {
+        final ColdTier tier = new ColdTier(new BlogpostRepository(), repository, registry,
+            Files.createTempDirectory("cold-tier-benchmark").toString(), Duration.ZERO, 3_600_000, 64 << 20);
+        tier.start();
+        return tier;
+    }
+
+    // Helper: every version but the latest of each blogpost is archived
+    private BlogpostVersionRepository fill() {
+        final BlogpostVersionRepository repository = new BlogpostVersionRepository();
+        final SplittableRandom random = new SplittableRandom(42);
+        final LocalDateTime createdAt = LocalDateTime.now().minusDays(1);
+        for (long blogpostId = 1; blogpostId <= POSTS; blogpostId++) {
+            StringBuilder text = body(random);
+            for (int versionNumber = 1; versionNumber <= REVISIONS; versionNumber++) {
+                if (edits.equals("rewrite")) {
+                    text = body(random);
+                } else {
+                    final int at = random.nextInt(text.length() - 40);
+                    text.replace(at, at + 20, String.format("Überarbeitung %-6d", versionNumber));
+                }
+                final BlogpostVersion version = new BlogpostVersion();
+                version.setBlogpostId(blogpostId);
+                version.setVersionNumber(versionNumber);
+                version.setTitle("Titel");
+                version.setAuthor("Autor");
+                version.setContent(text.toString());
+                version.setStatus(versionNumber < REVISIONS ? Status.ARCHIVED : Status.DRAFT);
+                version.setCreatedAt(createdAt);
+                version.setCategories(List.of());
+                repository.save(version);
+            }
+        }
+        return repository;
+    }
+
+    private static StringBuilder body(final SplittableRandom random) {
+        final StringBuilder text = new StringBuilder();
+        while (text.length() < CONTENT_LENGTH) {
+            text.append("Satz ").append(random.nextInt(1_000_000)).append(" des Beitrags. ");
+        }
+        return text;
+    }
+
+    private static long fullGcMillis() {
+        final long started = System.nanoTime();
+        System.gc();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.cms.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.cms.CmsApplication;
+
+// Mixed read/write HTTP traffic against BlogpostController with Tomcat on platform threads (capped at 50) or virtual threads.
+// Persistence runs with group commit, so every write blocks on an fsync the way future blocking work would; with platform
+// threads that caps the number of writes waiting for the same fsync at the pool size. Virtual threads need Java 21.
+// Not conclusive yet: the only run so far (Java 21, one core) had an error several times wider than either score, so
+// compare the two on at least four cores. On Java 21 a virtual thread inside a synchronized block pins its carrier. Writes
+// still enter short synchronized sections that never block (Blogpost.addVersionId, the per-blogpost version index,
+// IdTable growth, the ChangeLog and ReplicationLog appends); the ones that wait (awaitAfter) run on the change stream
+// and replication threads, and ColdSegments.write, which may map a new segment file, on the cold tier's thread
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(256)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ControllerLoadBenchmark {
+    private static final int POSTS = 1000;
+    private static final Pattern BLOGPOST_ID = Pattern.compile("\"blogpostId\":(\\d+)");
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"20"})
+    public int writePercent;
+
+    // INFO logs every request (to a file in the data directory, not the console)
+    @Param({"WARN"})
+    public String logLevel;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String base;
+    private final List<Long> ids = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("cms-load");
+        context = new SpringApplicationBuilder(CmsApplication.class)
+            .properties(
+                "server.port=0",
+                "server.tomcat.threads.max=50",
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "cms.persistence.enabled=true",
+                "cms.persistence.directory=" + directory,
+                "cms.persistence.durability=BATCHED",
+                "logging.level.root=" + logLevel,
+                "logging.file.name=" + directory.resolve("cms.log"),
+                "logging.threshold.console=OFF")
+            .run();
+        base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        for (int i = 0; i < POSTS; i++) {
+            final String created = client.send(json("POST", "/blogposts", post("Titel " + i)), HttpResponse.BodyHandlers.ofString()).body();
+            final Matcher id = BLOGPOST_ID.matcher(created);
+            if (id.find()) {
+                ids.add(Long.parseLong(id.group(1)));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public int mixed() throws Exception {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final Long id = ids.get(random.nextInt(ids.size()));
+        final HttpRequest request = random.nextInt(100) < writePercent
+            ? json("PUT", "/blogposts/" + id, post("Überarbeitet " + random.nextInt()))
+            : HttpRequest.newBuilder(URI.create(base + "/blogposts/" + id)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpRequest json(final String method, final String path, final String body) {
+        return HttpRequest.newBuilder(URI.create(base + path))
+            .header("Content-Type", "application/json")
+            .method(method, HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+
+    private static String post(final String title) {
+        return "{\"title\":\"" + title + "\",\"author\":\"Frau Müller\",\"content\":\"Inhalt des Beitrags\",\"categoryIds\":[]}";
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.cms.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.cms.dto.PostResponse;
+import com.example.cms.model.Blogpost;
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.model.Category;
+import com.example.cms.model.Status;
+import com.example.cms.repository.BlogpostRepository;
+import com.example.cms.repository.BlogpostVersionRepository;
+import com.example.cms.repository.CategoryRepository;
+import com.example.cms.util.CategoryNameResolver;
+import com.example.cms.util.PostMapper;
+
+// Id lookups through the repositories and PostMapper, and the heap the repositories retain for their ids. Versions
+// have no content, so what is retained is the id bookkeeping and the version objects themselves
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class IdLookupBenchmark {
+    private static final int CATEGORIES = 1000;
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Param({"100000"})
+    public int posts;
+
+    @Param({"10"})
+    public int versionsPerPost;
+
+    @Param({"3"})
+    public int categoriesPerVersion;
+
+    private Repositories data;
+    private PostMapper postMapper;
+
+    private static final class Repositories {
+        final BlogpostRepository blogposts = new BlogpostRepository();
+        final BlogpostVersionRepository versions = new BlogpostVersionRepository();
+        final CategoryRepository categories = new CategoryRepository();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedKilobytes;
+    }
+
+    @Setup
+    public void setUp() {
+        data = fill();
+        postMapper = new PostMapper(new CategoryNameResolver(data.categories));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public Blogpost findBlogpost() {
+        return data.blogposts.findById(randomBlogpostId()).orElseThrow();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public BlogpostVersion findCurrentVersion() {
+        return data.versions.findById(data.blogposts.findById(randomBlogpostId()).orElseThrow().getCurrentVersion()).orElseThrow();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public BlogpostVersion findByVersionNumber() {
+        return data.versions.findByBlogpostIdAndVersionNumber(randomBlogpostId(), 1 + ThreadLocalRandom.current().nextInt(versionsPerPost))
+            .orElseThrow();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public PostResponse toResponse() {
+        return postMapper.toResponse(data.versions.findById(1L + ThreadLocalRandom.current().nextInt(posts * versionsPerPost)).orElseThrow());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public Object retained(final Footprint footprint) {
+        data = null;
+        final long before = usedHeap();
+        final Repositories filled = fill();
+        footprint.retainedKilobytes = (usedHeap() - before) / 1024;
+        data = filled;
+        return filled;
+    }
+
+    private Repositories fill() {
+        final Repositories filled = new Repositories();
+        for (int i = 0; i < CATEGORIES; i++) {
+            filled.categories.save(new Category(null, "Kategorie " + i, null));
+        }
+        final SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < posts; i++) {
+            final Blogpost blogpost = new Blogpost();
+            blogpost.setId(filled.blogposts.nextId());
+            for (int number = 1; number <= versionsPerPost; number++) {
+                final List<Long> categories = new ArrayList<>(categoriesPerVersion);
+                for (int c = 0; c < categoriesPerVersion; c++) {
+                    categories.add(1L + random.nextInt(CATEGORIES));
+                }
+                final BlogpostVersion version = new BlogpostVersion();
+                version.setBlogpostId(blogpost.getId());
+                version.setVersionNumber(number);
+                version.setTitle("Titel");
+                version.setAuthor("Autor");
+                version.setStatus(Status.DRAFT);
+                version.setCategories(List.copyOf(categories));
+                version.setCreatedAt(CREATED);
+                filled.versions.save(version);
+                blogpost.addVersionId(version.getId());
+                blogpost.setCurrentVersion(version.getId());
+            }
+            filled.blogposts.save(blogpost);
+        }
+        return filled;
+    }
+
+    private long randomBlogpostId() {
+        return 1L + ThreadLocalRandom.current().nextInt(posts);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
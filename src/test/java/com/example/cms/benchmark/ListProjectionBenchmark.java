@@ -0,0 +1,76 @@
+package com.example.cms.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.cms.dto.PostRequest;
+import com.example.cms.util.PostFields;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+// GET /blogposts without HTTP: listing and encoding every current version in full vs. as view=summary. Each post was
+// edited once, so its current version holds contentLength characters and the previous one a diff
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ListProjectionBenchmark {
+
+    @Param({"1000"})
+    public int posts;
+
+    @Param({"500", "5000"})
+    public int contentLength;
+
+    private BenchmarkData data;
+    // configured like Spring Boot's
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    // summed over the measurement iterations
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        public long responseBytes;
+    }
+
+    @Setup
+    public void setUp() {
+        data = new BenchmarkData(posts, 1, 3);
+        final SplittableRandom random = new SplittableRandom(42);
+        final String sentence = "Der Inhalt dieses Beitrags wurde überarbeitet. ";
+        final String content = sentence.repeat(contentLength / sentence.length() + 1).substring(0, contentLength);
+        for (Long id : data.blogpostIds) {
+            data.blogpostService.updateBlogpost(id, new PostRequest("Titel " + id, "Autor", content, data.categories(random, 3)));
+        }
+    }
+
+    @Benchmark
+    public byte[] full(final Size size) throws JsonProcessingException {
+        final byte[] body = objectMapper.writeValueAsBytes(data.blogpostService.getAllBlogposts());
+        size.responseBytes = body.length;
+        return body;
+    }
+
+    @Benchmark
+    public byte[] summary(final Size size) throws JsonProcessingException {
+        final byte[] body = objectMapper.writeValueAsBytes(data.blogpostService.getAllBlogposts(PostFields.SUMMARY));
+        size.responseBytes = body.length;
+        return body;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.cms.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.cms.dto.PostRequest;
+import com.example.cms.dto.PostResponse;
+import com.example.cms.persistence.ReplicationFollower;
+import com.example.cms.persistence.ReplicationLeader;
+import com.example.cms.repository.BlogpostRepository;
+import com.example.cms.repository.BlogpostVersionRepository;
+import com.example.cms.repository.CategoryIndex;
+import com.example.cms.repository.CategoryRepository;
+import com.example.cms.repository.ChangeLog;
+import com.example.cms.repository.SearchIndex;
+import com.example.cms.repository.StatusIndex;
+import com.example.cms.repository.SuggestIndex;
+import com.example.cms.service.ServiceResult;
+import com.example.cms.util.CategoryNameResolver;
+import com.example.cms.util.EncodedPostCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Cost of replication for the writer: blogpost updates on a standalone node vs. a leader without and with two followers
+// on localhost, each applying the log to its own repositories and indexes in the same JVM
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReplicationBenchmark {
+
+    @Param({"standalone", "leader", "leader-2-followers"})
+    public String topology;
+
+    private BenchmarkData data;
+    private ReplicationLeader leader;
+    private final List<ReplicationFollower> followers = new ArrayList<>();
+    private final List<PostRequest> requests = new ArrayList<>();
+
+    // fresh blogposts per iteration, so version histories do not grow across the whole run
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        data = new BenchmarkData(10_000, 1, 1);
+        requests.clear();
+        for (int i = 0; i < 16; i++) {
+            requests.add(new PostRequest("Titel", "Autor", "Inhalt des Beitrags. Überarbeitung " + i, List.of(data.categoryIds.get(0))));
+        }
+        if (topology.equals("standalone")) { return; }
+        leader = new ReplicationLeader(data.blogpostRepository, data.versionRepository, data.categoryRepository, Optional.empty(),
+            new SimpleMeterRegistry(), "127.0.0.1", 0, 100_000, 64 << 20, 1000);
+        leader.start();
+        if (topology.equals("leader-2-followers")) {
+            followers.add(follower());
+            followers.add(follower());
+        }
+    }
+
+    // Helper: a follower with repositories and indexes of its own
+    private ReplicationFollower follower() {
+        final BlogpostRepository blogposts = new BlogpostRepository();
+        final CategoryRepository categories = new CategoryRepository();
+        final CategoryIndex categoryIndex = new CategoryIndex();
+        final StatusIndex statusIndex = new StatusIndex(blogposts);
+        final CategoryNameResolver categoryNameResolver = new CategoryNameResolver(categories);
+        final ReplicationFollower follower = new ReplicationFollower(blogposts, new BlogpostVersionRepository(), categories,
+            List.of(categoryIndex, new SearchIndex(), statusIndex, new SuggestIndex()), categoryIndex, statusIndex,
+            new EncodedPostCache(new ObjectMapper().findAndRegisterModules(), categoryNameResolver, new SimpleMeterRegistry(), 10_000),
+            categoryNameResolver, new ChangeLog(1000), new SimpleMeterRegistry(), "127.0.0.1:" + leader.port(), 1000);
+        follower.start();
+        return follower;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        for (ReplicationFollower follower : followers) {
+            follower.close();
+        }
+        followers.clear();
+        if (leader != null) {
+            leader.close();
+            leader = null;
+        }
+    }
+
+    @Benchmark
+    public ServiceResult<PostResponse> update() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final Long id = data.blogpostIds.get(random.nextInt(data.blogpostIds.size()));
+        return data.blogpostService.updateBlogpost(id, requests.get(random.nextInt(requests.size())));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.cms.benchmark;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.repository.SearchIndex;
+
+// Top-20 queries against SearchIndex. Texts are drawn from a Zipf-distributed vocabulary of 50,000 words ("w0" is the
+// most frequent), so "w1" is in most blogposts, "w5000" in a few hundred of a million
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class SearchBenchmark {
+    private static final int VOCABULARY = 50_000;
+    private static final int WORDS_PER_POST = 60;
+
+    @Param({"100000", "1000000"})
+    public int posts;
+
+    @Param({"w1", "w1 w30", "w5000", "w30 w5000", "w12*", "\"w0 w1\""})
+    public String query;
+
+    private SearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new SearchIndex();
+        final SplittableRandom random = new SplittableRandom(42);
+        // cumulative Zipf(1) weights
+        final double[] cumulative = new double[VOCABULARY];
+        double sum = 0;
+        for (int rank = 0; rank < VOCABULARY; rank++) {
+            sum += 1.0 / (rank + 1);
+            cumulative[rank] = sum;
+        }
+        final StringBuilder text = new StringBuilder();
+        for (int i = 1; i <= posts; i++) {
+            text.setLength(0);
+            for (int word = 0; word < WORDS_PER_POST; word++) {
+                int rank = java.util.Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                rank = rank < 0 ? -rank - 1 : rank;
+                text.append('w').append(Math.min(rank, VOCABULARY - 1)).append(' ');
+            }
+            final BlogpostVersion version = new BlogpostVersion();
+            version.setTitle("Titel " + i);
+            version.setAuthor("Autor " + (i % 100));
+            version.setContent(text.toString());
+            index.onCurrentVersionChanged((long) i, null, version);
+        }
+    }
+
+    @Benchmark
+    public List<SearchIndex.Hit> search() {
+        return index.search(query, 20);
+    }
+}
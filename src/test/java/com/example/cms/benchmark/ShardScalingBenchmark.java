@@ -0,0 +1,82 @@
+package com.example.cms.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.cms.dto.PostRequest;
+import com.example.cms.dto.PostResponse;
+import com.example.cms.service.ServiceResult;
+
+// Throughput vs. shard count and cores: listing all blogposts and filtering by a category (which half of them have)
+// fan out over the shards on a pool of `cores` threads; updates come from 8 writers that only meet in the shard they
+// write to. The number of cores the JVM may use is capped with -XX:ActiveProcessorCount=n in jvmArgsAppend
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ShardScalingBenchmark {
+
+    @Param({"10000"})
+    public int posts;
+
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    @Param({"1", "4"})
+    public int cores;
+
+    private BenchmarkData data;
+    private List<Long> filter;
+    private final List<PostRequest> requests = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = new BenchmarkData(posts, 1, BenchmarkData.CATEGORIES / 2, shards, cores);
+        filter = List.of(data.categoryIds.get(0));
+        for (int i = 0; i < 16; i++) {
+            requests.add(new PostRequest("Titel", "Autor", "Inhalt des Beitrags. Überarbeitung " + i, List.of(data.categoryIds.get(0))));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.blogpostRepository.close();
+    }
+
+    @Benchmark
+    public List<PostResponse> listAll() {
+        return data.blogpostService.getAllBlogposts();
+    }
+
+    @Benchmark
+    public List<PostResponse> filterByCategory() {
+        return data.blogpostService.getBlogpostsByCategory(filter);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ServiceResult<PostResponse> update() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final Long id = data.blogpostIds.get(random.nextInt(data.blogpostIds.size()));
+        return data.blogpostService.updateBlogpost(id, requests.get(random.nextInt(requests.size())));
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.cms.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.repository.SuggestIndex;
+
+// Title suggestions from SuggestIndex, a title edit, and the heap the index retains. Titles are three words of a
+// Zipf-distributed vocabulary ("W0" the most frequent), so "w" matches every title and "w1234 " only a handful
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class SuggestBenchmark {
+    private static final int VOCABULARY = 50_000;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Param({"100000", "1000000"})
+    public int posts;
+
+    @Param({"w", "w1", "w12 w", "w1234 "})
+    public String prefix;
+
+    private List<BlogpostVersion> versions;
+    private SuggestIndex index;
+    private final SplittableRandom random = new SplittableRandom(7);
+    private long edits;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedKilobytes;
+        public long distinctTitles;
+    }
+
+    @Setup
+    public void setUp() {
+        versions = new ArrayList<>(posts);
+        final SplittableRandom random = new SplittableRandom(42);
+        // cumulative Zipf(1) weights
+        final double[] cumulative = new double[VOCABULARY];
+        double sum = 0;
+        for (int rank = 0; rank < VOCABULARY; rank++) {
+            sum += 1.0 / (rank + 1);
+            cumulative[rank] = sum;
+        }
+        for (int i = 1; i <= posts; i++) {
+            final StringBuilder title = new StringBuilder();
+            for (int word = 0; word < 3; word++) {
+                final int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                title.append(word == 0 ? "W" : " W").append(Math.min(rank < 0 ? -rank - 1 : rank, VOCABULARY - 1));
+            }
+            versions.add(version(title.toString(), "Autor " + (i % 10_000), START.plusSeconds(random.nextInt(posts))));
+        }
+        index = build();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public List<SuggestIndex.Suggestion> suggest() {
+        return index.suggest(SuggestIndex.Field.TITLE, prefix, SuggestIndex.TOP_K);
+    }
+
+    // a random blogpost gets a new current version with a new title, the way an update announces it
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public void editTitle() {
+        final int i = random.nextInt(posts);
+        final BlogpostVersion previous = versions.get(i);
+        final BlogpostVersion current = version(previous.getTitle().substring(0, previous.getTitle().lastIndexOf(' ')) + " W" + random.nextInt(VOCABULARY),
+            previous.getAuthor(), START.plusSeconds(posts + edits++));
+        versions.set(i, current);
+        index.onCurrentVersionChanged(i + 1L, previous, current);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public Object retained(final Footprint footprint) {
+        index = null;
+        final long before = usedHeap();
+        final SuggestIndex built = build();
+        footprint.retainedKilobytes = (usedHeap() - before) / 1024;
+        footprint.distinctTitles = built.countValues(SuggestIndex.Field.TITLE);
+        index = built;
+        return built;
+    }
+
+    private SuggestIndex build() {
+        final SuggestIndex built = new SuggestIndex();
+        for (int i = 0; i < versions.size(); i++) {
+            built.onCurrentVersionChanged(i + 1L, null, versions.get(i));
+        }
+        return built;
+    }
+
+    private static BlogpostVersion version(final String title, final String author, final LocalDateTime createdAt) {
+        final BlogpostVersion version = new BlogpostVersion();
+        version.setTitle(title);
+        version.setAuthor(author);
+        version.setCreatedAt(createdAt);
+        return version;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
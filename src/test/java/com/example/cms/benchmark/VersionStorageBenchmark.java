@@ -0,0 +1,120 @@
+package com.example.cms.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.cms.model.BlogpostVersion;
+import com.example.cms.model.Status;
+import com.example.cms.repository.BlogpostVersionRepository;
+
+// Retained heap of the version history with delta storage versus one full String copy per version,
+// and the cost of reading the oldest version back out of the delta chain
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class VersionStorageBenchmark {
+
+    private static final int POSTS = 200;
+    private static final int CONTENT_LENGTH = 4000;
+
+    @Param({"10", "100"})
+    public int revisions;
+
+    private BlogpostVersionRepository chain;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedKilobytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        chain = new BlogpostVersionRepository();
+        fill(chain::save, 1);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public Object retainedWithDeltas(final Footprint footprint) {
+        final long before = usedHeap();
+        final BlogpostVersionRepository repository = new BlogpostVersionRepository();
+        fill(repository::save, POSTS);
+        footprint.retainedKilobytes = (usedHeap() - before) / 1024;
+        return repository;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public Object retainedWithFullCopies(final Footprint footprint) {
+        final long before = usedHeap();
+        final List<BlogpostVersion> versions = new ArrayList<>();
+        fill(versions::add, POSTS);
+        footprint.retainedKilobytes = (usedHeap() - before) / 1024;
+        return versions;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public String reconstructOldest() {
+        return chain.findByBlogpostIdAndVersionNumber(1L, 1).orElseThrow().getContent();
+    }
+
+    // Helper: every revision rewrites one sentence somewhere in an otherwise unchanged body
+    private void fill(final Consumer<BlogpostVersion> sink, final int posts) {
+        final SplittableRandom random = new SplittableRandom(42);
+        final LocalDateTime now = LocalDateTime.now();
+        for (long blogpostId = 1; blogpostId <= posts; blogpostId++) {
+            final StringBuilder text = new StringBuilder();
+            while (text.length() < CONTENT_LENGTH) {
+                text.append("Satz ").append(random.nextInt(1_000_000)).append(" des Beitrags. ");
+            }
+            for (int versionNumber = 1; versionNumber <= revisions; versionNumber++) {
+                final int at = random.nextInt(text.length() - 40);
+                text.replace(at, at + 20, String.format("Überarbeitung %-6d", versionNumber));
+                final BlogpostVersion version = new BlogpostVersion();
+                version.setBlogpostId(blogpostId);
+                version.setVersionNumber(versionNumber);
+                version.setTitle("Titel");
+                version.setAuthor("Autor");
+                version.setContent(text.toString());
+                version.setStatus(Status.DRAFT);
+                version.setCreatedAt(now);
+                version.setCategories(List.of());
+                sink.accept(version);
+            }
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
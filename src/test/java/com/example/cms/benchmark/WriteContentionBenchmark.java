@@ -0,0 +1,72 @@
+package com.example.cms.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.cms.dto.PostRequest;
+import com.example.cms.dto.PostResponse;
+import com.example.cms.service.ServiceResult;
+import com.example.cms.util.IfMatch;
+
+// 16 writers updating blogposts picked at random, on few blogposts (constant conflicts) and on many (almost none).
+// conditionalUpdate reads the current version first and sends it as If-Match; under contention part of these
+// writes end in PRECONDITION_FAILED, which counts as an operation like a successful write
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(16)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class WriteContentionBenchmark {
+
+    @Param({"4", "10000"})
+    public int posts;
+
+    private BenchmarkData data;
+    private final List<PostRequest> requests = new ArrayList<>();
+
+    // fresh blogposts per iteration, so version histories do not grow across the whole run
+    @Setup(Level.Iteration)
+    public void setUp() {
+        data = new BenchmarkData(posts, 1, 1);
+        requests.clear();
+        for (int i = 0; i < 16; i++) {
+            requests.add(new PostRequest("Titel", "Autor", "Inhalt des Beitrags. Überarbeitung " + i, List.of(data.categoryIds.get(0))));
+        }
+    }
+
+    private Long randomPost(final ThreadLocalRandom random) {
+        return data.blogpostIds.get(random.nextInt(data.blogpostIds.size()));
+    }
+
+    @Benchmark
+    public ServiceResult<PostResponse> update() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        return data.blogpostService.updateBlogpost(randomPost(random), requests.get(random.nextInt(requests.size())));
+    }
+
+    @Benchmark
+    public ServiceResult<PostResponse> conditionalUpdate() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final Long id = randomPost(random);
+        final int versionNumber = data.blogpostService.getBlogpost(id).orElseThrow().versionNumber();
+        return data.blogpostService.updateBlogpost(id, requests.get(random.nextInt(requests.size())), IfMatch.parse("\"" + versionNumber + "\"").orElseThrow());
+    }
+}